@@ -7,6 +7,9 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import rjs.random.AliasTable;
+import rjs.random.interfaces.IRandomSource;
+
 public class LetterContainer extends AbstractDataContainer
 {
 	// Letters in latin.
@@ -101,31 +104,65 @@ public class LetterContainer extends AbstractDataContainer
 			{"\u30D3\u30E3", "\u30D3\u30E5", "\u30D3\u30E7"},	// bya byu byo
 			{"\u30D4\u30E3", "\u30D4\u30E5", "\u30D4\u30E7"} };	// pya pyu pyo
 	
+	// Scripts the letters are available in, in the order of the letter tables.
+	public static final int SCRIPT_LATIN = 0;
+	public static final int SCRIPT_HIRAGANA = 1;
+	public static final int SCRIPT_KATAKANA = 2;
+	
+	// Letter tables of all scripts, indexed by the script constants.
+	private static final String[][][] SCRIPTS = { latin, hiragana, katakana };
+	
 	// XML-tag used for the container.
 	private static final String XML_TAG = "letter";
 	
 	// XML-tag used to describe whether a letter is used or not.
 	private static final String XML_TAG_LETTER_STATE = "use_letter";
 	
-	// The letters in use to create random text.
-	private ArrayList<Boolean> mUseLetters = null;
+	// XML-tag used for the weight of a single letter.
+	private static final String XML_TAG_LETTER_WEIGHT = "letter_weight";
+	
+	// Weight of letters unless set otherwise.
+	public static final float DEFAULT_WEIGHT = 1.0f;
+	
+	// The letter lines in use to create random text.
+	private boolean[] mUseLetters = null;
+	
+	// The letters of all used lines per script, one flat array per script.
+	// Rebuilt whenever a line is (de)activated, so random text only needs to pick indices.
+	private String[][] mActiveLetters = null;
+	
+	// Weight of every letter, same layout as the letter tables.
+	// Letters are picked for random text with a chance proportional to their weight.
+	private float[][] mLetterWeights = null;
+	
+	// Alias table to draw the active letters by their weights, null if no letter is active.
+	// Rebuilt together with the active letters, and on its own whenever a weight changes.
+	private AliasTable mActiveLetterTable = null;
 	
 	// Default constructor.
 	public LetterContainer()
 	{
-		this.mUseLetters = new ArrayList<Boolean>();
-		for(int counter = 0; counter < LetterContainer.latin.length; ++ counter)
+		this.mUseLetters = new boolean[LetterContainer.latin.length];
+		for(int counter = 0; counter < this.mUseLetters.length; ++ counter)
+		{
+			this.mUseLetters[counter] = true;
+		}
+		
+		this.mLetterWeights = new float[LetterContainer.latin.length][];
+		for(int lineIndex = 0; lineIndex < this.mLetterWeights.length; ++lineIndex)
 		{
-			this.mUseLetters.add(true);
+			this.mLetterWeights[lineIndex] = new float[LetterContainer.latin[lineIndex].length];
 		}
+		this.resetLetterWeights();
+		this.updateActiveLetters();
 	}
 	
 	// Getter to know which letter lines are used or not.
 	public boolean isUsingLetters(int lineIndex)
 	{
-		if(lineIndex < this.mUseLetters.size())
+		if(lineIndex >= 0 && lineIndex < this.mUseLetters.length)
 		{
-			return this.mUseLetters.get(lineIndex);
+			return this.mUseLetters[lineIndex];
 		}
 		else
 		{
@@ -136,10 +173,131 @@ public class LetterContainer extends AbstractDataContainer
 	// Setter letter line states.
 	public void setUsingLetters(int lineIndex, boolean use)
 	{
-		if(lineIndex >= 0 && lineIndex < this.mUseLetters.size())
+		if(lineIndex >= 0 && lineIndex < this.mUseLetters.length && this.mUseLetters[lineIndex] != use)
+		{
+			this.mUseLetters[lineIndex] = use;
+			this.updateActiveLetters();
+		}
+	}
+	
+	// Getter weight of a single letter.
+	public float getLetterWeight(int lineIndex, int letterIndex)
+	{
+		if(lineIndex >= 0 && lineIndex < this.mLetterWeights.length 
+				&& letterIndex >= 0 && letterIndex < this.mLetterWeights[lineIndex].length)
+		{
+			return this.mLetterWeights[lineIndex][letterIndex];
+		}
+		else
+		{
+			return 0.0f;
+		}
+	}
+	
+	// Setter weight of a single letter. Negative weights are set to zero, letters of weight zero are never picked.
+	public void setLetterWeight(int lineIndex, int letterIndex, float weight)
+	{
+		if(lineIndex >= 0 && lineIndex < this.mLetterWeights.length 
+				&& letterIndex >= 0 && letterIndex < this.mLetterWeights[lineIndex].length)
+		{
+			float newWeight = weight > 0.0f ? weight : 0.0f;
+			if(this.mLetterWeights[lineIndex][letterIndex] != newWeight)
+			{
+				this.mLetterWeights[lineIndex][letterIndex] = newWeight;
+				this.updateActiveLetterTable();
+			}
+		}
+	}
+	
+	// Set the weights of all letters to the default, so all letters are picked equally often.
+	public void resetLetterWeights()
+	{
+		for(float[] lineWeights : this.mLetterWeights)
+		{
+			for(int letterIndex = 0; letterIndex < lineWeights.length; ++letterIndex)
+			{
+				lineWeights[letterIndex] = DEFAULT_WEIGHT;
+			}
+		}
+		this.updateActiveLetterTable();
+	}
+	
+	// Getter number of letters in all used lines. Equal for all scripts.
+	public int getActiveLetterCount()
+	{
+		return this.mActiveLetters[SCRIPT_LATIN].length;
+	}
+	
+	// Getter letter of all used lines at the given index, written in the given script.
+	// The same index denotes the same letter in all scripts.
+	public String getActiveLetter(int script, int index)
+	{
+		return this.mActiveLetters[script][index];
+	}
+	
+	// Draw the index of an active letter with a chance proportional to its weight.
+	// If all active letters weigh zero, all of them are equally likely. Returns -1 if no letter is active.
+	public int nextActiveLetter(IRandomSource source)
+	{
+		if(this.mActiveLetterTable == null)
 		{
-			this.mUseLetters.set(lineIndex, use);
+			return -1;
 		}
+		return this.mActiveLetterTable.next(source);
+	}
+	
+	// Collect the letters of all used lines per script and rebuild the alias table of their weights.
+	private void updateActiveLetters()
+	{
+		int count = 0;
+		for(int lineIndex = 0; lineIndex < this.mUseLetters.length; ++lineIndex)
+		{
+			if(this.mUseLetters[lineIndex])
+			{
+				count += LetterContainer.latin[lineIndex].length;
+			}
+		}
+		
+		this.mActiveLetters = new String[SCRIPTS.length][count];
+		for(int script = 0; script < SCRIPTS.length; ++script)
+		{
+			int letterIndex = 0;
+			for(int lineIndex = 0; lineIndex < this.mUseLetters.length; ++lineIndex)
+			{
+				if(this.mUseLetters[lineIndex])
+				{
+					String[] line = SCRIPTS[script][lineIndex];
+					System.arraycopy(line, 0, this.mActiveLetters[script], letterIndex, line.length);
+					letterIndex += line.length;
+				}
+			}
+		}
+		this.updateActiveLetterTable();
+	}
+	
+	// Rebuild the alias table from the weights of the letters of all used lines.
+	// The active letters only depend on the used lines, so a weight change needs nothing else.
+	private void updateActiveLetterTable()
+	{
+		if(this.mActiveLetters == null)
+		{
+			// Not built yet, the active letters rebuild the table once they are.
+			return;
+		}
+		
+		int count = this.mActiveLetters[SCRIPT_LATIN].length;
+		float[] activeWeights = new float[count];
+		int letterIndex = 0;
+		for(int lineIndex = 0; lineIndex < this.mUseLetters.length; ++lineIndex)
+		{
+			if(this.mUseLetters[lineIndex])
+			{
+				float[] lineWeights = this.mLetterWeights[lineIndex];
+				System.arraycopy(lineWeights, 0, activeWeights, letterIndex, lineWeights.length);
+				letterIndex += lineWeights.length;
+			}
+		}
+		this.mActiveLetterTable = count > 0 ? new AliasTable(activeWeights) : null;
 	}
 	
 	// Write data of the container into a xml-document.
@@ -149,9 +307,9 @@ public class LetterContainer extends AbstractDataContainer
 		
 		// Create new xml-nodes and add them to the document.
 		Element letterElement = doc.createElement(XML_TAG);
-		for(int index = 0; index < this.mUseLetters.size(); ++index)
+		for(int index = 0; index < this.mUseLetters.length; ++index)
 		{
-			Element useLetterElement = this.createXmlElement(doc, XML_TAG_LETTER_STATE, "" + this.mUseLetters.get(index));
+			Element useLetterElement = this.createXmlElement(doc, XML_TAG_LETTER_STATE, "" + this.mUseLetters[index]);
 			
 			// Add the letters as attribute to make the file human readable.
 			String letterLine = "";
@@ -164,6 +322,15 @@ public class LetterContainer extends AbstractDataContainer
 			
 			letterElement.appendChild(useLetterElement);
 		}
+		for(int index = 0; index < this.mLetterWeights.length; ++index)
+		{
+			for(int letterIndex = 0; letterIndex < this.mLetterWeights[index].length; ++letterIndex)
+			{
+				Element weightElement = this.createXmlElement(doc, XML_TAG_LETTER_WEIGHT, "" + this.mLetterWeights[index][letterIndex]);
+				weightElement.setAttribute("letter", LetterContainer.latin[index][letterIndex]);
+				letterElement.appendChild(weightElement);
+			}
+		}
 		this.addElementToRoot(doc, letterElement);
 	}
 	
@@ -172,6 +339,7 @@ public class LetterContainer extends AbstractDataContainer
 	{
 		NodeList nodes = doc.getElementsByTagName(XML_TAG);
 		ArrayList<Boolean> letterStates = new ArrayList<Boolean>();
+		ArrayList<Float> letterWeights = new ArrayList<Float>();
 		
 		// Iterate over nodes (container).
 		for(int index = 0; index < nodes.getLength(); ++index)
@@ -189,16 +357,46 @@ public class LetterContainer extends AbstractDataContainer
 				{
 					letterStates.add(value);
 				}
+				
+				Float weight = this.readFloatFromXmlNode(xmlChild, XML_TAG_LETTER_WEIGHT);
+				if(weight != null)
+				{
+					letterWeights.add(weight);
+				}
 			}
 		}
 		
 		// Only append values if lists share the same size.
-		if(this.mUseLetters.size() == letterStates.size())
+		if(this.mUseLetters.length == letterStates.size())
 		{
-			for(int index = 0; index < this.mUseLetters.size(); ++index)
+			for(int index = 0; index < this.mUseLetters.length; ++index)
 			{
 				this.setUsingLetters(index, letterStates.get(index));
 			}
 		}
+		
+		// Weights are stored line by line, only apply them if all letters got one.
+		int letterCount = 0;
+		for(float[] lineWeights : this.mLetterWeights)
+		{
+			letterCount += lineWeights.length;
+		}
+		if(letterCount == letterWeights.size())
+		{
+			int weightIndex = 0;
+			for(float[] lineWeights : this.mLetterWeights)
+			{
+				for(int letterIndex = 0; letterIndex < lineWeights.length; ++letterIndex)
+				{
+					float weight = letterWeights.get(weightIndex++);
+					lineWeights[letterIndex] = weight > 0.0f ? weight : 0.0f;
+				}
+			}
+		}
+		else
+		{
+			this.resetLetterWeights();
+		}
+		this.updateActiveLetters();
 	}
 }
@@ -7,7 +7,7 @@ import org.w3c.dom.NodeList;
 
 /**
  * Container storing data connected to number learning sessions.
- * Also contains static string array with numbers in hiragana.
+ * Also contains static string arrays with numbers in hiragana and kanji numerals.
  * @author Schlewinow
  */
 public class NumberContainer extends AbstractDataContainer
@@ -32,15 +32,20 @@ public class NumberContainer extends AbstractDataContainer
 	 */
 	private static final String XML_TAG_MINUS = "allow_minus";
 	
+	/**
+	 * XML-tag used to describe whether numbers are shown in kanji numerals as well.
+	 */
+	private static final String XML_TAG_KANJI = "show_kanji";
+	
 	/**
 	 * String containing katakana minus.
 	 */
 	public static final String Minus = "\u30DE\u30A4\u30CA\u30B9";
 	
 	/**
-	 * String containing hiragana comma.
+	 * String containing hiragana comma (decimal point).
 	 */
-	public static final String Comma = "comma";
+	public static final String Comma = "\u3066\u3093";									// ten
 	
 	/**
 	 * String array containing hiragana zero.
@@ -86,6 +91,11 @@ public class NumberContainer extends AbstractDataContainer
 											"\u306F\u3063\u3074\u3083\u304F",			// happyaku
 											"\u304D\u3085\u3046\u3072\u3083\u304F",};	// kyuuhyaku
 	
+	/**
+	 * String containing hiragana thousand, used unless a unit follows directly.
+	 */
+	public static final String Thousand = "\u305B\u3093";								// sen
+	
 	/**
 	 * String array containing hiragana thousand to ninethousand.
 	 */
@@ -127,6 +137,48 @@ public class NumberContainer extends AbstractDataContainer
 														"\u304D\u3085\u3046\u304A\u304F",	// kyuman
 														"\u304A\u304F"};					// oku
 	
+	/**
+	 * String array containing hiragana units of groups of four digits: 10^4, 10^8, 10^12 and 10^16.
+	 */
+	public static final String[] Units = {"\u307E\u3093",				// man
+											"\u304A\u304F",			// oku
+											"\u3061\u3087\u3046",	// chou
+											"\u3051\u3044"};			// kei
+	
+	/**
+	 * String containing kanji comma (decimal point).
+	 */
+	public static final String KanjiComma = "\u70B9";					// ten
+	
+	/**
+	 * String array containing kanji numerals zero to nine.
+	 */
+	public static final String[] KanjiDigits = {"\u3007",		// zero
+												"\u4E00",		// ichi
+												"\u4E8C",		// ni
+												"\u4E09",		// san
+												"\u56DB",		// yon
+												"\u4E94",		// go
+												"\u516D",		// roku
+												"\u4E03",		// nana
+												"\u516B",		// hachi
+												"\u4E5D"};		// kyuu
+	
+	/**
+	 * String array containing kanji numerals of the powers of ten inside a group: 10, 100 and 1000.
+	 */
+	public static final String[] KanjiPowers = {"\u5341",		// juu
+												"\u767E",		// hyaku
+												"\u5343"};		// sen
+	
+	/**
+	 * String array containing kanji units of groups of four digits: 10^4, 10^8, 10^12 and 10^16.
+	 */
+	public static final String[] KanjiUnits = {"\u4E07",		// man
+												"\u5104",		// oku
+												"\u5146",		// chou
+												"\u4EAC"};		// kei
+	
 	/**
 	 * How many digits should be a random number have as maximum?
 	 * These are only the digits before the comma.
@@ -143,7 +195,7 @@ public class NumberContainer extends AbstractDataContainer
 	/**
 	 * Maximum allowed number of digits before comma.
 	 */
-	private final int mMaxDigitsBeforeComma = 9;
+	private final int mMaxDigitsBeforeComma = 16;
 	
 	/**
 	 * Are negative numbers allowed?
@@ -151,6 +203,11 @@ public class NumberContainer extends AbstractDataContainer
 	 */
 	private boolean mAllowMinus = false;
 	
+	/**
+	 * Are numbers shown in kanji numerals as well?
+	 */
+	private boolean mShowKanji = false;
+	
 	/**
 	 * Default constructor. Just init basic values.
 	 */
@@ -159,6 +216,7 @@ public class NumberContainer extends AbstractDataContainer
 		this.setDigitsBeforeComma(2);
 		this.setDigitsAfterComma(0);
 		this.mAllowMinus = false;
+		this.mShowKanji = false;
 	}
 	
 	/**
@@ -241,6 +299,24 @@ public class NumberContainer extends AbstractDataContainer
 		return this.mAllowMinus;
 	}
 	
+	/**
+	 * Setter state whether numbers are shown in kanji numerals as well.
+	 * @param show New value of the state.
+	 */
+	public void setShowKanji(boolean show)
+	{
+		this.mShowKanji = show;
+	}
+	
+	/**
+	 * Getter kanji numeral state.
+	 * @return The boolean state whether numbers are shown in kanji numerals or not.
+	 */
+	public boolean getShowKanji()
+	{
+		return this.mShowKanji;
+	}
+	
 	/**
 	 * Write the data of this container into an XML-document.
 	 * @param doc XML-Document to modify.
@@ -254,6 +330,7 @@ public class NumberContainer extends AbstractDataContainer
 		numberElement.appendChild(this.createXmlElement(doc, XML_TAG_BEFORE_COMMA, "" + this.mDigitsBeforeComma));
 		numberElement.appendChild(this.createXmlElement(doc, XML_TAG_AFTER_COMMA, "" + this.mDigitsAfterComma));
 		numberElement.appendChild(this.createXmlElement(doc, XML_TAG_MINUS, "" + this.mAllowMinus));
+		numberElement.appendChild(this.createXmlElement(doc, XML_TAG_KANJI, "" + this.mShowKanji));
 		this.addElementToRoot(doc, numberElement);
 	}
 
@@ -285,6 +362,9 @@ public class NumberContainer extends AbstractDataContainer
 				
 				Boolean minus = this.readBoolFromXmlNode(xmlChild, XML_TAG_MINUS);
 				this.mAllowMinus = minus == null ? this.mAllowMinus : minus;
+				
+				Boolean kanji = this.readBoolFromXmlNode(xmlChild, XML_TAG_KANJI);
+				this.mShowKanji = kanji == null ? this.mShowKanji : kanji;
 			}
 		}
 		
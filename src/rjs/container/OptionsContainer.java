@@ -5,6 +5,10 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import rjs.random.SplittableRandomSource;
+import rjs.random.ThreadLocalRandomSource;
+import rjs.random.interfaces.IRandomSource;
+
 /**
  *  Class to store the data necessary to save and load the random session options.
  * @author Schlewinow
@@ -30,6 +34,26 @@ public class OptionsContainer extends AbstractDataContainer
 	 *  XML-tag used to describe the maximum random text size.
 	 */
 	private static final String XML_TAG_LINEAR_WORD_LEARNING = "linear_word_learning";
+	
+	/**
+	 *  XML-tag used to describe whether random word learning shows every word once per round.
+	 */
+	private static final String XML_TAG_SHUFFLE_WORD_LEARNING = "shuffle_word_learning";
+	
+	/**
+	 *  XML-tag used to describe whether word learning schedules words by spaced repetition.
+	 */
+	private static final String XML_TAG_SPACED_WORD_LEARNING = "spaced_word_learning";
+	
+	/**
+	 *  XML-tag used to describe whether random sessions use a fixed seed.
+	 */
+	private static final String XML_TAG_USE_RANDOM_SEED = "use_random_seed";
+	
+	/**
+	 *  XML-tag used to describe the fixed seed of random sessions.
+	 */
+	private static final String XML_TAG_RANDOM_SEED = "random_seed";
 
 	/**
 	 *  Default value of minimum random text length.
@@ -66,6 +90,28 @@ public class OptionsContainer extends AbstractDataContainer
 	 */
 	private boolean mLinearLearning = false;
 	
+	/**
+	 * If true, random word learning shows every word once in random order before any word is repeated.
+	 * Otherwise every word is chosen independently.
+	 */
+	private boolean mShuffleLearning = false;
+	
+	/**
+	 * If true, word learning shows the words due for review by spaced repetition and lets the user grade them.
+	 * Only used if learning is not linear.
+	 */
+	private boolean mSpacedLearning = false;
+	
+	/**
+	 * If true, random sessions use a fixed seed and repeat the same sequence every time they are started.
+	 */
+	private boolean mUseRandomSeed = false;
+	
+	/**
+	 * Seed of random sessions, only used if mUseRandomSeed is true.
+	 */
+	private long mRandomSeed = 0;
+	
 	/**
 	 * Default constructor. Creating an option set with default settings.
 	 */
@@ -75,6 +121,10 @@ public class OptionsContainer extends AbstractDataContainer
 		this.mMaximumRandomTextSize = OptionsContainer.defaultMaximumRandomTextSize;
 		
 		this.mLinearLearning = false;
+		this.mShuffleLearning = false;
+		this.mSpacedLearning = false;
+		this.mUseRandomSeed = false;
+		this.mRandomSeed = 0;
 	}
 	
 	/**
@@ -159,6 +209,94 @@ public class OptionsContainer extends AbstractDataContainer
 		return this.mLinearLearning;
 	}
 	
+	/**
+	 * Setter shuffled word learning state.
+	 * @param shuffle Should random word learning show every word once per round (true) or pick words independently (false)?
+	 */
+	public void setShuffleLearning(boolean shuffle)
+	{
+		this.mShuffleLearning = shuffle;
+	}
+	
+	/**
+	 * Getter shuffled word learning state.
+	 * @return True if random word learning shows every word once per round, false otherwise.
+	 */
+	public boolean getShuffleLearning()
+	{
+		return this.mShuffleLearning;
+	}
+	
+	/**
+	 * Setter spaced repetition word learning state.
+	 * @param spaced Should word learning schedule words by spaced repetition (true) or not (false)?
+	 */
+	public void setSpacedLearning(boolean spaced)
+	{
+		this.mSpacedLearning = spaced;
+	}
+	
+	/**
+	 * Getter spaced repetition word learning state.
+	 * @return True if word learning schedules words by spaced repetition, false otherwise.
+	 */
+	public boolean getSpacedLearning()
+	{
+		return this.mSpacedLearning;
+	}
+	
+	/**
+	 * Setter fixed seed state.
+	 * @param useSeed Should random sessions use the fixed seed (true) or an unpredictable one (false)?
+	 */
+	public void setUseRandomSeed(boolean useSeed)
+	{
+		this.mUseRandomSeed = useSeed;
+	}
+	
+	/**
+	 * Getter fixed seed state.
+	 * @return True if random sessions use the fixed seed, false otherwise.
+	 */
+	public boolean getUseRandomSeed()
+	{
+		return this.mUseRandomSeed;
+	}
+	
+	/**
+	 * Setter seed of random sessions. Only used if the fixed seed is activated.
+	 * @param seed The new seed.
+	 */
+	public void setRandomSeed(long seed)
+	{
+		this.mRandomSeed = seed;
+	}
+	
+	/**
+	 * Getter seed of random sessions.
+	 * @return The seed used if the fixed seed is activated.
+	 */
+	public long getRandomSeed()
+	{
+		return this.mRandomSeed;
+	}
+	
+	/**
+	 * Create the random source of a session.
+	 * With a fixed seed, every session gets its own sequence derived from seed and session name,
+	 * which is repeated exactly whenever the session is started again.
+	 * @param session Name of the session, e.g. its class name.
+	 * @return New random source for the session.
+	 */
+	public IRandomSource createRandomSource(String session)
+	{
+		if(!this.mUseRandomSeed)
+		{
+			return new ThreadLocalRandomSource();
+		}
+		return new SplittableRandomSource(this.mRandomSeed ^ (session.hashCode() * 0x9E3779B97F4A7C15L));
+	}
+	
 	/**
 	 * Write data of the container into a xml-document.
 	 */
@@ -172,6 +310,10 @@ public class OptionsContainer extends AbstractDataContainer
 		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_MINIMUM_RANDOM_TEXT_SIZE, "" + this.mMinimumRandomTextSize));
 		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_MAXIMUM_RANDOM_TEXT_SIZE, "" + this.mMaximumRandomTextSize));
 		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_LINEAR_WORD_LEARNING, "" + this.mLinearLearning));
+		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_SHUFFLE_WORD_LEARNING, "" + this.mShuffleLearning));
+		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_SPACED_WORD_LEARNING, "" + this.mSpacedLearning));
+		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_USE_RANDOM_SEED, "" + this.mUseRandomSeed));
+		optionsElement.appendChild(this.createXmlElement(doc, XML_TAG_RANDOM_SEED, "" + this.mRandomSeed));
 		this.addElementToRoot(doc, optionsElement);
 	}
 	
@@ -202,6 +344,25 @@ public class OptionsContainer extends AbstractDataContainer
 				
 				Boolean linear = this.readBoolFromXmlNode(xmlChild, XML_TAG_LINEAR_WORD_LEARNING);
 				this.mLinearLearning = linear == null ? this.mLinearLearning : linear;
+				
+				Boolean shuffle = this.readBoolFromXmlNode(xmlChild, XML_TAG_SHUFFLE_WORD_LEARNING);
+				this.mShuffleLearning = shuffle == null ? this.mShuffleLearning : shuffle;
+				
+				Boolean spaced = this.readBoolFromXmlNode(xmlChild, XML_TAG_SPACED_WORD_LEARNING);
+				this.mSpacedLearning = spaced == null ? this.mSpacedLearning : spaced;
+				
+				Boolean useSeed = this.readBoolFromXmlNode(xmlChild, XML_TAG_USE_RANDOM_SEED);
+				this.mUseRandomSeed = useSeed == null ? this.mUseRandomSeed : useSeed;
+				
+				String seed = this.readStringFromXmlNode(xmlChild, XML_TAG_RANDOM_SEED);
+				try
+				{
+					this.mRandomSeed = seed == null ? this.mRandomSeed : Long.parseLong(seed.trim());
+				}
+				catch(NumberFormatException nfex)
+				{
+					System.out.println("Invalid random seed in options: " + seed);
+				}
 			}
 		}
 		
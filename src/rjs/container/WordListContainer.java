@@ -1,12 +1,43 @@
 package rjs.container;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import rjs.container.interfaces.IWordListChangeListener;
+import rjs.container.interfaces.IWordListIndexListener;
+import rjs.container.interfaces.IWordListLoadListener;
+import rjs.wordlist.BinaryWordListHandler;
+import rjs.wordlist.ColumnarWordList;
+import rjs.wordlist.DelimitedWordListHandler;
 import rjs.wordlist.WordList;
+import rjs.wordlist.WordListCache;
+import rjs.wordlist.WordListDeduplicator;
+import rjs.wordlist.WordListDiff;
+import rjs.wordlist.WordListLoadContext;
+import rjs.wordlist.WordListSet;
+import rjs.wordlist.WordListWatcher;
 import rjs.wordlist.XmlWordListHandler;
+import rjs.wordlist.search.WordListIndex;
 
 // Container holding relevant data connected to the active word list.
 public class WordListContainer extends AbstractDataContainer
@@ -17,17 +48,103 @@ public class WordListContainer extends AbstractDataContainer
 	// XML-tag used to describe the path to the recently loaded word list file.
 	private static final String XML_TAG_PATH = "wordlist_path";
 	
+	// XML-tag used to describe the path of a deactivated source of a word list set.
+	private static final String XML_TAG_INACTIVE_SOURCE = "wordlist_inactive_source";
+	
+	// XML-tag used to describe the fields identifying duplicate words.
+	private static final String XML_TAG_DEDUPLICATION = "wordlist_deduplication";
+	
+	// XML-tag used for the field names of the columns of delimited text files.
+	private static final String XML_TAG_DELIMITED_COLUMNS = "wordlist_delimited_columns";
+	
+	// Interval of progress updates while a word list is loaded in the background (in ms).
+	private static final int PROGRESS_INTERVAL = 100;
+	
 	// The path of the loaded word list. Saved so it may be automatically loaded on next start.
 	private String mCurrentWordListPath = "";
 	
 	// The currently loaded word list. Used in word learning panels.
-	private WordList mWordList = null;
+	// Only replaced as a whole once a new word list is completely loaded, never changed in place.
+	// Replaced on the event dispatch thread, but also read by the watcher thread, hence volatile.
+	private volatile WordList mWordList = null;
+	
+	// Background load currently running, null if there is none.
+	private LoadWorker mLoadWorker = null;
+	
+	// Watches the file of the active word list to reload it when it is edited. Null if no file is watched.
+	private ReloadWatcher mWatcher = null;
+	
+	// Listeners informed when the active word list is replaced by a changed version of itself.
+	private ArrayList<IWordListChangeListener> mChangeListeners = null;
+	
+	// Search index of the active word list. Null while it is built.
+	private volatile WordListIndex mWordListIndex = null;
+	
+	// Background build of the search index currently running, null if there is none.
+	private IndexWorker mIndexWorker = null;
+	
+	// Listeners informed when the search index of the active word list was built.
+	private ArrayList<IWordListIndexListener> mIndexListeners = null;
+	
+	// Paths of the deactivated sources if the active word list is a word list set.
+	private ArrayList<String> mInactiveSources = null;
+	
+	// Fields identifying duplicate words dropped while loading (see WordListDeduplicator).
+	private int mDeduplicationKey = WordListDeduplicator.KEY_NONE;
+	
+	// Field names of the columns of delimited text files (see DelimitedWordListHandler.parseColumns), empty to detect them.
+	private String mDelimitedColumns = "";
+	
+	// Number of duplicate words dropped while loading the active word list.
+	private int mDuplicatesDropped = 0;
 	
 	// Default constructor. Initialize with default values.
 	public WordListContainer()
 	{
 		this.mCurrentWordListPath = "";
 		this.mWordList = new WordList();
+		this.mChangeListeners = new ArrayList<IWordListChangeListener>();
+		this.mIndexListeners = new ArrayList<IWordListIndexListener>();
+		this.mInactiveSources = new ArrayList<String>();
+		this.mDeduplicationKey = WordListDeduplicator.KEY_NONE;
+		this.mDelimitedColumns = "";
+		this.mDuplicatesDropped = 0;
+	}
+	
+	// Add a listener informed when the active word list is replaced by a changed version of itself. Every listener is only added once.
+	public void addWordListChangeListener(IWordListChangeListener listener)
+	{
+		if(!this.mChangeListeners.contains(listener))
+		{
+			this.mChangeListeners.add(listener);
+		}
+	}
+	
+	// Remove a listener added with addWordListChangeListener.
+	public void removeWordListChangeListener(IWordListChangeListener listener)
+	{
+		this.mChangeListeners.remove(listener);
+	}
+	
+	// Add a listener informed when the search index of the active word list was built. Every listener is only added once.
+	public void addWordListIndexListener(IWordListIndexListener listener)
+	{
+		if(!this.mIndexListeners.contains(listener))
+		{
+			this.mIndexListeners.add(listener);
+		}
+	}
+	
+	// Remove a listener added with addWordListIndexListener.
+	public void removeWordListIndexListener(IWordListIndexListener listener)
+	{
+		this.mIndexListeners.remove(listener);
+	}
+	
+	// Getter search index of the active word list. Null while the index is built in the background.
+	public WordListIndex getWordListIndex()
+	{
+		return this.mWordListIndex;
 	}
 	
 	// Getter word list.
@@ -42,13 +159,135 @@ public class WordListContainer extends AbstractDataContainer
 		return this.mCurrentWordListPath;
 	}
 	
+	// Getter fields identifying duplicate words, KEY_NONE if duplicates are kept.
+	public int getDeduplicationKey()
+	{
+		return this.mDeduplicationKey;
+	}
+	
+	// Setter fields identifying duplicate words (see WordListDeduplicator), KEY_NONE keeps duplicates.
+	// Applies to the next load, reload the word list to apply it to the active one.
+	public void setDeduplicationKey(int key)
+	{
+		this.mDeduplicationKey = key;
+	}
+	
+	// Getter field names of the columns of delimited text files, empty if the columns are detected.
+	public String getDelimitedColumns()
+	{
+		return this.mDelimitedColumns;
+	}
+	
+	// Setter field names of the columns of delimited text files, separated by commas in the order of the columns.
+	// Names that are no field (like "-") skip their column, empty detects the columns (see DelimitedWordListHandler).
+	// Applies to the next load, reload the word list to apply it to the active one.
+	public void setDelimitedColumns(String columns)
+	{
+		this.mDelimitedColumns = columns == null ? "" : columns.trim();
+	}
+	
+	// Getter number of duplicate words dropped while loading the active word list.
+	public int getDuplicatesDropped()
+	{
+		return this.mDuplicatesDropped;
+	}
+	
 	// Setter word list path. Also loads the word list at the given path.
+	// Blocks until the word list is loaded, use loadWordListAsync from the UI.
 	public void setWordListPath(String path)
 	{
-		// Load word list from path.
-		this.mWordList = XmlWordListHandler.readFromFile(path);
+		this.cancelWordListLoading();
+		WordListLoadContext context = this.createLoadContext();
+		WordList wordList = WordListContainer.readWordList(path, context);
+		this.applyWordList(path, wordList, context.getDuplicatesDropped());
+	}
+		
+	// Load the word list at the given path in the background.
+	// The current word list stays usable until the new one is completely loaded and swapped in.
+	// A load that is still running gets cancelled. The listener may be null.
+	public void loadWordListAsync(String path, IWordListLoadListener listener)
+	{
+		this.cancelWordListLoading();
+		this.mLoadWorker = new LoadWorker(path, listener);
+		this.mLoadWorker.execute();
+	}
+	
+	// Cancel the word list load running in the background, if any.
+	public void cancelWordListLoading()
+	{
+		if(this.mLoadWorker != null)
+		{
+			this.mLoadWorker.cancelLoad();
+			this.mLoadWorker = null;
+		}
+	}
+	
+	// Getter whether a word list is currently loaded in the background.
+	public boolean isLoadingWordList()
+	{
+		return this.mLoadWorker != null;
+	}
+	
+	// Add or remove the words of a source of the active word list set. Nothing is loaded again.
+	// The active set is replaced by a set sharing its sources, it is not changed itself.
+	// Does nothing if the active word list is no word list set.
+	public void setWordListSourceActive(int source, boolean active)
+	{
+		if(!(this.mWordList instanceof WordListSet))
+		{
+			return;
+		}
+		
+		WordListSet wordListSet = (WordListSet)this.mWordList;
+		if(wordListSet.isSourceActive(source) == active)
+		{
+			return;
+		}
+		
+		WordListSet changed = wordListSet.withSourceActive(source, active);
+		WordListDiff diff = wordListSet.diffSourceActive(changed, source);
+		this.mWordList = changed;
+		
+		String sourcePath = wordListSet.getSourcePath(source);
+		this.mInactiveSources.remove(sourcePath);
+		if(!active)
+		{
+			this.mInactiveSources.add(sourcePath);
+		}
+		
+		this.notifyWordListChanged(diff);
+	}
+	
+	// Context for a new load, dropping duplicates and mapping the columns of delimited text files as configured.
+	private WordListLoadContext createLoadContext()
+	{
+		WordListLoadContext context = new WordListLoadContext();
+		context.setDeduplicationKey(this.mDeduplicationKey);
+		context.setDelimitedColumns(this.mDelimitedColumns);
+		return context;
+	}
+	
+	// Make a loaded word list the active one.
+	private void applyWordList(String path, WordList wordList, int duplicatesDropped)
+	{
+		boolean empty = wordList.getWordCount() == 0;
+		if(wordList instanceof WordListSet)
+		{
+			wordList = this.applyInactiveSources((WordListSet)wordList);
+		}
+		else
+		{
+			this.mInactiveSources.clear();
+		}
+		
+		this.mWordList = wordList;
+		this.mDuplicatesDropped = duplicatesDropped;
+		if(duplicatesDropped > 0)
+		{
+			System.out.println("Dropped " + duplicatesDropped + " duplicate words while loading " + path);
+		}
 		
-		if(this.mWordList.getWordCount() == 0)
+		if(empty)
 		{
 			// No success, seems to be invalid path.
 			this.mCurrentWordListPath = "";
@@ -57,6 +296,218 @@ public class WordListContainer extends AbstractDataContainer
 		{
 			this.mCurrentWordListPath = path;
 		}
+		
+		this.watchWordListFile();
+		this.buildWordListIndex();
+	}
+	
+	// Deactivate the sources of a freshly loaded word list set that were deactivated before.
+	// Paths that are no source of the set are forgotten. Returns the set with these sources deactivated.
+	private WordListSet applyInactiveSources(WordListSet wordListSet)
+	{
+		ArrayList<String> inactiveSources = new ArrayList<String>();
+		for(int source = 0; source < wordListSet.getSourceCount(); ++source)
+		{
+			String sourcePath = wordListSet.getSourcePath(source);
+			if(this.mInactiveSources.contains(sourcePath))
+			{
+				wordListSet = wordListSet.withSourceActive(source, false);
+				inactiveSources.add(sourcePath);
+			}
+		}
+		this.mInactiveSources = inactiveSources;
+		return wordListSet;
+	}
+	
+	// Watch the file of the active word list, so edits are picked up while the application runs.
+	// Compiled word lists are mapped and must not change while in use, so they are not watched.
+	// Word list sets consist of many files and are not watched either.
+	private void watchWordListFile()
+	{
+		if(this.mWatcher != null)
+		{
+			this.mWatcher.stopWatching();
+			this.mWatcher = null;
+		}
+		
+		if(this.mCurrentWordListPath.isEmpty() || BinaryWordListHandler.isBinaryWordList(this.mCurrentWordListPath)
+				|| WordListSet.isWordListSet(this.mCurrentWordListPath))
+		{
+			return;
+		}
+		
+		try
+		{
+			this.mWatcher = new ReloadWatcher(this.mCurrentWordListPath);
+			this.mWatcher.start();
+		}
+		catch(IOException ex)
+		{
+			// Not fatal, edits are just not picked up automatically.
+			ex.printStackTrace();
+			this.mWatcher = null;
+		}
+	}
+	
+	// Make a reloaded word list the active one and pass the differences to the previous one to the listeners.
+	// The previous word list is not changed, an index build may still read it on its worker thread.
+	// Runs on the event dispatch thread. Returns false if the active word list was replaced since the reload started.
+	private boolean applyReload(WordList previous, WordList reloaded, WordListDiff diff)
+	{
+		if(this.mWordList != previous)
+		{
+			return false;
+		}
+		
+		this.mWordList = reloaded;
+		this.notifyWordListChanged(diff);
+		return true;
+	}
+	
+	// Inform the listeners that the active word list was replaced by a changed version of itself.
+	// The search index refers to word indices, so it is rebuilt.
+	private void notifyWordListChanged(WordListDiff diff)
+	{
+		this.buildWordListIndex();
+		for(IWordListChangeListener listener : new ArrayList<IWordListChangeListener>(this.mChangeListeners))
+		{
+			listener.wordListChanged(diff);
+		}
+	}
+	
+	// Build the search index of the active word list in the background. An index build still running is dropped.
+	private void buildWordListIndex()
+	{
+		if(this.mIndexWorker != null)
+		{
+			this.mIndexWorker.cancel(false);
+		}
+		
+		this.mWordListIndex = null;
+		this.mIndexWorker = new IndexWorker(this.mWordList);
+		this.mIndexWorker.execute();
+	}
+	
+	// Read the word list at the given path. Progress is reported to the context.
+	// Compiled word lists are mapped instead of parsed.
+	// XML word lists are taken from the parse cache if they did not change since they were last parsed.
+	// Otherwise they are parsed and stored column by column to keep the memory footprint small.
+	// Delimited text files (CSV, TSV, Anki exports) are imported the same way.
+	// Directories and manifests are read as word list sets.
+	// Duplicates are dropped according to the context, except for compiled word lists, which are mapped as they are.
+	private static WordList readWordList(String path, WordListLoadContext context)
+	{
+		if(WordListSet.isWordListSet(path))
+		{
+			return WordListContainer.readWordListSet(path, context);
+		}
+		
+		if(BinaryWordListHandler.isBinaryWordList(path))
+		{
+			return BinaryWordListHandler.readFromFile(path);
+		}
+		
+		WordList cached = WordListCache.load(path, context);
+		if(cached != null)
+		{
+			return cached;
+		}
+		
+		WordList wordList = WordListContainer.parseWordList(path, context);
+		WordListCache.store(path, wordList, context);
+		return wordList;
+	}
+	
+	// Parse an XML or delimited text word list. The result is not stored in the parse cache.
+	private static WordList parseWordList(String path, WordListLoadContext context)
+	{
+		WordList wordList = null;
+		if(DelimitedWordListHandler.isDelimitedWordList(path))
+		{
+			wordList = DelimitedWordListHandler.readFromFile(path, new ColumnarWordList(), context);
+		}
+		else
+		{
+			wordList = XmlWordListHandler.readFromFile(path, new ColumnarWordList(), context);
+		}
+		wordList.trimToSize();
+		return wordList;
+	}
+	
+	// Read all files of a word list set concurrently. Every file is read like a single word list.
+	private static WordList readWordListSet(String path, final WordListLoadContext context)
+	{
+		String[] sourcePaths = null;
+		try
+		{
+			sourcePaths = WordListSet.listSources(path);
+		}
+		catch(FileNotFoundException fnfex)
+		{
+			System.out.println("Former word list not found, reset active word list.");
+			return new WordList();
+		}
+		catch(IOException ioex)
+		{
+			ioex.printStackTrace();
+			return new WordList();
+		}
+		
+		long totalBytes = 0;
+		for(String sourcePath : sourcePaths)
+		{
+			totalBytes += new File(sourcePath).length();
+		}
+		context.setTotalBytes(totalBytes);
+		
+		int threadCount = Math.max(1, Math.min(sourcePaths.length, Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try
+		{
+			List<Future<WordList>> loads = new ArrayList<Future<WordList>>();
+			for(final String sourcePath : sourcePaths)
+			{
+				loads.add(executor.submit(new Callable<WordList>() {
+					public WordList call()
+					{
+						// Read bytes, dropped duplicates and cancellation are shared with the load of the whole set.
+						// Duplicates are only detected within a source, so the sources can be loaded independently.
+						WordListLoadContext sourceContext = new WordListLoadContext(context);
+						sourceContext.setDeduplicationKey(context.getDeduplicationKey());
+						sourceContext.setDelimitedColumns(context.getDelimitedColumns());
+						WordList source = WordListContainer.readWordList(sourcePath, sourceContext);
+						context.addItemsParsed(source.getWordCount());
+						return source;
+					}
+				}));
+			}
+			
+			WordList[] sources = new WordList[sourcePaths.length];
+			for(int source = 0; source < sources.length; ++source)
+			{
+				sources[source] = loads.get(source).get();
+			}
+			context.checkCancelled();
+			return new WordListSet(sourcePaths, sources);
+		}
+		catch(ExecutionException eex)
+		{
+			if(eex.getCause() instanceof CancellationException)
+			{
+				throw (CancellationException)eex.getCause();
+			}
+			eex.printStackTrace();
+			return new WordList();
+		}
+		catch(InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Word list loading interrupted.");
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
 	}
 	
 	// Write the content of this container into the xml-document.
@@ -68,6 +519,12 @@ public class WordListContainer extends AbstractDataContainer
 		// Create new xml-nodes and add them to the document.
 		Element wordListNode = doc.createElement(XML_TAG);
 		wordListNode.appendChild(this.createXmlElement(doc, XML_TAG_PATH, this.mCurrentWordListPath));
+		for(String sourcePath : this.mInactiveSources)
+		{
+			wordListNode.appendChild(this.createXmlElement(doc, XML_TAG_INACTIVE_SOURCE, sourcePath));
+		}
+		wordListNode.appendChild(this.createXmlElement(doc, XML_TAG_DEDUPLICATION, String.valueOf(this.mDeduplicationKey)));
+		wordListNode.appendChild(this.createXmlElement(doc, XML_TAG_DELIMITED_COLUMNS, this.mDelimitedColumns));
 		this.addElementToRoot(doc, wordListNode);
 	}
 
@@ -90,10 +547,220 @@ public class WordListContainer extends AbstractDataContainer
 				// Read as many values as possible.
 				String path = this.readStringFromXmlNode(xmlChild, XML_TAG_PATH);
 				this.mCurrentWordListPath = path == null ? this.mCurrentWordListPath : path;
+				
+				String inactiveSource = this.readStringFromXmlNode(xmlChild, XML_TAG_INACTIVE_SOURCE);
+				if(inactiveSource != null && !this.mInactiveSources.contains(inactiveSource))
+				{
+					this.mInactiveSources.add(inactiveSource);
+				}
+				
+				Integer deduplicationKey = this.readIntFromXmlNode(xmlChild, XML_TAG_DEDUPLICATION);
+				this.mDeduplicationKey = deduplicationKey == null ? this.mDeduplicationKey : deduplicationKey;
+				
+				String delimitedColumns = this.readStringFromXmlNode(xmlChild, XML_TAG_DELIMITED_COLUMNS);
+				this.mDelimitedColumns = delimitedColumns == null ? this.mDelimitedColumns : delimitedColumns.trim();
+			}
+		}
+		
+		// Try to load word list. Done in the background to not block the start of the application.
+		this.loadWordListAsync(this.mCurrentWordListPath, null);
+	}
+	
+	// Reloads the active word list whenever its file changes and applies only the differences.
+	private class ReloadWatcher extends WordListWatcher
+	{
+		// Start watching the word list file at path.
+		public ReloadWatcher(String path) throws IOException
+		{
+			super(path);
+		}
+		
+		// Parse the changed file on the watcher thread, then apply the differences on the event dispatch thread.
+		// The parse cache is only updated once the differences are known, the previous word list may be mapped from it.
+		protected void fileChanged(String path)
+		{
+			final WordList previous = WordListContainer.this.mWordList;
+			final WordListLoadContext context = WordListContainer.this.createLoadContext();
+			final WordList reloaded = WordListContainer.parseWordList(path, context);
+			if(reloaded.getWordCount() == 0)
+			{
+				// File is probably saved half-way or broken, keep the current word list.
+				return;
+			}
+			
+			final WordListDiff diff = WordListDiff.compute(previous, reloaded);
+			WordListCache.store(path, reloaded, context);
+			if(diff.isEmpty())
+			{
+				return;
+			}
+			
+			try
+			{
+				// Wait for the differences to be applied, the next comparison needs the updated word list.
+				SwingUtilities.invokeAndWait(new Runnable() {
+					public void run()
+					{
+						if(WordListContainer.this.applyReload(previous, reloaded, diff))
+						{
+							WordListContainer.this.mDuplicatesDropped = context.getDuplicatesDropped();
+							System.out.println("Word list reloaded, " + diff);
+						}
+					}
+				});
+			}
+			catch(InterruptedException iex)
+			{
+				this.interrupt();
+			}
+			catch(Exception ex)
+			{
+				ex.printStackTrace();
 			}
 		}
+	}
+	
+	// Builds the search index of a word list in the background.
+	private class IndexWorker extends SwingWorker<WordListIndex, Void>
+	{
+		// Word list to index.
+		private WordList mIndexedWordList = null;
+		
+		// Create a worker indexing the given word list.
+		public IndexWorker(WordList wordList)
+		{
+			this.mIndexedWordList = wordList;
+		}
+		
+		// Build the index. Runs on a background thread.
+		protected WordListIndex doInBackground()
+		{
+			return WordListIndex.build(this.mIndexedWordList);
+		}
+		
+		// Make the index available. Runs on the event dispatch thread.
+		protected void done()
+		{
+			// The word list changed while the index was built, a newer worker indexes it.
+			if(WordListContainer.this.mIndexWorker != this)
+			{
+				return;
+			}
+			WordListContainer.this.mIndexWorker = null;
+			
+			try
+			{
+				WordListContainer.this.mWordListIndex = this.get();
+			}
+			catch(Exception ex)
+			{
+				ex.printStackTrace();
+				return;
+			}
+			
+			for(IWordListIndexListener listener : new ArrayList<IWordListIndexListener>(WordListContainer.this.mIndexListeners))
+			{
+				listener.wordListIndexBuilt(WordListContainer.this.mWordListIndex);
+			}
+		}
+	}
+	
+	// Loads a word list in the background and swaps it in on the event dispatch thread.
+	private class LoadWorker extends SwingWorker<WordList, Void>
+	{
+		// Path of the word list to load.
+		private String mPath = "";
+		
+		// Listener to inform about the load, may be null.
+		private IWordListLoadListener mListener = null;
+		
+		// Progress and cancellation state of the load.
+		private WordListLoadContext mContext = null;
+		
+		// Timer to regularly report the progress to the listener.
+		private Timer mProgressTimer = null;
 		
-		// Try to load word list.
-		this.setWordListPath(this.mCurrentWordListPath);
+		// Create a worker loading the word list at path.
+		public LoadWorker(String path, IWordListLoadListener listener)
+		{
+			this.mPath = path;
+			this.mListener = listener;
+			this.mContext = WordListContainer.this.createLoadContext();
+			
+			if(listener != null)
+			{
+				this.mProgressTimer = new Timer(PROGRESS_INTERVAL, new ActionListener() {
+					public void actionPerformed(ActionEvent arg0)
+					{
+						LoadWorker.this.mListener.loadProgress(LoadWorker.this.mContext.getItemsParsed(), 
+								LoadWorker.this.mContext.getBytesRead(), 
+								LoadWorker.this.mContext.getTotalBytes());
+					}
+				});
+				this.mProgressTimer.start();
+			}
+		}
+		
+		// Stop loading as soon as possible.
+		public void cancelLoad()
+		{
+			this.mContext.cancel();
+			this.cancel(false);
+		}
+		
+		// Load the word list. Runs on a background thread.
+		protected WordList doInBackground()
+		{
+			return WordListContainer.readWordList(this.mPath, this.mContext);
+		}
+		
+		// Swap in the loaded word list. Runs on the event dispatch thread.
+		protected void done()
+		{
+			if(this.mProgressTimer != null)
+			{
+				this.mProgressTimer.stop();
+			}
+			
+			// A newer load replaced this one.
+			boolean current = WordListContainer.this.mLoadWorker == this;
+			if(current)
+			{
+				WordListContainer.this.mLoadWorker = null;
+			}
+			
+			WordList wordList = null;
+			try
+			{
+				if(current && !this.isCancelled())
+				{
+					wordList = this.get();
+				}
+			}
+			catch(CancellationException cex)
+			{
+				wordList = null;
+			}
+			catch(Exception ex)
+			{
+				ex.printStackTrace();
+				wordList = null;
+			}
+			
+			if(wordList == null)
+			{
+				if(this.mListener != null)
+				{
+					this.mListener.loadCancelled(this.mPath);
+				}
+				return;
+			}
+			
+			WordListContainer.this.applyWordList(this.mPath, wordList, this.mContext.getDuplicatesDropped());
+			if(this.mListener != null)
+			{
+				this.mListener.loadFinished(WordListContainer.this.mCurrentWordListPath, wordList);
+			}
+		}
 	}
 }
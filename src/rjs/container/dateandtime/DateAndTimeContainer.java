@@ -1,6 +1,6 @@
 package rjs.container.dateandtime;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -11,9 +11,13 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import rjs.container.AbstractDataContainer;
+import rjs.container.NumberContainer;
+import rjs.numbers.NumberToKanaConverter;
 
 /**
  * Container storing data connected to time and date learning sessions.
+ * The readings of all clock times are created once when the container is loaded,
+ * so a random time is a single index into an array.
  * @author Schlewinow
  */
 public class DateAndTimeContainer extends AbstractDataContainer
@@ -39,24 +43,69 @@ public class DateAndTimeContainer extends AbstractDataContainer
 	private static final String XML_TAG_TIMEUNIT_DAY = "day";
 	
 	/**
-	 * XML-tag used to describe a time unit of type day.
+	 * XML-tag used to describe a time unit of type hour.
 	 */
 	private static final String XML_TAG_TIMEUNIT_HOUR = "hour";
 	
 	/**
-	 * 12 months in Kana and Kanji.
+	 * XML-tag used to describe a time unit of type weekday.
+	 */
+	private static final String XML_TAG_TIMEUNIT_WEEKDAY = "weekday";
+	
+	/**
+	 * Number of months per year.
+	 */
+	private static final int MONTHS_PER_YEAR = 12;
+	
+	/**
+	 * Highest number of days per month.
+	 */
+	private static final int MAXIMUM_DAYS_PER_MONTH = 31;
+	
+	/**
+	 * Number of days per week.
+	 */
+	private static final int DAYS_PER_WEEK = 7;
+	
+	/**
+	 * Number of minutes per hour.
+	 */
+	private static final int MINUTES_PER_HOUR = 60;
+	
+	/**
+	 * Number of hours of the 24 hour clock, which counts from 1 to 24.
+	 */
+	private static final int HOURS_PER_DAY = 24;
+	
+	/**
+	 * Number of hours of the 12 hour clock, which counts from 1 to 12 before and after noon.
 	 */
-	private HashMap<Integer, TimeUnit> months;
+	private static final int HOURS_PER_HALF_DAY = 12;
 	
 	/**
-	 * 31 days in Kana and Kanji.
+	 * Whether a minute ending with the digit of the index is read "pun" (e.g. ippun) instead of "hun".
 	 */
-	private HashMap<Integer, TimeUnit> days;
+	private static final boolean[] PUN_DIGITS = { true, true, false, true, true, false, true, false, true, false };
 	
 	/**
-	 * 24 hours in Kana and Kanji.
+	 * 12 months in Kana and Kanji, index value - 1.
 	 */
-	private HashMap<Integer, TimeUnit> hours;
+	private TimeUnit[] months;
+	
+	/**
+	 * 31 days in Kana and Kanji, index value - 1.
+	 */
+	private TimeUnit[] days;
+	
+	/**
+	 * 24 hours in Kana and Kanji, index value - 1.
+	 */
+	private TimeUnit[] hours;
+	
+	/**
+	 * 7 weekdays in Kana and Kanji from monday to sunday, index value - 1.
+	 */
+	private TimeUnit[] weekdays;
 	
 	
 	public static final String[] minutes = {"\u3044\u3063",			// ip
@@ -101,50 +150,157 @@ public class DateAndTimeContainer extends AbstractDataContainer
 	 */
 	public static final String eveningHiragana = "\u3054\u3054";			// gogo
 	
+	/**
+	 * Kanji used like "AM".
+	 */
+	public static final String morningKanji = "\u5348\u524D";		// gozen
+	
+	/**
+	 * Kanji used like "PM".
+	 */
+	public static final String eveningKanji = "\u5348\u5F8C";		// gogo
+	
+	/**
+	 * Kanji with meaning "half" (past the hour).
+	 */
+	public static final String halfKanji = "\u534A";				// han
+	
 	/**
 	 * Use Kanji in japanese time (true) or Kana (false)?
 	 */
 	private boolean mUseKanji = true;
 	
+	/**
+	 * Readings of all times of the 24 hour clock, index (hour - 1) * 60 + minute.
+	 */
+	private TimeUnit[] mTimes24 = new TimeUnit[0];
+	
+	/**
+	 * Readings of all times of the 12 hour clock, index ((PM ? 12 : 0) + hour - 1) * 60 + minute.
+	 */
+	private TimeUnit[] mTimes12 = new TimeUnit[0];
+	
+	/**
+	 * All times of the 24 hour clock in digits, same index as the readings.
+	 */
+	private String[] mTimeTexts24 = new String[0];
+	
+	/**
+	 * All times of the 12 hour clock in digits with AM or PM, same index as the readings.
+	 */
+	private String[] mTimeTexts12 = new String[0];
+	
 	/**
 	 * Default constructor.
 	 * Initializes internal data containers.
 	 */
 	public DateAndTimeContainer()
 	{
-		this.months = new HashMap<Integer, TimeUnit>();
-		this.days = new HashMap<Integer, TimeUnit>();
-		this.hours = new HashMap<Integer, TimeUnit>();
+		this.months = new TimeUnit[MONTHS_PER_YEAR];
+		this.days = new TimeUnit[MAXIMUM_DAYS_PER_MONTH];
+		this.hours = new TimeUnit[HOURS_PER_DAY];
+		this.weekdays = new TimeUnit[DAYS_PER_WEEK];
 	}
 	
 	/**
 	 * Getter months.
 	 * @param value The index of the month (e.g. January has index 1).
-	 * @return The time unit containing the requested data.
+	 * @return The time unit containing the requested data, null if there is none.
 	 */
 	public TimeUnit getMonth(int value)
 	{
-		return this.months.get(value);
+		return DateAndTimeContainer.getTimeUnit(this.months, value);
 	}
 	
 	/**
 	 * Getter days.
 	 * @param value The index of the day (e.g. first day of month has index 1).
-	 * @return The time unit containing the requested data.
+	 * @return The time unit containing the requested data, null if there is none.
 	 */
 	public TimeUnit getDay(int value)
 	{
-		return this.days.get(value);
+		return DateAndTimeContainer.getTimeUnit(this.days, value);
 	}
 	
 	/**
 	 * Getter hours.
 	 * @param value The index of the hour (e.g. first hour of day has index 1).
-	 * @return The time unit containing the requested data.
+	 * @return The time unit containing the requested data, null if there is none.
 	 */
 	public TimeUnit getHour(int value)
 	{
-		return this.hours.get(value);
+		return DateAndTimeContainer.getTimeUnit(this.hours, value);
+	}
+	
+	/**
+	 * Getter weekdays.
+	 * @param value The index of the weekday (e.g. monday has index 1, sunday has index 7).
+	 * @return The time unit containing the requested data, null if there is none.
+	 */
+	public TimeUnit getWeekday(int value)
+	{
+		return DateAndTimeContainer.getTimeUnit(this.weekdays, value);
+	}
+	
+	/**
+	 * Create the reading of a date.
+	 * Irregular readings of days (e.g. tsuitachi, hatsuka) are taken from the day table.
+	 * @param date The date.
+	 * @param withWeekday Whether the weekday of the date is read as well.
+	 * @return The time unit containing the reading in kana and kanji, null if the container data has not been loaded.
+	 */
+	public TimeUnit createDate(LocalDate date, boolean withWeekday)
+	{
+		TimeUnit month = this.getMonth(date.getMonthValue());
+		TimeUnit day = this.getDay(date.getDayOfMonth());
+		TimeUnit weekday = withWeekday ? this.getWeekday(date.getDayOfWeek().getValue()) : null;
+		if(month == null || day == null || (withWeekday && weekday == null))
+		{
+			return null;
+		}
+		
+		StringBuilder kana = new StringBuilder();
+		StringBuilder kanji = new StringBuilder();
+		kana.append(month.getKana()).append(' ').append(day.getKana());
+		kanji.append(month.getKanji()).append(day.getKanji());
+		if(weekday != null)
+		{
+			kana.append(' ').append(weekday.getKana());
+			kanji.append(' ').append(weekday.getKanji());
+		}
+		return new TimeUnit(kana.toString(), kanji.toString());
+	}
+	
+	/**
+	 * Getter number of clock times.
+	 * @param twelveHour Whether the times of the 12 hour clock are requested.
+	 * @return The number of times, zero if the container data has not been loaded.
+	 */
+	public int getTimeCount(boolean twelveHour)
+	{
+		return twelveHour ? this.mTimes12.length : this.mTimes24.length;
+	}
+	
+	/**
+	 * Getter reading of a clock time.
+	 * @param twelveHour Whether the time is one of the 12 hour clock.
+	 * @param index The index of the time, between 0 and the number of times.
+	 * @return The time unit containing the reading in kana and kanji.
+	 */
+	public TimeUnit getTime(boolean twelveHour, int index)
+	{
+		return twelveHour ? this.mTimes12[index] : this.mTimes24[index];
+	}
+	
+	/**
+	 * Getter clock time in digits.
+	 * @param twelveHour Whether the time is one of the 12 hour clock.
+	 * @param index The index of the time, between 0 and the number of times.
+	 * @return The time in digits (e.g. "07:05 PM").
+	 */
+	public String getTimeText(boolean twelveHour, int index)
+	{
+		return twelveHour ? this.mTimeTexts12[index] : this.mTimeTexts24[index];
 	}
 	
 	/**
@@ -223,6 +379,9 @@ public class DateAndTimeContainer extends AbstractDataContainer
 			this.extractTimeUnits(doc, XML_TAG_TIMEUNIT_MONTH, this.months);
 			this.extractTimeUnits(doc, XML_TAG_TIMEUNIT_DAY, this.days);
 			this.extractTimeUnits(doc, XML_TAG_TIMEUNIT_HOUR, this.hours);
+			this.extractTimeUnits(doc, XML_TAG_TIMEUNIT_WEEKDAY, this.weekdays);
+			
+			this.createTimes();
 		}
 		catch(Exception ex)
 		{
@@ -234,9 +393,9 @@ public class DateAndTimeContainer extends AbstractDataContainer
 	 * Extract the container data from a specific XML document.
 	 * @param doc XML document to extract from.
 	 * @param parentNode Name of the node type that contains the time unit data.
-	 * @param destMap HashMap to write data into.
+	 * @param destArray Array to write data into, at index value - 1.
 	 */
-	private void extractTimeUnits(Document doc, String parentNode, HashMap<Integer, TimeUnit> destMap)
+	private void extractTimeUnits(Document doc, String parentNode, TimeUnit[] destArray)
 	{
 		NodeList nodes = doc.getElementsByTagName(parentNode);
 		
@@ -265,7 +424,184 @@ public class DateAndTimeContainer extends AbstractDataContainer
 			
 			TimeUnit newUnit = new TimeUnit(kana, kanji);
 			int newIndex = Integer.parseInt(xmlNode.getAttributes().getNamedItem("value").getNodeValue());
-			destMap.put(newIndex, newUnit);
+			if(newIndex < 1 || newIndex > destArray.length)
+			{
+				System.out.println("Ignoring " + parentNode + " with invalid value " + newIndex);
+				continue;
+			}
+			destArray[newIndex - 1] = newUnit;
+		}
+	}
+	
+	/**
+	 * Getter time unit of a table.
+	 * @param units The table.
+	 * @param value The value of the time unit, starting with 1.
+	 * @return The time unit, null if there is none.
+	 */
+	private static TimeUnit getTimeUnit(TimeUnit[] units, int value)
+	{
+		return value >= 1 && value <= units.length ? units[value - 1] : null;
+	}
+	
+	/**
+	 * Create the readings of all times of the 24 and 12 hour clock from the hours and the minute tables.
+	 * Needs all hours, otherwise no times are created.
+	 */
+	private void createTimes()
+	{
+		for(int hour = 1; hour <= HOURS_PER_DAY; ++hour)
+		{
+			if(this.getHour(hour) == null)
+			{
+				System.out.println("Missing hour " + hour + ", no clock times available.");
+				return;
+			}
+		}
+		
+		// The readings of the minutes are the same for every hour.
+		NumberToKanaConverter converter = new NumberToKanaConverter();
+		String[] minuteKana = new String[MINUTES_PER_HOUR];
+		String[] minuteKanji = new String[MINUTES_PER_HOUR];
+		for(int minute = 0; minute < MINUTES_PER_HOUR; ++minute)
+		{
+			minuteKana[minute] = DateAndTimeContainer.createMinuteKana(minute);
+			minuteKanji[minute] = DateAndTimeContainer.createMinuteKanji(minute, converter);
+		}
+		
+		this.mTimes24 = new TimeUnit[HOURS_PER_DAY * MINUTES_PER_HOUR];
+		this.mTimeTexts24 = new String[this.mTimes24.length];
+		this.mTimes12 = new TimeUnit[2 * HOURS_PER_HALF_DAY * MINUTES_PER_HOUR];
+		this.mTimeTexts12 = new String[this.mTimes12.length];
+		
+		StringBuilder builder = new StringBuilder();
+		for(int hour = 1; hour <= HOURS_PER_DAY; ++hour)
+		{
+			TimeUnit hourUnit = this.getHour(hour);
+			for(int minute = 0; minute < MINUTES_PER_HOUR; ++minute)
+			{
+				int index = (hour - 1) * MINUTES_PER_HOUR + minute;
+				this.mTimes24[index] = DateAndTimeContainer.createTime(builder, "", "", hourUnit, minuteKana[minute], minuteKanji[minute]);
+				this.mTimeTexts24[index] = DateAndTimeContainer.createTimeText(builder, hour, minute, "");
+				
+				if(hour <= HOURS_PER_HALF_DAY)
+				{
+					index = (hour - 1) * MINUTES_PER_HOUR + minute;
+					this.mTimes12[index] = DateAndTimeContainer.createTime(builder, morningHiragana, morningKanji, hourUnit, minuteKana[minute], minuteKanji[minute]);
+					this.mTimeTexts12[index] = DateAndTimeContainer.createTimeText(builder, hour, minute, " AM");
+					
+					index += HOURS_PER_HALF_DAY * MINUTES_PER_HOUR;
+					this.mTimes12[index] = DateAndTimeContainer.createTime(builder, eveningHiragana, eveningKanji, hourUnit, minuteKana[minute], minuteKanji[minute]);
+					this.mTimeTexts12[index] = DateAndTimeContainer.createTimeText(builder, hour, minute, " PM");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Create the reading of a clock time.
+	 * @param builder Builder to reuse.
+	 * @param halfKana AM or PM in kana, empty for the 24 hour clock.
+	 * @param halfKanji AM or PM in kanji, empty for the 24 hour clock.
+	 * @param hour The hour.
+	 * @param minuteKana The minute in kana, empty for full hours.
+	 * @param minuteKanji The minute in kanji, empty for full hours.
+	 * @return The time unit containing both readings.
+	 */
+	private static TimeUnit createTime(StringBuilder builder, String halfKana, String halfKanji, TimeUnit hour, String minuteKana, String minuteKanji)
+	{
+		builder.setLength(0);
+		if(!halfKana.isEmpty())
+		{
+			builder.append(halfKana).append(' ');
+		}
+		builder.append(hour.getKana());
+		if(!minuteKana.isEmpty())
+		{
+			builder.append(' ').append(minuteKana);
+		}
+		String kana = builder.toString();
+		
+		builder.setLength(0);
+		builder.append(halfKanji).append(hour.getKanji()).append(minuteKanji);
+		return new TimeUnit(kana, builder.toString());
+	}
+	
+	/**
+	 * Create a clock time in digits.
+	 * @param builder Builder to reuse.
+	 * @param hour The hour.
+	 * @param minute The minute.
+	 * @param suffix AM or PM with a leading space, empty for the 24 hour clock.
+	 * @return The time in digits.
+	 */
+	private static String createTimeText(StringBuilder builder, int hour, int minute, String suffix)
+	{
+		builder.setLength(0);
+		builder.append(hour < 10 ? "0" : "").append(hour).append(':').append(minute < 10 ? "0" : "").append(minute).append(suffix);
+		return builder.toString();
+	}
+	
+	/**
+	 * Create the kana reading of a minute.
+	 * Minutes ending with 1, 3, 4, 6, 8 or 0 are read "pun", the digit before changes its sound (e.g. ippun, juppun).
+	 * Thirty minutes may also be read "han".
+	 * @param minute The minute, between 0 and 59.
+	 * @return The reading, empty for full hours.
+	 */
+	private static String createMinuteKana(int minute)
+	{
+		if(minute == 0)
+		{
+			return "";
+		}
+		
+		int tens = minute / 10;
+		int ones = minute % 10;
+		StringBuilder builder = new StringBuilder();
+		if(tens > 1)
+		{
+			// Use the common reading of the tens digit (yon, not shi).
+			builder.append(NumberContainer.Ones[tens - 1][tens == 4 ? 1 : 0]);
+		}
+		if(tens > 0)
+		{
+			builder.append(ones == 0 ? minutes[9] : NumberContainer.Tens[0][0]);
+		}
+		if(ones > 0)
+		{
+			builder.append(minutes[ones - 1]);
+		}
+		builder.append(minuteHiragana[PUN_DIGITS[ones] ? 1 : 0]);
+		
+		if(minute == MINUTES_PER_HOUR / 2)
+		{
+			builder.append(" / ").append(minutes[10]);
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Create the kanji reading of a minute.
+	 * @param minute The minute, between 0 and 59.
+	 * @param converter Converter creating the kanji numerals.
+	 * @return The reading, empty for full hours.
+	 */
+	private static String createMinuteKanji(int minute, NumberToKanaConverter converter)
+	{
+		if(minute == 0)
+		{
+			return "";
+		}
+		
+		StringBuilder builder = new StringBuilder();
+		converter.appendInteger(minute, null, builder);
+		builder.append(minuteKanji);
+		
+		if(minute == MINUTES_PER_HOUR / 2)
+		{
+			builder.append(" / ").append(halfKanji);
 		}
+		return builder.toString();
 	}
 }
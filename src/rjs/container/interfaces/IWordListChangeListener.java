@@ -0,0 +1,17 @@
+package rjs.container.interfaces;
+
+import rjs.wordlist.WordListDiff;
+
+/**
+ * Gets informed when the active word list was replaced by a changed version of itself, e.g. after its file was edited.
+ * Called on the Swing event dispatch thread after the change was applied.
+ * @author Schlewinow
+ */
+public interface IWordListChangeListener
+{
+	/**
+	 * Called after words of the active word list were added, removed or changed.
+	 * @param diff The difference to the previous version. May be used to map indices of the previous version to the current one.
+	 */
+	void wordListChanged(WordListDiff diff);
+}
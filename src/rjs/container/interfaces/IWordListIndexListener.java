@@ -0,0 +1,17 @@
+package rjs.container.interfaces;
+
+import rjs.wordlist.search.WordListIndex;
+
+/**
+ * Gets informed when the search index of the active word list was built.
+ * Called on the Swing event dispatch thread.
+ * @author Schlewinow
+ */
+public interface IWordListIndexListener
+{
+	/**
+	 * Called once the index of the active word list is ready. Happens after a word list was loaded or changed.
+	 * @param index The index of the active word list.
+	 */
+	void wordListIndexBuilt(WordListIndex index);
+}
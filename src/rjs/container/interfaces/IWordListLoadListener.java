@@ -0,0 +1,32 @@
+package rjs.container.interfaces;
+
+import rjs.wordlist.WordList;
+
+/**
+ * Gets informed about the state of a word list that is loaded in the background.
+ * All methods are called on the Swing event dispatch thread.
+ * @author Schlewinow
+ */
+public interface IWordListLoadListener
+{
+	/**
+	 * Called regularly while the word list is loaded.
+	 * @param itemsParsed Number of word list items read so far.
+	 * @param bytesRead Number of bytes read from the file so far.
+	 * @param totalBytes Size of the file in bytes, 0 if unknown.
+	 */
+	void loadProgress(int itemsParsed, long bytesRead, long totalBytes);
+	
+	/**
+	 * Called once the new word list replaced the previous one.
+	 * @param path Path of the loaded word list. Empty if the file could not be loaded.
+	 * @param wordList The newly active word list.
+	 */
+	void loadFinished(String path, WordList wordList);
+	
+	/**
+	 * Called if the load was cancelled. The previous word list stays active.
+	 * @param path Path of the word list that was not loaded.
+	 */
+	void loadCancelled(String path);
+}
@@ -0,0 +1,32 @@
+package rjs.executables;
+
+import rjs.wordlist.BinaryWordListHandler;
+
+/**
+ * Command line tool to compile an XML word list into the binary word list format.
+ * Usage: WordListConverter input.xml|input.xml.gz [output.rjsw]
+ * @author Schlewinow
+ */
+public class WordListConverter
+{
+	public static void main(String[] args)
+	{
+		if(args.length < 1)
+		{
+			System.out.println("Usage: WordListConverter input.xml [output" + BinaryWordListHandler.FILE_EXTENSION + "]");
+			return;
+		}
+		
+		String input = args[0];
+		String output = args.length > 1 ? args[1] : input.replaceAll("\\.[xX][mM][lL](\\.[gG][zZ])?$", "") + BinaryWordListHandler.FILE_EXTENSION;
+		
+		if(BinaryWordListHandler.convertFromXml(input, output))
+		{
+			System.out.println("Word list written to " + output);
+		}
+		else
+		{
+			System.out.println("Could not convert " + input);
+		}
+	}
+}
@@ -0,0 +1,494 @@
+package rjs.numbers;
+
+import java.math.BigDecimal;
+
+import rjs.container.NumberContainer;
+
+/**
+ * Parses numbers written in hiragana or kanji numerals back into their value, e.g. to check typed answers.
+ * Understands everything the NumberToKanaConverter creates, including all readings of a digit (yon and shi,
+ * nana and shichi, ...), sound changes (sanbyaku, roppyaku, issen, jutchou, ...) and a mix of both scripts.
+ * All readings are stored in a trie built from the tables of the NumberContainer. The text is read once
+ * from left to right, every step takes the longest reading starting at the current character and feeds it
+ * to a small state machine summing up the groups of four digits.
+ * The only reading that is the start of a longer one with a different meaning, "shi" before "chou",
+ * has its own entry in the trie, so no reading is ever tried a second time.
+ * A parser holds no state between calls and may be shared.
+ * @author Schlewinow
+ */
+public class KanaToNumberParser
+{
+	/**
+	 * Token kind of a digit, which may be followed by a power of ten or a unit.
+	 */
+	private static final int KIND_DIGIT = 0;
+	
+	/**
+	 * Token kind of a power of ten inside a group, multiplying the digit in front of it (if any).
+	 */
+	private static final int KIND_POWER = 1;
+	
+	/**
+	 * Token kind of a digit and its power of ten read as one (e.g. sanbyaku).
+	 */
+	private static final int KIND_PART = 2;
+	
+	/**
+	 * Token kind of the unit of a group of four digits.
+	 */
+	private static final int KIND_UNIT = 3;
+	
+	/**
+	 * Token kind of the comma.
+	 */
+	private static final int KIND_COMMA = 4;
+	
+	/**
+	 * Token kind of the minus.
+	 */
+	private static final int KIND_MINUS = 5;
+	
+	/**
+	 * Powers of ten inside a group, in the order of the kanji table.
+	 */
+	private static final long[] POWERS = { 10L, 100L, 1000L };
+	
+	/**
+	 * Values of the units, in the order of the unit tables.
+	 */
+	private static final long[] UNIT_VALUES = { 10000L, 100000000L, 1000000000000L, 10000000000000000L };
+	
+	/**
+	 * Higher than any power inside a group, the start value when a group begins.
+	 */
+	private static final long GROUP_START = 10000L;
+	
+	/**
+	 * Digits whose last syllable becomes a small tsu when a sound change happens: ichi, roku, hachi.
+	 */
+	private static final int[] SOUND_CHANGE_DIGITS = { 1, 6, 8 };
+	
+	/**
+	 * Maximum number of digits after the comma.
+	 */
+	private static final int MAXIMUM_FRACTION_DIGITS = 18;
+	
+	/**
+	 * Small tsu replacing the last syllable of a reading when a sound change happens.
+	 */
+	private static final char SMALL_TSU = '\u3063';
+	
+	/**
+	 * Additional kanji numeral for zero.
+	 */
+	private static final String KANJI_ZERO = "\u96F6";
+	
+	/**
+	 * Meaning of a reading.
+	 */
+	private static class Token
+	{
+		/**
+		 * Kind of the token, one of the KIND constants.
+		 */
+		private final int mKind;
+		
+		/**
+		 * Digit, power, value of the part or value of the unit, depending on the kind.
+		 */
+		private final long mValue;
+		
+		/**
+		 * Power of ten of a part.
+		 */
+		private final long mPower;
+		
+		/**
+		 * Whether the reading ends with a sound change and has to be followed by something.
+		 */
+		private final boolean mSoundChange;
+		
+		/**
+		 * Create a token.
+		 */
+		private Token(int kind, long value, long power, boolean soundChange)
+		{
+			this.mKind = kind;
+			this.mValue = value;
+			this.mPower = power;
+			this.mSoundChange = soundChange;
+		}
+		
+		/**
+		 * Check whether two tokens have the same meaning.
+		 */
+		private boolean sameAs(Token other)
+		{
+			return this.mKind == other.mKind && this.mValue == other.mValue && this.mPower == other.mPower && this.mSoundChange == other.mSoundChange;
+		}
+	}
+	
+	/**
+	 * Node of the trie. Nodes have few children, so they are kept in small arrays searched linearly.
+	 */
+	private static class Node
+	{
+		/**
+		 * Characters leading to the children.
+		 */
+		private char[] mKeys = new char[0];
+		
+		/**
+		 * Children, in the order of the keys.
+		 */
+		private Node[] mChildren = new Node[0];
+		
+		/**
+		 * Tokens of the reading ending at this node, null if no reading ends here.
+		 */
+		private Token[] mTokens = null;
+		
+		/**
+		 * Getter child reached by a character, null if there is none.
+		 */
+		private Node getChild(char key)
+		{
+			for(int index = 0; index < this.mKeys.length; ++index)
+			{
+				if(this.mKeys[index] == key)
+				{
+					return this.mChildren[index];
+				}
+			}
+			return null;
+		}
+		
+		/**
+		 * Getter child reached by a character, created if there is none.
+		 */
+		private Node getOrAddChild(char key)
+		{
+			Node child = this.getChild(key);
+			if(child == null)
+			{
+				int count = this.mKeys.length;
+				char[] keys = new char[count + 1];
+				Node[] children = new Node[count + 1];
+				System.arraycopy(this.mKeys, 0, keys, 0, count);
+				System.arraycopy(this.mChildren, 0, children, 0, count);
+				child = new Node();
+				keys[count] = key;
+				children[count] = child;
+				this.mKeys = keys;
+				this.mChildren = children;
+			}
+			return child;
+		}
+	}
+	
+	/**
+	 * Root of the trie holding all readings.
+	 */
+	private Node mRoot = null;
+	
+	/**
+	 * Create a parser and build the trie of all readings.
+	 */
+	public KanaToNumberParser()
+	{
+		this.mRoot = new Node();
+		
+		// Hiragana digits, including the forms ending with a small tsu before chou, kei and the comma.
+		for(String zero : NumberContainer.Zero)
+		{
+			this.add(zero, new Token(KIND_DIGIT, 0, 0, false));
+		}
+		for(int digit = 1; digit <= 9; ++digit)
+		{
+			for(String reading : NumberContainer.Ones[digit - 1])
+			{
+				this.add(reading, new Token(KIND_DIGIT, digit, 0, false));
+			}
+		}
+		for(int digit : SOUND_CHANGE_DIGITS)
+		{
+			this.addSoundChange(NumberContainer.Ones[digit - 1][0], new Token(KIND_DIGIT, digit, 0, true));
+		}
+		
+		// Hiragana tens and hundreds, read as a whole since their sound depends on the digit.
+		// A single ten or hundred is a power, so a digit in front of it is multiplied as well.
+		for(int digit = 1; digit <= 9; ++digit)
+		{
+			for(String reading : NumberContainer.Tens[digit - 1])
+			{
+				this.addWithSoundChange(reading, digit, POWERS[0]);
+			}
+			this.addWithSoundChange(NumberContainer.Hundreds[digit - 1], digit, POWERS[1]);
+			this.add(NumberContainer.Thousands[digit - 1], new Token(KIND_PART, digit * POWERS[2], POWERS[2], false));
+		}
+		this.add(NumberContainer.Thousand, new Token(KIND_POWER, POWERS[2], 0, false));
+		
+		// Kanji digits and powers.
+		this.add(KANJI_ZERO, new Token(KIND_DIGIT, 0, 0, false));
+		for(int digit = 0; digit <= 9; ++digit)
+		{
+			this.add(NumberContainer.KanjiDigits[digit], new Token(KIND_DIGIT, digit, 0, false));
+		}
+		for(int power = 0; power < POWERS.length; ++power)
+		{
+			this.add(NumberContainer.KanjiPowers[power], new Token(KIND_POWER, POWERS[power], 0, false));
+		}
+		
+		// Units, comma and minus of both scripts.
+		for(int unit = 0; unit < UNIT_VALUES.length; ++unit)
+		{
+			this.add(NumberContainer.Units[unit], new Token(KIND_UNIT, UNIT_VALUES[unit], 0, false));
+			this.add(NumberContainer.KanjiUnits[unit], new Token(KIND_UNIT, UNIT_VALUES[unit], 0, false));
+		}
+		this.add(NumberContainer.Comma, new Token(KIND_COMMA, 0, 0, false));
+		this.add(NumberContainer.KanjiComma, new Token(KIND_COMMA, 0, 0, false));
+		this.add(NumberContainer.Minus, new Token(KIND_MINUS, 0, 0, false));
+		
+		// "shi" followed by "chou" starts like "shichi", so it gets its own entry.
+		for(String four : NumberContainer.Ones[3])
+		{
+			for(String seven : NumberContainer.Ones[6])
+			{
+				String chou = NumberContainer.Units[2];
+				if(seven.startsWith(four) && chou.startsWith(seven.substring(four.length())))
+				{
+					this.add(four + chou, new Token(KIND_DIGIT, 4, 0, false), new Token(KIND_UNIT, UNIT_VALUES[2], 0, false));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Parse a number in hiragana or kanji numerals. White space is ignored.
+	 * Digits after the comma are kept including zeros at the end, so the scale of the result is their number.
+	 * @param text The number as text.
+	 * @return The value of the number, null if the text is no valid number.
+	 */
+	public BigDecimal parse(CharSequence text)
+	{
+		boolean negative = false;
+		boolean started = false;
+		boolean zeroInteger = false;
+		boolean afterComma = false;
+		boolean soundChange = false;
+		long total = 0;
+		long group = 0;
+		long pendingDigit = -1;
+		long lastPower = GROUP_START;
+		long lastUnit = Long.MAX_VALUE;
+		long fraction = 0;
+		int fractionDigits = 0;
+		
+		int length = text.length();
+		int position = 0;
+		while(position < length)
+		{
+			if(Character.isWhitespace(text.charAt(position)))
+			{
+				++position;
+				continue;
+			}
+			
+			// Find the longest reading starting at the current position.
+			Token[] tokens = null;
+			int end = position;
+			Node node = this.mRoot;
+			for(int index = position; index < length; ++index)
+			{
+				node = node.getChild(text.charAt(index));
+				if(node == null)
+				{
+					break;
+				}
+				if(node.mTokens != null)
+				{
+					tokens = node.mTokens;
+					end = index + 1;
+				}
+			}
+			if(tokens == null)
+			{
+				return null;
+			}
+			position = end;
+			
+			for(Token token : tokens)
+			{
+				switch(token.mKind)
+				{
+				case KIND_MINUS:
+					if(started || negative)
+					{
+						return null;
+					}
+					negative = true;
+					break;
+				
+				case KIND_DIGIT:
+					if(afterComma)
+					{
+						if(token.mSoundChange || fractionDigits >= MAXIMUM_FRACTION_DIGITS)
+						{
+							return null;
+						}
+						fraction = fraction * 10 + token.mValue;
+						++fractionDigits;
+					}
+					else if(zeroInteger || pendingDigit >= 0)
+					{
+						return null;
+					}
+					else if(token.mValue == 0)
+					{
+						// Zero only stands alone.
+						if(started)
+						{
+							return null;
+						}
+						zeroInteger = true;
+					}
+					else
+					{
+						pendingDigit = token.mValue;
+					}
+					break;
+				
+				case KIND_POWER:
+				case KIND_PART:
+					long power = token.mKind == KIND_POWER ? token.mValue : token.mPower;
+					if(afterComma || zeroInteger || power >= lastPower || (token.mKind == KIND_PART && pendingDigit >= 0))
+					{
+						return null;
+					}
+					if(token.mKind == KIND_POWER)
+					{
+						group += (pendingDigit >= 0 ? pendingDigit : 1) * power;
+					}
+					else
+					{
+						group += token.mValue;
+					}
+					pendingDigit = -1;
+					lastPower = power;
+					break;
+				
+				case KIND_UNIT:
+					if(afterComma || zeroInteger || token.mValue >= lastUnit)
+					{
+						return null;
+					}
+					group += pendingDigit >= 0 ? pendingDigit : 0;
+					if(group == 0)
+					{
+						return null;
+					}
+					try
+					{
+						total = Math.addExact(total, Math.multiplyExact(group, token.mValue));
+					}
+					catch(ArithmeticException aex)
+					{
+						return null;
+					}
+					group = 0;
+					pendingDigit = -1;
+					lastPower = GROUP_START;
+					lastUnit = token.mValue;
+					break;
+				
+				case KIND_COMMA:
+					if(afterComma || !started)
+					{
+						return null;
+					}
+					afterComma = true;
+					break;
+				}
+				
+				started |= token.mKind != KIND_MINUS;
+				soundChange = token.mSoundChange;
+			}
+		}
+		
+		if(!started || soundChange || (afterComma && fractionDigits == 0))
+		{
+			return null;
+		}
+		
+		group += pendingDigit >= 0 ? pendingDigit : 0;
+		try
+		{
+			total = Math.addExact(total, group);
+		}
+		catch(ArithmeticException aex)
+		{
+			return null;
+		}
+		
+		BigDecimal value = BigDecimal.valueOf(total);
+		if(fractionDigits > 0)
+		{
+			value = value.add(BigDecimal.valueOf(fraction, fractionDigits));
+		}
+		return negative ? value.negate() : value;
+	}
+	
+	/**
+	 * Add a reading of tens or hundreds, together with its form ending with a small tsu.
+	 * @param reading The reading.
+	 * @param digit The digit in front of the power.
+	 * @param power The power of ten.
+	 */
+	private void addWithSoundChange(String reading, int digit, long power)
+	{
+		int kind = digit == 1 ? KIND_POWER : KIND_PART;
+		long value = digit == 1 ? power : digit * power;
+		long partPower = digit == 1 ? 0 : power;
+		this.add(reading, new Token(kind, value, partPower, false));
+		this.addSoundChange(reading, new Token(kind, value, partPower, true));
+	}
+	
+	/**
+	 * Add the form of a reading whose last syllable is replaced by a small tsu.
+	 * @param reading The reading without sound change.
+	 * @param token The meaning of the changed reading.
+	 */
+	private void addSoundChange(String reading, Token token)
+	{
+		this.add(reading.substring(0, reading.length() - 1) + SMALL_TSU, token);
+	}
+	
+	/**
+	 * Add a reading to the trie.
+	 * @param reading The reading.
+	 * @param tokens The meaning of the reading, usually a single token.
+	 */
+	private void add(String reading, Token... tokens)
+	{
+		Node node = this.mRoot;
+		for(int index = 0; index < reading.length(); ++index)
+		{
+			node = node.getOrAddChild(reading.charAt(index));
+		}
+		
+		if(node.mTokens != null)
+		{
+			// The same reading may be created twice, but must not have two meanings.
+			boolean same = node.mTokens.length == tokens.length;
+			for(int index = 0; same && index < tokens.length; ++index)
+			{
+				same = node.mTokens[index].sameAs(tokens[index]);
+			}
+			if(!same)
+			{
+				throw new IllegalArgumentException("Reading with two meanings: " + reading);
+			}
+		}
+		node.mTokens = tokens;
+	}
+}
@@ -0,0 +1,415 @@
+package rjs.numbers;
+
+import java.math.BigDecimal;
+
+import rjs.container.NumberContainer;
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Converts numbers into their reading in hiragana and into kanji numerals.
+ * The integer part is read in groups of four digits, each followed by its unit (man, oku, chou, kei),
+ * the part after the comma is read digit by digit after "ten".
+ * Both scripts are created in the same pass over the groups, either of them may be left out.
+ * Readings are taken from the tables of the NumberContainer and appended to a given StringBuilder,
+ * so converting a number creates no objects. Digits are taken apart by division, not by parsing strings.
+ * Some digits have more than one reading (e.g. yon and shi). With a random source, one of them is picked randomly,
+ * otherwise the most common one is used. Digits directly before a unit always use the common reading.
+ * @author Schlewinow
+ */
+public class NumberToKanaConverter
+{
+	/**
+	 * Index of the unit chou (10^12) in the unit table.
+	 */
+	private static final int UNIT_CHOU = 2;
+	
+	/**
+	 * Index of the unit kei (10^16) in the unit table.
+	 */
+	private static final int UNIT_KEI = 3;
+	
+	/**
+	 * Pseudo unit used for the comma, which changes the sound of the number before it like chou.
+	 */
+	private static final int UNIT_COMMA = -1;
+	
+	/**
+	 * Pseudo unit used for the last group, which has no unit.
+	 */
+	private static final int NO_UNIT = -2;
+	
+	/**
+	 * Value of one unit step, a group holds four digits.
+	 */
+	private static final long GROUP_SIZE = 10000L;
+	
+	/**
+	 * Value of the highest unit (10^16).
+	 */
+	private static final long HIGHEST_UNIT_VALUE = 10000000000000000L;
+	
+	/**
+	 * Index of the most common reading of every digit from one to nine, within the tables of ones and tens.
+	 */
+	private static final int[] COMMON_READING = { 0, 0, 0, 1, 0, 0, 0, 0, 0 };
+	
+	/**
+	 * Maximum number of digits after the comma.
+	 */
+	private static final int MAXIMUM_FRACTION_DIGITS = 18;
+	
+	/**
+	 * Small tsu replacing the last syllable of a digit when a sound change happens.
+	 */
+	private static final char SMALL_TSU = '\u3063';
+	
+	/**
+	 * Powers of ten fitting into a long, used to take digits apart.
+	 */
+	private static final long[] POWERS_OF_TEN = new long[MAXIMUM_FRACTION_DIGITS + 1];
+	
+	static
+	{
+		POWERS_OF_TEN[0] = 1;
+		for(int index = 1; index < POWERS_OF_TEN.length; ++index)
+		{
+			POWERS_OF_TEN[index] = POWERS_OF_TEN[index - 1] * 10;
+		}
+	}
+	
+	/**
+	 * Source used to pick one of several readings of a digit, null to use the common one.
+	 */
+	private IRandomSource mRandomSource = null;
+	
+	/**
+	 * Create a converter always using the common reading of a digit.
+	 */
+	public NumberToKanaConverter()
+	{
+		this(null);
+	}
+	
+	/**
+	 * Create a converter picking one of several readings of a digit randomly.
+	 * @param randomSource Source of the random values, null to always use the common reading.
+	 */
+	public NumberToKanaConverter(IRandomSource randomSource)
+	{
+		this.mRandomSource = randomSource;
+	}
+	
+	/**
+	 * Convert a number into hiragana.
+	 * @param value The number to convert, anything but Long.MIN_VALUE.
+	 * @return The reading of the number.
+	 */
+	public String convert(long value)
+	{
+		StringBuilder output = new StringBuilder();
+		this.appendInteger(value, output);
+		return output.toString();
+	}
+	
+	/**
+	 * Append the reading of an integer.
+	 * @param value The number to convert, anything but Long.MIN_VALUE.
+	 * @param output The builder the reading is appended to.
+	 */
+	public void appendInteger(long value, StringBuilder output)
+	{
+		this.appendInteger(value, output, null);
+	}
+	
+	/**
+	 * Append the reading and the kanji numerals of an integer.
+	 * @param value The number to convert, anything but Long.MIN_VALUE.
+	 * @param hiragana The builder the reading is appended to, null if not needed.
+	 * @param kanji The builder the kanji numerals are appended to, null if not needed.
+	 */
+	public void appendInteger(long value, StringBuilder hiragana, StringBuilder kanji)
+	{
+		if(value < 0)
+		{
+			NumberToKanaConverter.append(hiragana, kanji, NumberContainer.Minus, NumberContainer.Minus);
+		}
+		this.appendMagnitude(NumberToKanaConverter.magnitude(value), NO_UNIT, hiragana, kanji);
+	}
+	
+	/**
+	 * Append the reading of a number with a part after the comma.
+	 * @param negative Whether the number is negative. Also applies if the integer part is zero.
+	 * @param integerPart The part before the comma, not negative.
+	 * @param fraction The part after the comma, between zero (inclusive) and one (exclusive).
+	 *        All digits up to its scale are read, including zeros at the end. Null or a scale of zero for integers.
+	 * @param output The builder the reading is appended to.
+	 */
+	public void appendNumber(boolean negative, long integerPart, BigDecimal fraction, StringBuilder output)
+	{
+		this.appendNumber(negative, integerPart, fraction, output, null);
+	}
+	
+	/**
+	 * Append the reading and the kanji numerals of a number with a part after the comma.
+	 * @param negative Whether the number is negative. Also applies if the integer part is zero.
+	 * @param integerPart The part before the comma, not negative.
+	 * @param fraction The part after the comma, between zero (inclusive) and one (exclusive).
+	 *        All digits up to its scale are read, including zeros at the end. Null or a scale of zero for integers.
+	 * @param hiragana The builder the reading is appended to, null if not needed.
+	 * @param kanji The builder the kanji numerals are appended to, null if not needed.
+	 */
+	public void appendNumber(boolean negative, long integerPart, BigDecimal fraction, StringBuilder hiragana, StringBuilder kanji)
+	{
+		if(integerPart < 0)
+		{
+			throw new IllegalArgumentException("Integer part must not be negative: " + integerPart);
+		}
+		
+		int digits = fraction == null ? 0 : Math.max(fraction.scale(), 0);
+		if(digits > MAXIMUM_FRACTION_DIGITS)
+		{
+			throw new IllegalArgumentException("At most " + MAXIMUM_FRACTION_DIGITS + " digits after the comma are supported: " + fraction);
+		}
+		
+		long fractionDigits = 0;
+		if(digits > 0)
+		{
+			if(fraction.signum() < 0 || fraction.compareTo(BigDecimal.ONE) >= 0)
+			{
+				throw new IllegalArgumentException("Part after the comma must be between zero and one: " + fraction);
+			}
+			fractionDigits = fraction.unscaledValue().longValue();
+		}
+		
+		this.appendNumber(negative, integerPart, fractionDigits, digits, hiragana, kanji);
+	}
+	
+	/**
+	 * Append the reading of a number with a part after the comma given as digits.
+	 * @param negative Whether the number is negative. Also applies if the integer part is zero.
+	 * @param integerPart The part before the comma, not negative.
+	 * @param fractionDigits The digits after the comma as number, e.g. 5 for ".05".
+	 * @param digitCount Number of digits after the comma, e.g. 2 for ".05". Zero for integers.
+	 * @param output The builder the reading is appended to.
+	 */
+	public void appendNumber(boolean negative, long integerPart, long fractionDigits, int digitCount, StringBuilder output)
+	{
+		this.appendNumber(negative, integerPart, fractionDigits, digitCount, output, null);
+	}
+	
+	/**
+	 * Append the reading and the kanji numerals of a number with a part after the comma given as digits.
+	 * Both are created in the same pass over the digits.
+	 * @param negative Whether the number is negative. Also applies if the integer part is zero.
+	 * @param integerPart The part before the comma, not negative.
+	 * @param fractionDigits The digits after the comma as number, e.g. 5 for ".05".
+	 * @param digitCount Number of digits after the comma, e.g. 2 for ".05". Zero for integers.
+	 * @param hiragana The builder the reading is appended to, null if not needed.
+	 * @param kanji The builder the kanji numerals are appended to, null if not needed.
+	 */
+	public void appendNumber(boolean negative, long integerPart, long fractionDigits, int digitCount, StringBuilder hiragana, StringBuilder kanji)
+	{
+		if(negative)
+		{
+			NumberToKanaConverter.append(hiragana, kanji, NumberContainer.Minus, NumberContainer.Minus);
+		}
+		if(digitCount <= 0)
+		{
+			this.appendMagnitude(integerPart, NO_UNIT, hiragana, kanji);
+			return;
+		}
+		
+		this.appendMagnitude(integerPart, UNIT_COMMA, hiragana, kanji);
+		NumberToKanaConverter.append(hiragana, kanji, NumberContainer.Comma, NumberContainer.KanjiComma);
+		for(int digit = digitCount - 1; digit >= 0; --digit)
+		{
+			int value = (int)(fractionDigits / POWERS_OF_TEN[digit] % 10);
+			if(hiragana != null)
+			{
+				hiragana.append(value == 0 ? this.pick(NumberContainer.Zero, 0) : this.pick(NumberContainer.Ones[value - 1], COMMON_READING[value - 1]));
+			}
+			if(kanji != null)
+			{
+				kanji.append(NumberContainer.KanjiDigits[value]);
+			}
+		}
+	}
+	
+	/**
+	 * Append a positive number or zero, followed by a unit or the comma.
+	 * @param value The number, not negative.
+	 * @param unit What follows the number: NO_UNIT or UNIT_COMMA.
+	 * @param hiragana The builder the reading is appended to, null if not needed.
+	 * @param kanji The builder the kanji numerals are appended to, null if not needed.
+	 */
+	private void appendMagnitude(long value, int unit, StringBuilder hiragana, StringBuilder kanji)
+	{
+		if(value == 0)
+		{
+			NumberToKanaConverter.append(hiragana, kanji, hiragana == null ? null : this.pick(NumberContainer.Zero, 0), NumberContainer.KanjiDigits[0]);
+			return;
+		}
+		
+		// Read the groups of four digits from the highest one, leave out empty groups and their units.
+		long unitValue = HIGHEST_UNIT_VALUE;
+		for(int groupUnit = UNIT_KEI; groupUnit >= 0; --groupUnit)
+		{
+			long group = value / unitValue;
+			if(group > 0)
+			{
+				this.appendGroup((int)group, groupUnit, hiragana, kanji);
+				NumberToKanaConverter.append(hiragana, kanji, NumberContainer.Units[groupUnit], NumberContainer.KanjiUnits[groupUnit]);
+			}
+			value -= group * unitValue;
+			unitValue /= GROUP_SIZE;
+		}
+		
+		if(value > 0)
+		{
+			this.appendGroup((int)value, unit, hiragana, kanji);
+		}
+	}
+	
+	/**
+	 * Append a group of up to four digits.
+	 * @param group The value of the group, between 1 and 9999.
+	 * @param unit What follows the group: the index of a unit, UNIT_COMMA or NO_UNIT.
+	 * @param hiragana The builder the reading is appended to, null if not needed.
+	 * @param kanji The builder the kanji numerals are appended to, null if not needed.
+	 */
+	private void appendGroup(int group, int unit, StringBuilder hiragana, StringBuilder kanji)
+	{
+		int thousands = group / 1000;
+		int hundreds = group / 100 % 10;
+		int tens = group / 10 % 10;
+		int ones = group % 10;
+		boolean unitFollows = unit >= 0;
+		
+		if(kanji != null)
+		{
+			// A single thousand directly before a unit is written with one, like it is read "issen".
+			NumberToKanaConverter.appendKanjiPower(thousands, 2, group == 1000 && unitFollows, kanji);
+			NumberToKanaConverter.appendKanjiPower(hundreds, 1, false, kanji);
+			NumberToKanaConverter.appendKanjiPower(tens, 0, false, kanji);
+			if(ones > 0)
+			{
+				kanji.append(NumberContainer.KanjiDigits[ones]);
+			}
+		}
+		
+		if(hiragana == null)
+		{
+			return;
+		}
+		
+		if(thousands > 0)
+		{
+			// Only a single thousand directly before a unit is read "issen".
+			hiragana.append(thousands > 1 || (group == 1000 && unitFollows) ? NumberContainer.Thousands[thousands - 1] : NumberContainer.Thousand);
+		}
+		if(hundreds > 0)
+		{
+			hiragana.append(NumberContainer.Hundreds[hundreds - 1]);
+		}
+		if(tens > 0)
+		{
+			hiragana.append(this.pick(NumberContainer.Tens[tens - 1], COMMON_READING[tens - 1]));
+		}
+		if(ones > 0)
+		{
+			String[] readings = NumberContainer.Ones[ones - 1];
+			hiragana.append(unitFollows ? readings[COMMON_READING[ones - 1]] : this.pick(readings, COMMON_READING[ones - 1]));
+		}
+		
+		// Sound changes before chou, kei and the comma: ichi, hachi, juu and before kei also roku and hyaku end in a small tsu.
+		if(unit == UNIT_CHOU || unit == UNIT_KEI || unit == UNIT_COMMA)
+		{
+			boolean change;
+			if(ones > 0)
+			{
+				change = ones == 1 || ones == 8 || (ones == 6 && unit == UNIT_KEI);
+			}
+			else if(tens > 0)
+			{
+				change = true;
+			}
+			else
+			{
+				change = hundreds > 0 && unit == UNIT_KEI;
+			}
+			
+			if(change)
+			{
+				hiragana.setCharAt(hiragana.length() - 1, SMALL_TSU);
+			}
+		}
+	}
+	
+	/**
+	 * Append a digit of a group in kanji numerals, followed by the sign of its power of ten.
+	 * @param digit The digit, nothing is appended for zero.
+	 * @param power Index of the power of ten in the kanji table: 0 for ten, 1 for hundred, 2 for thousand.
+	 * @param writeOne Whether the digit one is written, usually it is left out (e.g. ten instead of one ten).
+	 * @param kanji The builder the kanji numerals are appended to.
+	 */
+	private static void appendKanjiPower(int digit, int power, boolean writeOne, StringBuilder kanji)
+	{
+		if(digit == 0)
+		{
+			return;
+		}
+		if(digit > 1 || writeOne)
+		{
+			kanji.append(NumberContainer.KanjiDigits[digit]);
+		}
+		kanji.append(NumberContainer.KanjiPowers[power]);
+	}
+	
+	/**
+	 * Append the parts of both scripts to their builders.
+	 * @param hiragana The builder for hiragana, null if not needed.
+	 * @param kanji The builder for kanji numerals, null if not needed.
+	 * @param hiraganaPart The part appended to the hiragana.
+	 * @param kanjiPart The part appended to the kanji numerals.
+	 */
+	private static void append(StringBuilder hiragana, StringBuilder kanji, String hiraganaPart, String kanjiPart)
+	{
+		if(hiragana != null)
+		{
+			hiragana.append(hiraganaPart);
+		}
+		if(kanji != null)
+		{
+			kanji.append(kanjiPart);
+		}
+	}
+	
+	/**
+	 * Pick one of several readings of a digit.
+	 * @param readings The readings of the digit.
+	 * @param common Index of the most common reading.
+	 * @return The common reading without random source, a random reading otherwise.
+	 */
+	private String pick(String[] readings, int common)
+	{
+		if(this.mRandomSource == null || readings.length == 1)
+		{
+			return readings[common];
+		}
+		return readings[this.mRandomSource.nextInt(readings.length)];
+	}
+	
+	/**
+	 * Getter magnitude of a number.
+	 * @param value The number, anything but Long.MIN_VALUE.
+	 * @return The number without sign.
+	 */
+	private static long magnitude(long value)
+	{
+		if(value == Long.MIN_VALUE)
+		{
+			throw new IllegalArgumentException("Number out of range: " + value);
+		}
+		return value < 0 ? -value : value;
+	}
+}
@@ -1,15 +1,45 @@
 package rjs.panels;
 
+import rjs.container.OptionsContainer;
+import rjs.frame.IMainFrame;
+import rjs.random.interfaces.IRandomSource;
+
 /**
  * Version of abstract panel that adds randomization methods.
  * @author Schlewinow
  */
 public class AbstractRandomPanel extends AbstractPanel
 {
+	/**
+	 * Source of all random values of the panel. Created anew whenever the panel is initialized,
+	 * so a session with a fixed seed starts over with the same values.
+	 */
+	private IRandomSource mRandomSource = null;
+	
+	/**
+	 * Initializes the panel and its random source.
+	 */
+	public void initialize(IMainFrame mainFrame)
+	{
+		super.initialize(mainFrame);
+		
+		OptionsContainer optionsContainer = (OptionsContainer)this.getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
+		this.mRandomSource = optionsContainer.createRandomSource(this.getClass().getName());
+	}
+	
+	/**
+	 * Getter source of random values.
+	 * @return The random source of the current session.
+	 */
+	protected IRandomSource getRandomSource()
+	{
+		return this.mRandomSource;
+	}
+	
 	/**
 	 * Roll a die, get value between one and max eyes.
 	 * @param maxEyes maximum value to be returned
-	 * @return random integer between zero and maxEyes
+	 * @return random integer between one and maxEyes
 	 */
 	protected int rollDie(int maxEyes)
 	{
@@ -17,13 +47,13 @@ public class AbstractRandomPanel extends AbstractPanel
 	}
 	
 	/**
-	 * Roll a die, get value between min eyes and max eyes.
+	 * Roll a die, get value between min eyes and max eyes. Every value has the same chance.
 	 * @param minEyes minimum value to be returned
 	 * @param maxEyes maximum value to be returned
-	 * @return random integer between zero and maxEyes
+	 * @return random integer between minEyes and maxEyes
 	 */
 	protected int rollDie(int minEyes, int maxEyes)
 	{
-		return (int)(minEyes + Math.round(Math.random() * (maxEyes - minEyes)));
+		return this.mRandomSource.nextInt(minEyes, maxEyes);
 	}
 }
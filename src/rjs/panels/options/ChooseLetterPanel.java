@@ -7,8 +7,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.util.ArrayList;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import rjs.container.LetterContainer;
 import rjs.frame.IMainFrame;
@@ -20,6 +23,31 @@ import rjs.panels.AbstractPanel;
  */
 public class ChooseLetterPanel extends AbstractPanel
 {
+	/**
+	 * Maximum weight that may be set for a letter.
+	 */
+	private static final double MAXIMUM_WEIGHT = 100.0;
+	
+	/**
+	 * Step size of the weight spinner.
+	 */
+	private static final double WEIGHT_STEP = 0.5;
+	
+	/**
+	 * Box to choose the letter whose weight is edited.
+	 */
+	private JComboBox<String> mWeightLetterBox = null;
+	
+	/**
+	 * Spinner to edit the weight of the chosen letter.
+	 */
+	private JSpinner mWeightSpinner = null;
+	
+	/**
+	 * Line and position within the line of every letter in the weight letter box.
+	 */
+	private ArrayList<int[]> mWeightLetterPositions = null;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -178,6 +206,84 @@ public class ChooseLetterPanel extends AbstractPanel
 		constraints.gridx = 3;
 		constraints.gridy = 11;
 		this.getSwingPanel().add(saveOptionsButton, constraints);
+		
+		this.createWeightControls(letterContainer, constraints);
+	}
+	
+	/**
+	 * Create the controls to edit the weights of single letters.
+	 * Letters of higher weight are picked more often for random text, e.g. to practice weak letters.
+	 * @param letterContainer The container holding the weights.
+	 * @param constraints The constraints used for the layout of the panel.
+	 */
+	private void createWeightControls(LetterContainer letterContainer, GridBagConstraints constraints)
+	{
+		JLabel weightLabel = new JLabel("letter weight:");
+		this.setConstraints(constraints, 0, 12, 1, 1);
+		this.getSwingPanel().add(weightLabel, constraints);
+		
+		// One entry per letter in all scripts.
+		this.mWeightLetterBox = new JComboBox<String>();
+		this.mWeightLetterPositions = new ArrayList<int[]>();
+		for(int lineIndex = 0; lineIndex < LetterContainer.latin.length; ++lineIndex)
+		{
+			for(int letterIndex = 0; letterIndex < LetterContainer.latin[lineIndex].length; ++letterIndex)
+			{
+				this.mWeightLetterBox.addItem(LetterContainer.latin[lineIndex][letterIndex] + " - " 
+						+ LetterContainer.hiragana[lineIndex][letterIndex] + " - " 
+						+ LetterContainer.katakana[lineIndex][letterIndex]);
+				this.mWeightLetterPositions.add(new int[] { lineIndex, letterIndex });
+			}
+		}
+		this.mWeightLetterBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				ChooseLetterPanel.this.showSelectedWeight();
+			}
+		});
+		this.setConstraints(constraints, 1, 12, 1, 1);
+		this.getSwingPanel().add(this.mWeightLetterBox, constraints);
+		
+		// Spinner applies the weight directly to the chosen letter.
+		this.mWeightSpinner = new JSpinner(new SpinnerNumberModel(LetterContainer.DEFAULT_WEIGHT, 0.0, MAXIMUM_WEIGHT, WEIGHT_STEP));
+		this.mWeightSpinner.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent event)
+			{
+				int[] position = ChooseLetterPanel.this.mWeightLetterPositions.get(ChooseLetterPanel.this.mWeightLetterBox.getSelectedIndex());
+				float weight = ((Number)ChooseLetterPanel.this.mWeightSpinner.getValue()).floatValue();
+				
+				LetterContainer letterContainer = (LetterContainer)getMainFrame().getContainerManager().getContainer(LetterContainer.class);
+				letterContainer.setLetterWeight(position[0], position[1], weight);
+			}
+		});
+		this.setConstraints(constraints, 2, 12, 1, 1);
+		this.getSwingPanel().add(this.mWeightSpinner, constraints);
+		
+		// Button to pick all letters equally often again.
+		JButton resetWeightsButton = new JButton();
+		resetWeightsButton.setText("reset weights");
+		resetWeightsButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				LetterContainer letterContainer = (LetterContainer)getMainFrame().getContainerManager().getContainer(LetterContainer.class);
+				letterContainer.resetLetterWeights();
+				ChooseLetterPanel.this.showSelectedWeight();
+			}
+		});
+		this.setConstraints(constraints, 3, 12, 1, 1);
+		this.getSwingPanel().add(resetWeightsButton, constraints);
+		
+		this.showSelectedWeight();
+	}
+	
+	/**
+	 * Show the weight of the letter chosen in the weight letter box.
+	 */
+	private void showSelectedWeight()
+	{
+		int[] position = this.mWeightLetterPositions.get(this.mWeightLetterBox.getSelectedIndex());
+		LetterContainer letterContainer = (LetterContainer)this.getMainFrame().getContainerManager().getContainer(LetterContainer.class);
+		this.mWeightSpinner.setValue((double)letterContainer.getLetterWeight(position[0], position[1]));
 	}
 	
 	/**
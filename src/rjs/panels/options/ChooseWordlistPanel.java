@@ -1,6 +1,7 @@
 package rjs.panels.options;
 
 import java.awt.Color;
+import java.awt.FlowLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
@@ -10,32 +11,71 @@ import java.io.File;
 import java.nio.file.Paths;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
+import javax.swing.JTextField;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.border.LineBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileFilter;
 
 import rjs.container.WordListContainer;
+import rjs.container.interfaces.IWordListChangeListener;
+import rjs.container.interfaces.IWordListIndexListener;
+import rjs.container.interfaces.IWordListLoadListener;
 import rjs.frame.IMainFrame;
 import rjs.panels.AbstractPanel;
+import rjs.wordlist.BinaryWordListHandler;
+import rjs.wordlist.DelimitedWordListHandler;
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListDeduplicator;
+import rjs.wordlist.WordListDiff;
 import rjs.wordlist.WordListItem;
+import rjs.wordlist.WordListSet;
+import rjs.wordlist.XmlWordListHandler;
+import rjs.wordlist.search.WordListIndex;
 
 public class ChooseWordlistPanel extends AbstractPanel
 {
+	// Choosable ways to drop duplicate words and their descriptions.
+	private static final int[] DEDUPLICATION_KEYS = { WordListDeduplicator.KEY_NONE, WordListDeduplicator.KEY_ALL_FIELDS, 
+			WordListDeduplicator.KEY_JAPANESE, WordListDeduplicator.KEY_KANJI_AND_HIRAGANA };
+	private static final String[] DEDUPLICATION_NAMES = { "Keep duplicates", "Drop identical words", 
+			"Drop words with same japanese", "Drop words with same kanji and hiragana" };
+	
 	// Shows the currently loaded word list file path.
 	private JTextArea mWordListArea = null;
 	
 	// Contains the items of the currently loaded word list to get an overview.
 	private JScrollPane mWordPane = null;
 	
+	// Cancels a word list load running in the background.
+	private JButton mCancelLoadButton = null;
+	
+	// Contains a check box for every source if the word list is a word list set.
+	private JPanel mSourcePanel = null;
+	
+	// Limits the overview to the words matching the entered text.
+	private JTextField mSearchField = null;
+	
+	// Updates the overview when the word list is changed.
+	private WordListChangeListener mChangeListener = null;
+	
+	// Updates the overview once the search index is available.
+	private WordListIndexListener mIndexListener = null;
+	
 	// Default constructor.
 	public ChooseWordlistPanel()
 	{
+		this.mChangeListener = new WordListChangeListener();
+		this.mIndexListener = new WordListIndexListener();
 	}
 
 	// Initialize the panel to choose a word list.
@@ -44,6 +84,8 @@ public class ChooseWordlistPanel extends AbstractPanel
 		super.initialize(mainFrame);
 		
 		WordListContainer wordlistContainer = (WordListContainer)this.getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		wordlistContainer.addWordListChangeListener(this.mChangeListener);
+		wordlistContainer.addWordListIndexListener(this.mIndexListener);
 		
 		this.getSwingPanel().setLayout(new GridBagLayout());
 		GridBagConstraints constraints = new GridBagConstraints();
@@ -56,7 +98,7 @@ public class ChooseWordlistPanel extends AbstractPanel
 		
 		// Read-only area showing the current word list path.
 		this.mWordListArea = new JTextArea();
-		this.mWordListArea.setText(wordlistContainer.getWordListPath());
+		this.mWordListArea.setText(this.describeWordList(wordlistContainer.getWordListPath()));
 		this.mWordListArea.setEditable(false);
 		this.setConstraints(constraints, 1, 0, 2, 1, 2.0, 1.0);
 		this.getSwingPanel().add(this.mWordListArea, constraints);
@@ -68,27 +110,201 @@ public class ChooseWordlistPanel extends AbstractPanel
 		this.setConstraints(constraints, 3, 0, 1, 1, 1.0, 1.0);
 		this.getSwingPanel().add(loadListButton, constraints);
 		
+		// Button to cancel loading a word list. Only enabled while a word list is loaded.
+		this.mCancelLoadButton = new JButton();
+		this.mCancelLoadButton.setText("Cancel");
+		this.mCancelLoadButton.setEnabled(wordlistContainer.isLoadingWordList());
+		this.mCancelLoadButton.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+				wordlistContainer.cancelWordListLoading();
+			}
+		});
+		this.setConstraints(constraints, 4, 0, 1, 1, 1.0, 1.0);
+		this.getSwingPanel().add(this.mCancelLoadButton, constraints);
+		
+		// Label of the search field.
+		JLabel searchLabel = new JLabel();
+		searchLabel.setText("Search:");
+		this.setConstraints(constraints, 0, 1, 1, 1, 1.0, 1.0);
+		this.getSwingPanel().add(searchLabel, constraints);
+		
+		// Search field limiting the shown words. Searches romaji, japanese texts and translations.
+		this.mSearchField = new JTextField();
+		this.mSearchField.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent arg0)
+			{
+				ChooseWordlistPanel.this.updateWordPane();
+			}
+			
+			public void removeUpdate(DocumentEvent arg0)
+			{
+				ChooseWordlistPanel.this.updateWordPane();
+			}
+			
+			public void changedUpdate(DocumentEvent arg0)
+			{
+				ChooseWordlistPanel.this.updateWordPane();
+			}
+		});
+		this.setConstraints(constraints, 1, 1, 2, 1, 2.0, 1.0);
+		this.getSwingPanel().add(this.mSearchField, constraints);
+		
+		// Combo box to choose which words count as duplicates. Changing it loads the word list again.
+		final JComboBox<String> deduplicationBox = new JComboBox<String>(DEDUPLICATION_NAMES);
+		for(int index = 0; index < DEDUPLICATION_KEYS.length; ++index)
+		{
+			if(DEDUPLICATION_KEYS[index] == wordlistContainer.getDeduplicationKey())
+			{
+				deduplicationBox.setSelectedIndex(index);
+			}
+		}
+		deduplicationBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+				int key = DEDUPLICATION_KEYS[deduplicationBox.getSelectedIndex()];
+				if(key == wordlistContainer.getDeduplicationKey())
+				{
+					return;
+				}
+				
+				wordlistContainer.setDeduplicationKey(key);
+				if(!wordlistContainer.getWordListPath().isEmpty())
+				{
+					wordlistContainer.loadWordListAsync(wordlistContainer.getWordListPath(), new WordListLoadListener());
+					ChooseWordlistPanel.this.mCancelLoadButton.setEnabled(true);
+				}
+				getMainFrame().getContainerManager().WriteContainerToXml(WordListContainer.class);
+			}
+		});
+		this.setConstraints(constraints, 3, 1, 2, 1, 2.0, 1.0);
+		this.getSwingPanel().add(deduplicationBox, constraints);
+		
+		// Label of the column field.
+		JLabel columnsLabel = new JLabel();
+		columnsLabel.setText("CSV/TSV columns:");
+		this.setConstraints(constraints, 0, 2, 1, 1, 1.0, 1.0);
+		this.getSwingPanel().add(columnsLabel, constraints);
+		
+		// Field naming the fields of the columns of delimited text files. Confirming a change loads the word list again.
+		final JTextField columnsField = new JTextField(wordlistContainer.getDelimitedColumns());
+		columnsField.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+				String columns = columnsField.getText().trim();
+				if(columns.equals(wordlistContainer.getDelimitedColumns()))
+				{
+					return;
+				}
+				
+				wordlistContainer.setDelimitedColumns(columns);
+				if(!wordlistContainer.getWordListPath().isEmpty())
+				{
+					wordlistContainer.loadWordListAsync(wordlistContainer.getWordListPath(), new WordListLoadListener());
+					ChooseWordlistPanel.this.mCancelLoadButton.setEnabled(true);
+				}
+				getMainFrame().getContainerManager().WriteContainerToXml(WordListContainer.class);
+			}
+		});
+		this.setConstraints(constraints, 1, 2, 2, 1, 2.0, 1.0);
+		this.getSwingPanel().add(columnsField, constraints);
+		
+		// Hint how the column field is used.
+		JLabel columnsHintLabel = new JLabel();
+		columnsHintLabel.setText("Field names like \"kanji, -, translation\", empty to detect.");
+		this.setConstraints(constraints, 3, 2, 2, 1, 2.0, 1.0);
+		this.getSwingPanel().add(columnsHintLabel, constraints);
+		
+		// Check boxes to choose the used sources of a word list set.
+		this.mSourcePanel = new JPanel();
+		this.mSourcePanel.setLayout(new FlowLayout(FlowLayout.LEFT));
+		this.setConstraints(constraints, 0, 3, 5, 1, 5.0, 1.0);
+		this.getSwingPanel().add(this.mSourcePanel, constraints);
+		
 		// Contains the items of the word list.
 		this.mWordPane = new JScrollPane();
 		this.mWordPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
 		this.mWordPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-		this.setConstraints(constraints, 0, 1, 4, 8, 4.0, 8.0);
+		this.setConstraints(constraints, 0, 4, 5, 8, 5.0, 8.0);
 		this.getSwingPanel().add(this.mWordPane, constraints);
 		
 		// Make sure word pane contains items in case a word list is already loaded.
+		this.updateSourcePanel();
 		this.updateWordPane();
 	}
 	
+	// Text shown for the active word list: its path and the number of dropped duplicates, if any.
+	private String describeWordList(String path)
+	{
+		WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		int duplicatesDropped = wordlistContainer.getDuplicatesDropped();
+		if(path.isEmpty() || duplicatesDropped == 0)
+		{
+			return path;
+		}
+		return path + " (" + duplicatesDropped + " duplicates dropped)";
+	}
+	
+	// Update the check boxes of the sources. Empty if the word list is no word list set.
+	private void updateSourcePanel()
+	{
+		WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		this.mSourcePanel.removeAll();
+		
+		if(wordlistContainer.getWordList() instanceof WordListSet)
+		{
+			WordListSet wordListSet = (WordListSet)wordlistContainer.getWordList();
+			for(int source = 0; source < wordListSet.getSourceCount(); ++source)
+			{
+				final int sourceIndex = source;
+				final JCheckBox sourceBox = new JCheckBox();
+				sourceBox.setText(new File(wordListSet.getSourcePath(source)).getName() + " (" + wordListSet.getSourceWordCount(source) + ")");
+				sourceBox.setSelected(wordListSet.isSourceActive(source));
+				sourceBox.addActionListener(new ActionListener() {
+					public void actionPerformed(ActionEvent arg0)
+					{
+						WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+						wordlistContainer.setWordListSourceActive(sourceIndex, sourceBox.isSelected());
+						getMainFrame().getContainerManager().WriteContainerToXml(WordListContainer.class);
+					}
+				});
+				this.mSourcePanel.add(sourceBox);
+			}
+		}
+		
+		this.mSourcePanel.revalidate();
+		this.mSourcePanel.repaint();
+	}
+	
 	// Update the scroll pane showing the current word list.
+	// If a search text is entered, only matching words are shown. All words are shown until the search index is built.
+	// Words with a similar romaji are shown if no word matches.
 	private void updateWordPane()
 	{
 		WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
 		JPanel completeListPanel = new JPanel();
 		completeListPanel.setLayout(new GridLayout(0, 1));
 		
-		for(int index = 0; index < wordlistContainer.getWordList().getWordCount(); ++index)
+		int[] shownWords = null;
+		WordListIndex index = wordlistContainer.getWordListIndex();
+		String query = this.mSearchField.getText();
+		if(!query.trim().isEmpty() && index != null && index.getWordList() == wordlistContainer.getWordList())
 		{
-			WordListItem item = wordlistContainer.getWordList().getWordAt(index);
+			shownWords = index.search(query);
+			if(shownWords.length == 0)
+			{
+				// Nothing matches exactly, the romaji might contain a typo.
+				shownWords = index.searchSimilar(query);
+			}
+		}
+		int shownCount = shownWords == null ? wordlistContainer.getWordList().getWordCount() : shownWords.length;
+		
+		for(int shownIndex = 0; shownIndex < shownCount; ++shownIndex)
+		{
+			WordListItem item = wordlistContainer.getWordList().getWordAt(shownWords == null ? shownIndex : shownWords[shownIndex]);
 			
 			JPanel itemPanel = new JPanel();
 			itemPanel.setLayout(new GridBagLayout());
@@ -133,7 +349,7 @@ public class ChooseWordlistPanel extends AbstractPanel
 		
 		this.mWordPane = wordPane;
 		GridBagConstraints con = new GridBagConstraints();
-		this.setConstraints(con, 0, 1, 4, 8, 4.0, 8.0, GridBagConstraints.CENTER, GridBagConstraints.BOTH);
+		this.setConstraints(con, 0, 3, 5, 8, 5.0, 8.0, GridBagConstraints.CENTER, GridBagConstraints.BOTH);
 		this.getSwingPanel().add(ChooseWordlistPanel.this.mWordPane, con);
 		
 		// Update complete panel to make sure the UI is updated properly.
@@ -146,7 +362,9 @@ public class ChooseWordlistPanel extends AbstractPanel
 		public void actionPerformed(ActionEvent arg0)
 		{
 			// Open dialog to choose file from.
+			// Directories may be chosen as word list sets.
 			JFileChooser fileChooser = new JFileChooser();
+			fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
 			fileChooser.setFileFilter(new WordListFilter());
 			String currentAppPath = Paths.get("").toAbsolutePath().toString().replace("\\", "/");
 			fileChooser.setCurrentDirectory(new File(currentAppPath));
@@ -156,14 +374,76 @@ public class ChooseWordlistPanel extends AbstractPanel
 			{
 				String filepath = fileChooser.getSelectedFile().getAbsolutePath();
 				WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
-				wordlistContainer.setWordListPath(filepath);
 				
-				// Update UI.
-				ChooseWordlistPanel.this.mWordListArea.setText(wordlistContainer.getWordListPath());
+				// Load in the background, the UI is updated by the listener.
+				wordlistContainer.loadWordListAsync(filepath, new WordListLoadListener());
+				ChooseWordlistPanel.this.mCancelLoadButton.setEnabled(true);
+			}
+		}
+	}
+	
+	// Shows the progress of a word list loaded in the background and updates the UI once it is done.
+	private class WordListLoadListener implements IWordListLoadListener
+	{
+		// Show number of read words and bytes in the path area.
+		public void loadProgress(int itemsParsed, long bytesRead, long totalBytes)
+		{
+			String progress = "Loading... " + itemsParsed + " words";
+			if(totalBytes > 0)
+			{
+				progress += " (" + (bytesRead * 100 / totalBytes) + "%)";
+			}
+			ChooseWordlistPanel.this.mWordListArea.setText(progress);
+		}
+		
+		// Update UI and save the path permanently.
+		public void loadFinished(String path, WordList wordList)
+		{
+			ChooseWordlistPanel.this.mCancelLoadButton.setEnabled(false);
+			ChooseWordlistPanel.this.mWordListArea.setText(ChooseWordlistPanel.this.describeWordList(path));
+			ChooseWordlistPanel.this.updateSourcePanel();
+			ChooseWordlistPanel.this.updateWordPane();
+			
+			// Once a word list was loaded, save the path permanently.
+			ChooseWordlistPanel.this.getMainFrame().getContainerManager().WriteContainerToXml(WordListContainer.class);
+		}
+		
+		// Show the path of the word list that is still active.
+		public void loadCancelled(String path)
+		{
+			WordListContainer wordlistContainer = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+			if(wordlistContainer.isLoadingWordList())
+			{
+				// Replaced by a newer load, which updates the UI itself.
+				return;
+			}
+			
+			ChooseWordlistPanel.this.mCancelLoadButton.setEnabled(false);
+			ChooseWordlistPanel.this.mWordListArea.setText(ChooseWordlistPanel.this.describeWordList(wordlistContainer.getWordListPath()));
+		}
+	}
+	
+	// Updates the overview of the word list after its file was edited.
+	private class WordListChangeListener implements IWordListChangeListener
+	{
+		public void wordListChanged(WordListDiff diff)
+		{
+			// Rebuilding the overview is expensive, skip it while the panel is not shown.
+			if(ChooseWordlistPanel.this.getSwingPanel().isShowing())
+			{
 				ChooseWordlistPanel.this.updateWordPane();
+			}
+		}
+	}
 				
-				// Once a word list was loaded, save the path permanently.
-				ChooseWordlistPanel.this.getMainFrame().getContainerManager().WriteContainerToXml(WordListContainer.class);
+	// Applies the search text once the index of a new or changed word list is available.
+	private class WordListIndexListener implements IWordListIndexListener
+	{
+		public void wordListIndexBuilt(WordListIndex index)
+		{
+			if(ChooseWordlistPanel.this.getSwingPanel().isShowing() && !ChooseWordlistPanel.this.mSearchField.getText().trim().isEmpty())
+			{
+				ChooseWordlistPanel.this.updateWordPane();
 			}
 		}
 	}
@@ -174,13 +454,15 @@ public class ChooseWordlistPanel extends AbstractPanel
 		// Whether a file is shown by the filter or not.
 		public boolean accept(File pathname)
 		{
-			return pathname.getName().endsWith(".xml") || pathname.isDirectory();
+			return pathname.getName().endsWith(".xml") || XmlWordListHandler.isCompressedXml(pathname.getName()) || BinaryWordListHandler.isBinaryWordList(pathname.getName()) 
+					|| DelimitedWordListHandler.isDelimitedWordList(pathname.getName()) || WordListSet.isWordListSet(pathname.getPath());
 		}
 
 		// Getter filter description.
 		public String getDescription()
 		{
-			return "Wordlists (.XML-files)";
+			return "Wordlists (.XML-files, " + XmlWordListHandler.COMPRESSED_EXTENSION + "-files, compiled " + BinaryWordListHandler.FILE_EXTENSION + "-files, CSV/TSV-files, " 
+					+ WordListSet.MANIFEST_EXTENSION + "-manifests, directories)";
 		}
 	}
 }
@@ -35,6 +35,11 @@ public class NumberOptionsPanel extends AbstractPanel
 	 */
 	JCheckBox mAllowMinusBox = null;
 	
+	/**
+	 * Checkbox to edit the state whether numbers are shown in kanji numerals as well.
+	 */
+	JCheckBox mShowKanjiBox = null;
+	
 	/**
 	 * Default constructor. Empty.
 	 */
@@ -124,8 +129,6 @@ public class NumberOptionsPanel extends AbstractPanel
 		});
 		this.setConstraints(constraints, 3, 1, 1, 1);
 		this.getSwingPanel().add(afterCommaUpButton, constraints);
-		// TODO: enable once implemented
-		afterCommaUpButton.setEnabled(false);
 	
 		// Button to decrease the number of digits after comma.
 		JButton afterCommaDownButton = new JButton();
@@ -140,8 +143,6 @@ public class NumberOptionsPanel extends AbstractPanel
 		});
 		this.setConstraints(constraints, 4, 1, 1, 1);
 		this.getSwingPanel().add(afterCommaDownButton, constraints);
-		// TODO: enable once implemented
-		afterCommaDownButton.setEnabled(false);
 
 		// Checkbox to disable/enable negative numbers.
 		this.mAllowMinusBox = new JCheckBox();
@@ -157,6 +158,20 @@ public class NumberOptionsPanel extends AbstractPanel
 		this.setConstraints(constraints, 0, 2, 1, 1);
 		this.getSwingPanel().add(this.mAllowMinusBox, constraints);
 		
+		// Checkbox to disable/enable kanji numerals.
+		this.mShowKanjiBox = new JCheckBox();
+		this.mShowKanjiBox.setText("show kanji numerals");
+		this.mShowKanjiBox.setSelected(numberContainer.getShowKanji());
+		this.mShowKanjiBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				NumberContainer numberContainer = (NumberContainer)getMainFrame().getContainerManager().getContainer(NumberContainer.class);
+				numberContainer.setShowKanji(mShowKanjiBox.isSelected());
+			}
+		});
+		this.setConstraints(constraints, 2, 2, 3, 1);
+		this.getSwingPanel().add(this.mShowKanjiBox, constraints);
+		
 		// Button to save the settings into the config file.
 		JButton saveButton = new JButton();
 		saveButton.setText("Save");
@@ -181,6 +196,7 @@ public class NumberOptionsPanel extends AbstractPanel
 				mBeforeCommaArea.setText("" + numberContainer.getDigitsBeforeComma());
 				mAfterCommaArea.setText("" + numberContainer.getDigitsAfterComma());
 				mAllowMinusBox.setSelected(numberContainer.getMinusAllowed());
+				mShowKanjiBox.setSelected(numberContainer.getShowKanji());
 			}
 		});
 		this.setConstraints(constraints, 2, 3, 1, 1, 1.0, 1.0);
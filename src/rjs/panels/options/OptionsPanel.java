@@ -6,6 +6,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import rjs.container.OptionsContainer;
 import rjs.frame.IMainFrame;
@@ -32,6 +34,26 @@ public class OptionsPanel extends AbstractPanel
 	 */
 	private JCheckBox mLinearLearningBox = null;
 	
+	/**
+	 * JCheckBox to (de)activate shuffled random word learning.
+	 */
+	private JCheckBox mShuffleLearningBox = null;
+	
+	/**
+	 * JCheckBox to (de)activate spaced repetition word learning.
+	 */
+	private JCheckBox mSpacedLearningBox = null;
+	
+	/**
+	 * JCheckBox to (de)activate the fixed seed of random sessions.
+	 */
+	private JCheckBox mUseRandomSeedBox = null;
+	
+	/**
+	 * Text field to enter the fixed seed of random sessions.
+	 */
+	private JTextField mRandomSeedField = null;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -148,9 +170,75 @@ public class OptionsPanel extends AbstractPanel
 				optionsContainer.setLinearLearning(mLinearLearningBox.isSelected());
 			}
 		});
-		this.setConstraints(constraints, 0, 2, 3, 1, 3.0, 1.0);
+		this.setConstraints(constraints, 0, 2, 2, 1, 2.0, 1.0);
 		this.getSwingPanel().add(this.mLinearLearningBox, constraints);
 		
+		// Check box to (de)activate shuffled word learning. Every word is shown once before words repeat.
+		this.mShuffleLearningBox = new JCheckBox();
+		this.mShuffleLearningBox.setText("No repeats");
+		this.mShuffleLearningBox.setSelected(optionsContainer.getShuffleLearning());
+		this.mShuffleLearningBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				OptionsContainer optionsContainer = (OptionsContainer)getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
+				optionsContainer.setShuffleLearning(mShuffleLearningBox.isSelected());
+			}
+		});
+		this.setConstraints(constraints, 2, 2, 1, 1, 1.0, 1.0);
+		this.getSwingPanel().add(this.mShuffleLearningBox, constraints);
+		
+		// Check box to (de)activate spaced repetition. Words are shown when due for review and graded by the user.
+		this.mSpacedLearningBox = new JCheckBox();
+		this.mSpacedLearningBox.setText("Spaced repetition word learning");
+		this.mSpacedLearningBox.setSelected(optionsContainer.getSpacedLearning());
+		this.mSpacedLearningBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				OptionsContainer optionsContainer = (OptionsContainer)getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
+				optionsContainer.setSpacedLearning(mSpacedLearningBox.isSelected());
+			}
+		});
+		this.setConstraints(constraints, 0, 3, 3, 1, 3.0, 1.0);
+		this.getSwingPanel().add(this.mSpacedLearningBox, constraints);
+		
+		// Check box to (de)activate the fixed seed. With a fixed seed, every session repeats the same random values.
+		this.mUseRandomSeedBox = new JCheckBox();
+		this.mUseRandomSeedBox.setText("Repeatable sessions, seed:");
+		this.mUseRandomSeedBox.setSelected(optionsContainer.getUseRandomSeed());
+		this.mUseRandomSeedBox.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				OptionsContainer optionsContainer = (OptionsContainer)getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
+				optionsContainer.setUseRandomSeed(mUseRandomSeedBox.isSelected());
+				mRandomSeedField.setEnabled(mUseRandomSeedBox.isSelected());
+			}
+		});
+		this.setConstraints(constraints, 3, 2, 1, 1, 1.0, 1.0);
+		this.getSwingPanel().add(this.mUseRandomSeedBox, constraints);
+		
+		// Text field to enter the seed. Only whole numbers are taken over.
+		this.mRandomSeedField = new JTextField();
+		this.mRandomSeedField.setText("" + optionsContainer.getRandomSeed());
+		this.mRandomSeedField.setEnabled(optionsContainer.getUseRandomSeed());
+		this.mRandomSeedField.getDocument().addDocumentListener(new DocumentListener() {
+			public void insertUpdate(DocumentEvent arg0)
+			{
+				OptionsPanel.this.applyRandomSeed();
+			}
+			
+			public void removeUpdate(DocumentEvent arg0)
+			{
+				OptionsPanel.this.applyRandomSeed();
+			}
+			
+			public void changedUpdate(DocumentEvent arg0)
+			{
+				OptionsPanel.this.applyRandomSeed();
+			}
+		});
+		this.setConstraints(constraints, 4, 2, 2, 1, 2.0, 1.0);
+		this.getSwingPanel().add(this.mRandomSeedField, constraints);
+		
 		// Button to reload the current option set.
 		JButton resetOptionsButton = new JButton();
 		resetOptionsButton.setText("reset options");
@@ -164,7 +252,7 @@ public class OptionsPanel extends AbstractPanel
 				getMainFrame().switchToPanel(OptionsPanel.this);
 			}
 		});
-		this.setConstraints(constraints, 0, 3, 1, 1, 1.0, 1.0, GridBagConstraints.CENTER, GridBagConstraints.BOTH);
+		this.setConstraints(constraints, 0, 4, 1, 1, 1.0, 1.0, GridBagConstraints.CENTER, GridBagConstraints.BOTH);
 		this.getSwingPanel().add(resetOptionsButton, constraints);
 		
 		// Button to reload the current option set.
@@ -180,7 +268,7 @@ public class OptionsPanel extends AbstractPanel
 				getMainFrame().switchToPanel(OptionsPanel.this);
 			}
 		});
-		this.setConstraints(constraints, 1, 3, 1, 1, 1.0, 1.0);
+		this.setConstraints(constraints, 1, 4, 1, 1, 1.0, 1.0);
 		this.getSwingPanel().add(reloadOptionsButton, constraints);
 		
 		// Button to save the current option set.
@@ -192,7 +280,24 @@ public class OptionsPanel extends AbstractPanel
 				getMainFrame().getContainerManager().WriteContainerToXml(OptionsContainer.class);
 			}
 		});
-		this.setConstraints(constraints, 4, 3, 2, 1, 2.0, 1.0);
+		this.setConstraints(constraints, 4, 4, 2, 1, 2.0, 1.0);
 		this.getSwingPanel().add(saveOptionsButton, constraints);
 	}
+	
+	/**
+	 * Take over the entered seed if it is a valid number.
+	 */
+	private void applyRandomSeed()
+	{
+		try
+		{
+			long seed = Long.parseLong(this.mRandomSeedField.getText().trim());
+			OptionsContainer optionsContainer = (OptionsContainer)getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
+			optionsContainer.setRandomSeed(seed);
+		}
+		catch(NumberFormatException nfex)
+		{
+			// Keep the previous seed while the entered text is no number.
+		}
+	}
 }
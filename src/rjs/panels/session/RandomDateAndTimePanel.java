@@ -4,12 +4,16 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.Locale;
 
+import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 
 import rjs.container.FontContainer;
-import rjs.container.NumberContainer;
 import rjs.container.dateandtime.DateAndTimeContainer;
+import rjs.container.dateandtime.TimeUnit;
 import rjs.frame.IMainFrame;
 import rjs.panels.AbstractRandomPanel;
 
@@ -24,24 +28,24 @@ public class RandomDateAndTimePanel extends AbstractRandomPanel
 	private JLabel mTimeJapaneseLabel = null;
 	
 	/**
-	 * Randomly generated hour.
+	 * Whether the current time is one of the 12 hour clock.
 	 */
-	private int mCurrentHour = 0;
+	private boolean mTwelveHour = false;
 	
 	/**
-	 * Randomly generated minute.
+	 * Index of the randomly generated time in the time tables of the container, -1 before the first one.
 	 */
-	private int mCurrentMinute = 0;
+	private int mCurrentTime = -1;
 	
 	/**
-	 * Is either empty, AM or PM.
+	 * Randomly generated date, null while a time is shown.
 	 */
-	private String mAMPM = "";
+	private LocalDate mCurrentDate = null;
 	
 	/**
-	 * Is eiter empty, gosen or gogo.
+	 * (De)Activate the weekday of random dates.
 	 */
-	private String mJAMPM = "";
+	private JCheckBox mWeekdayBox = null;
 	
 	/**
 	 * Default constructor.
@@ -71,9 +75,22 @@ public class RandomDateAndTimePanel extends AbstractRandomPanel
 		this.setConstraints(constraints, 1, 0, 1, 1, 1.0, 1.0);
 		this.mTimeJapaneseLabel = this.createLabel("japanese time", constraints, fontContainer);
 		
-		// Button to generate random date and time.
-		this.setConstraints(constraints, 0, 1, 2, 1, 2.0, 1.0);
-		this.createButton("Random!", constraints, null, new RandomButtonActionListener());
+		// Button to generate random time.
+		this.setConstraints(constraints, 0, 1, 1, 1, 1.0, 1.0);
+		this.createButton("Random time!", constraints, null, new RandomButtonActionListener());
+		
+		// Button to generate random date.
+		this.setConstraints(constraints, 1, 1, 1, 1, 1.0, 1.0);
+		this.createButton("Random date!", constraints, null, new RandomDateActionListener());
+		
+		// Checkbox to (de)activate the weekday of random dates.
+		this.setConstraints(constraints, 1, 2, 1, 1, 1.0, 1.0);
+		this.mWeekdayBox = this.createCheckBox("with weekday", constraints, null, new ActionListener() {
+			public void actionPerformed(ActionEvent arg0)
+			{
+				updateUI();
+			}
+		}, false);
 	}
 	
 	/**
@@ -83,51 +100,26 @@ public class RandomDateAndTimePanel extends AbstractRandomPanel
 	{
 		DateAndTimeContainer dateAndTimeContainer = (DateAndTimeContainer)getMainFrame().getContainerManager().getContainer(DateAndTimeContainer.class);
 		
-		String japHour = DateAndTimeContainer.hourHiragana;
-		String japMinute = DateAndTimeContainer.minuteHiragana[0];
-		
-		if(dateAndTimeContainer.getUseKanji())
-		{
-			japHour = DateAndTimeContainer.hourKanji;
-			japMinute = DateAndTimeContainer.minuteKanji;
-		}
-		else if(this.mCurrentMinute%10 == 1 || this.mCurrentMinute%10 == 3 || this.mCurrentMinute%10 == 6 || this.mCurrentMinute%10 == 8 || this.mCurrentMinute%10 == 0)
-		{
-			// Cases like 1 = ippun (not ichihun).
-			japMinute = DateAndTimeContainer.minuteHiragana[1];
-		}
-		
-		// Second digit of minute.
-		String hiraganaMinute = "";
-		int secondMinuteDigit = (this.mCurrentMinute % 10) - 1;
-		if(secondMinuteDigit < 0)
-		{
-			secondMinuteDigit = 9;
-		}
-		hiraganaMinute = DateAndTimeContainer.minutes[secondMinuteDigit];
-		
-		// First digit of minute.
-		int firstMinuteDigit = (this.mCurrentMinute / 10) - 1;
-		if(this.mCurrentMinute % 10 != 0 && this.mCurrentMinute > 10)
+		TimeUnit reading = null;
+		String standard = null;
+		if(this.mCurrentDate != null)
 		{
-			hiraganaMinute = NumberContainer.Tens[firstMinuteDigit][0] + hiraganaMinute;
+			boolean withWeekday = this.mWeekdayBox.isSelected();
+			reading = dateAndTimeContainer.createDate(this.mCurrentDate, withWeekday);
+			standard = this.mCurrentDate.toString() + (withWeekday ? " " + this.mCurrentDate.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH) : "");
 		}
-		else if (this.mCurrentMinute > 10)
+		else if(this.mCurrentTime >= 0)
 		{
-			// Always use 0 index, but 1 when hour is 4 (use jon, not shi).
-			int numberIndex = firstMinuteDigit == 3 ? 1 : 0;
-			hiraganaMinute = NumberContainer.Ones[firstMinuteDigit][numberIndex] + hiraganaMinute;
+			reading = dateAndTimeContainer.getTime(this.mTwelveHour, this.mCurrentTime);
+			standard = dateAndTimeContainer.getTimeText(this.mTwelveHour, this.mCurrentTime);
 		}
 		
-		if(this.mCurrentMinute == 30)
+		if(reading == null)
 		{
-			// Possibility of "han" at thirty minutes.
-			japMinute = japMinute + (this.mCurrentMinute == 30 ? (" / " + DateAndTimeContainer.minutes[10]) : "");
+			return;
 		}
-		
-		this.mTimeStantardLabel.setText((this.mCurrentHour < 10 ? "0" : "") + this.mCurrentHour + ":" + (this.mCurrentMinute < 10 ? "0" : "") + this.mCurrentMinute + " " + this.mAMPM);
-		//this.mTimeJapaneseLabel.setText(this.mJAMPM + " " + DateAndTimeContainer.hours[this.mCurrentHour-1] + japHour + " " + hiraganaMinute + japMinute);
-		this.mTimeJapaneseLabel.setText(this.mJAMPM + " " + dateAndTimeContainer.getHour(this.mCurrentHour).getKana() + " " + hiraganaMinute + japMinute);
+		this.mTimeStantardLabel.setText(standard);
+		this.mTimeJapaneseLabel.setText(dateAndTimeContainer.getUseKanji() ? reading.getKanji() : reading.getKana());
 	}
 	
 	/**
@@ -141,25 +133,36 @@ public class RandomDateAndTimePanel extends AbstractRandomPanel
 		 */
 		public void actionPerformed(ActionEvent arg0)
 		{
-			boolean useAMPM = RandomDateAndTimePanel.this.rollDie(2) > 1;
-			
-			// Hour and AM/PM-sign depend on this state.
-			if(useAMPM)
-			{
-				RandomDateAndTimePanel.this.mCurrentHour = RandomDateAndTimePanel.this.rollDie(12);
-				RandomDateAndTimePanel.this.mAMPM = rollDie(2) > 1 ? "AM" : "PM";
-				RandomDateAndTimePanel.this.mJAMPM = mAMPM.equals("AM") ? DateAndTimeContainer.morningHiragana : DateAndTimeContainer.eveningHiragana;
-			}
-			else
-			{
-				RandomDateAndTimePanel.this.mCurrentHour = RandomDateAndTimePanel.this.rollDie(24);
-				RandomDateAndTimePanel.this.mAMPM = "";
-				RandomDateAndTimePanel.this.mJAMPM = "";
-			}
+			DateAndTimeContainer dateAndTimeContainer = (DateAndTimeContainer)getMainFrame().getContainerManager().getContainer(DateAndTimeContainer.class);
 			
-			RandomDateAndTimePanel.this.mCurrentMinute = RandomDateAndTimePanel.this.rollDie(1, 59);
+			// Every time of the chosen clock is read from the tables of the container.
+			RandomDateAndTimePanel.this.mTwelveHour = RandomDateAndTimePanel.this.rollDie(2) > 1;
+			int timeCount = dateAndTimeContainer.getTimeCount(RandomDateAndTimePanel.this.mTwelveHour);
+			RandomDateAndTimePanel.this.mCurrentTime = timeCount > 0 ? RandomDateAndTimePanel.this.rollDie(0, timeCount - 1) : -1;
+			RandomDateAndTimePanel.this.mCurrentDate = null;
 			
 			RandomDateAndTimePanel.this.updateUI();
 		}	
 	}
+	
+	/**
+	 * Action listener to be used with the random date generator button.
+	 * @author Schlewinow
+	 */
+	private class RandomDateActionListener implements ActionListener
+	{
+		/**
+		 * Generate a random date of the current year and update UI.
+		 * Every day of the year has the same chance, the 29th of february only in leap years.
+		 */
+		public void actionPerformed(ActionEvent arg0)
+		{
+			LocalDate today = LocalDate.now();
+			int dayOfYear = RandomDateAndTimePanel.this.rollDie(1, today.lengthOfYear());
+			RandomDateAndTimePanel.this.mCurrentDate = LocalDate.ofYearDay(today.getYear(), dayOfYear);
+			RandomDateAndTimePanel.this.mCurrentTime = -1;
+			
+			RandomDateAndTimePanel.this.updateUI();
+		}
+	}
 }
@@ -4,13 +4,17 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.math.BigDecimal;
 
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
+import javax.swing.JTextField;
 
 import rjs.container.FontContainer;
 import rjs.container.NumberContainer;
 import rjs.frame.IMainFrame;
+import rjs.numbers.KanaToNumberParser;
+import rjs.numbers.NumberToKanaConverter;
 import rjs.panels.AbstractRandomPanel;
 
 public class RandomNumberPanel extends AbstractRandomPanel
@@ -25,6 +29,11 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	 */
 	private JLabel mHiraganaLabel = null;
 	
+	/**
+	 * Show number in kanji numerals.
+	 */
+	private JLabel mKanjiLabel = null;
+	
 	/**
 	 * (De)Activate label to show number.
 	 */
@@ -35,6 +44,21 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	 */
 	private JCheckBox mShowHiraganaBox = null;
 	
+	/**
+	 * (De)Activate label to show kanji numerals. Only visible while the kanji mode is active.
+	 */
+	private JCheckBox mShowKanjiBox = null;
+	
+	/**
+	 * Field to type the number in hiragana or kanji numerals.
+	 */
+	private JTextField mAnswerField = null;
+	
+	/**
+	 * Shows whether the typed answer was correct.
+	 */
+	private JLabel mResultLabel = null;
+	
 	/**
 	 * The current random number.
 	 */
@@ -45,6 +69,16 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	 */
 	private String mHiraganaString = " ";
 	
+	/**
+	 * The current number in kanji numerals, a space while the kanji mode is inactive.
+	 */
+	private String mKanjiString = " ";
+	
+	/**
+	 * The value of the current random number, null if none has been generated yet.
+	 */
+	private BigDecimal mNumberValue = null;
+	
 	/**
 	 * Seperates part before comma from part after comma.
 	 */
@@ -55,6 +89,26 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	 */
 	private final String mMinusString = "-";
 	
+	/**
+	 * Converts the random numbers into hiragana.
+	 */
+	private NumberToKanaConverter mConverter = null;
+	
+	/**
+	 * Reused to build the number and its hiragana.
+	 */
+	private StringBuilder mOutputBuilder = null;
+	
+	/**
+	 * Reused to build the kanji numerals of the number.
+	 */
+	private StringBuilder mKanjiBuilder = null;
+	
+	/**
+	 * Parses typed answers back into numbers.
+	 */
+	private KanaToNumberParser mParser = null;
+	
 	/**
 	 *  Default constructor.
 	 */
@@ -69,6 +123,11 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	{
 		super.initialize(mainFrame);
 		
+		this.mConverter = new NumberToKanaConverter(this.getRandomSource());
+		this.mOutputBuilder = new StringBuilder();
+		this.mKanjiBuilder = new StringBuilder();
+		this.mParser = new KanaToNumberParser();
+		
 		FontContainer fontContainer = (FontContainer)this.getMainFrame().getContainerManager().getContainer(FontContainer.class);
 		
 		this.getSwingPanel().setLayout(new GridBagLayout());
@@ -84,17 +143,44 @@ public class RandomNumberPanel extends AbstractRandomPanel
 		this.setConstraints(constraints, 0, 1, 4, 1);
 		this.mHiraganaLabel = this.createLabel(" ", constraints, fontContainer);
 		
+		// Label to show the generated kanji numerals.
+		this.setConstraints(constraints, 0, 2, 4, 1);
+		this.mKanjiLabel = this.createLabel(" ", constraints, null);
+		this.mKanjiLabel.setFont(fontContainer.getKanjiFont().deriveFont(fontContainer.getKanjiFontSize()));
+		
 		// Button to generate a random number.
-		this.setConstraints(constraints, 0, 2, 3, 2, 3.0, 1.0);
+		this.setConstraints(constraints, 0, 3, 3, 3, 3.0, 1.0);
 		this.createButton("Generate number!", constraints, null, new GenerateNumberListener());
 		
 		// Checkbox to (de)activate the label showing the number.
-		this.setConstraints(constraints, 3, 2, 1, 1, 1.0, 1.0);
+		this.setConstraints(constraints, 3, 3, 1, 1, 1.0, 1.0);
 		this.mShowNumberBox = this.createCheckBox("Show number", constraints, null, new UpdateLabelListener(), true);
 		
 		// Checkbox to (de)activate the label showing the number.
-		this.setConstraints(constraints, 3, 3, 1, 1);
+		this.setConstraints(constraints, 3, 4, 1, 1);
 		this.mShowHiraganaBox = this.createCheckBox("Show hiragana", constraints, null, new UpdateLabelListener(), true);;
+		
+		// Checkbox to (de)activate the label showing the kanji numerals.
+		this.setConstraints(constraints, 3, 5, 1, 1);
+		this.mShowKanjiBox = this.createCheckBox("Show kanji", constraints, null, new UpdateLabelListener(), true);
+		
+		NumberContainer numCon = (NumberContainer)this.getMainFrame().getContainerManager().getContainer(NumberContainer.class);
+		this.mShowKanjiBox.setVisible(numCon.getShowKanji());
+		
+		// Field to type the number as answer, checked by pressing enter or the button.
+		this.mAnswerField = new JTextField();
+		this.mAnswerField.setFont(fontContainer.getKanaFont().deriveFont(fontContainer.getKanaFontSize()));
+		this.mAnswerField.addActionListener(new CheckAnswerListener());
+		this.setConstraints(constraints, 0, 6, 2, 1, 2.0, 1.0);
+		this.getSwingPanel().add(this.mAnswerField, constraints);
+		
+		// Button to check the typed answer.
+		this.setConstraints(constraints, 2, 6, 1, 1, 1.0, 1.0);
+		this.createButton("Check answer", constraints, null, new CheckAnswerListener());
+		
+		// Label to show whether the answer was correct.
+		this.setConstraints(constraints, 3, 6, 1, 1);
+		this.mResultLabel = this.createLabel(" ", constraints, null);
 	}
 	
 	/**
@@ -104,6 +190,7 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	{
 		this.mNumberLabel.setText(this.mShowNumberBox.isSelected() ? this.mNumberString : " ");
 		this.mHiraganaLabel.setText(this.mShowHiraganaBox.isSelected() ? this.mHiraganaString : " ");
+		this.mKanjiLabel.setText(this.mShowKanjiBox.isSelected() ? this.mKanjiString : " ");
 	}
 	
 	/**
@@ -122,178 +209,120 @@ public class RandomNumberPanel extends AbstractRandomPanel
 	}
 	
 	/**
-	 * Used when a new number shall be generated.
+	 * Used when a typed answer shall be checked.
 	 * @author Schlewinow
 	 */
-	private class GenerateNumberListener implements ActionListener
+	private class CheckAnswerListener implements ActionListener
 	{
 		/**
-		 * Button click callback.
+		 * Parse the answer and compare it to the current number, including the digits after the comma.
 		 */
 		public void actionPerformed(ActionEvent arg0)
 		{
-			NumberContainer numCon = (NumberContainer)getMainFrame().getContainerManager().getContainer(NumberContainer.class);
-			String numberString = "0";
-			
-			// Apply digits before comma.
-			if(numCon.getDigitsBeforeComma() != 0)
+			RandomNumberPanel panel = RandomNumberPanel.this;
+			if(panel.mNumberValue == null)
 			{
-				numberString = "" + (int)(Math.pow(10, numCon.getDigitsBeforeComma()) * Math.random());
+				panel.mResultLabel.setText("Generate a number first.");
+				return;
 			}
 			
-			// Apply digits after comma.
-			if(numCon.getDigitsAfterComma() != 0)
+			BigDecimal answer = panel.mParser.parse(panel.mAnswerField.getText());
+			if(answer == null)
 			{
-				numberString += mSeperatorString + (int)(Math.pow(10, numCon.getDigitsAfterComma()) * Math.random());
+				panel.mResultLabel.setText("Not a number.");
 			}
-			
-			// Apply negative numbers.
-			if(numCon.getMinusAllowed())
+			else if(answer.equals(panel.mNumberValue))
 			{
-				numberString = Math.random() > 0.5 ? numberString : (mMinusString + numberString);
+				panel.mResultLabel.setText("Correct!");
+			}
+			else
+			{
+				panel.mResultLabel.setText("Wrong.");
 			}
-			
-			// Update internal variables and output.
-			RandomNumberPanel.this.mNumberString = numberString;
-			RandomNumberPanel.this.mHiraganaString = this.createHiraganaFromNumber(numberString);
-			RandomNumberPanel.this.UpdateLabels();
 		}
-		
+	}
+	
+	/**
+	 * Used when a new number shall be generated.
+	 * @author Schlewinow
+	 */
+	private class GenerateNumberListener implements ActionListener
+	{
 		/**
-		 * Create a hiragana-string from a number-string.
-		 * @param numberString The number to be converted to Hiragana as string.
-		 * @return The given number as string in Hiragana.
+		 * Button click callback.
 		 */
-		private String createHiraganaFromNumber(String numberString)
+		public void actionPerformed(ActionEvent arg0)
 		{
-			String hiraganaString = "";
-			
-			String beforeComma = numberString;
-			if(numberString.contains(mSeperatorString))
-			{
-				beforeComma = numberString.split(mSeperatorString)[0];
-			}
-			
-			// Check for minus.
-			if(beforeComma.startsWith(mMinusString))
-			{
-				hiraganaString = NumberContainer.Minus;
-				beforeComma = beforeComma.substring(mMinusString.length(), beforeComma.length());
-			}
-			
-			// Special case: single zero.
-			if(beforeComma.equals("0"))
-			{
-				hiraganaString = NumberContainer.Zero[RandomNumberPanel.this.rollDie(NumberContainer.Zero.length) - 1];
-				return hiraganaString;
-			}
-			
-			// Handle millions-digit.
-			if(beforeComma.length () == 9)
-			{
-				hiraganaString += this.getNumberAsString(NumberContainer.HundredMilllions, beforeComma, NumberContainer.HundredMilllions[9]);
-				beforeComma = beforeComma.substring(1, beforeComma.length());
-			}
-			
-			// Handle millions-digit.
-			if(beforeComma.length () == 8)
-			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Thousands, beforeComma, "");
-				beforeComma = beforeComma.substring(1, beforeComma.length());
-			}
+			NumberContainer numCon = (NumberContainer)getMainFrame().getContainerManager().getContainer(NumberContainer.class);
+			StringBuilder output = RandomNumberPanel.this.mOutputBuilder;
 			
-			// Handle millions-digit.
-			if(beforeComma.length () == 7)
+			// Apply digits before comma.
+			long beforeComma = 0;
+			if(numCon.getDigitsBeforeComma() != 0)
 			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Hundreds, beforeComma, "");
-				beforeComma = beforeComma.substring(1, beforeComma.length());
+				beforeComma = RandomNumberPanel.this.getRandomSource().nextLong(this.powerOfTen(numCon.getDigitsBeforeComma()));
 			}
 			
-			// Handle hundred-thousands-digit.
-			if(beforeComma.length () == 6)
+			// Apply digits after comma, leading zeros are part of the number.
+			int digitsAfterComma = numCon.getDigitsAfterComma();
+			long afterComma = 0;
+			if(digitsAfterComma != 0)
 			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Tens, beforeComma, "");
-				beforeComma = beforeComma.substring(1, beforeComma.length());
+				afterComma = RandomNumberPanel.this.getRandomSource().nextLong(this.powerOfTen(digitsAfterComma));
 			}
 			
-			// Handle ten-thousands-digit.
-			if(beforeComma.length () == 5)
-			{
-				hiraganaString += this.getNumberAsString(NumberContainer.TenThousands, beforeComma, NumberContainer.TenThousands[9]);
-				beforeComma = beforeComma.substring(1, beforeComma.length());
-			}
+			// Apply negative numbers.
+			boolean negative = numCon.getMinusAllowed() && !RandomNumberPanel.this.getRandomSource().nextBoolean();
 			
-			// Handle thousands-digit.
-			if(beforeComma.length () == 4)
+			// Update internal variables and output.
+			output.setLength(0);
+			if(negative)
 			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Thousands, beforeComma, "");
-				beforeComma = beforeComma.substring(1, beforeComma.length());
+				output.append(mMinusString);
 			}
-			
-			// Handle hundred-digit.
-			if(beforeComma.length () == 3)
+			output.append(beforeComma);
+			if(digitsAfterComma != 0)
 			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Hundreds, beforeComma, "");
-				beforeComma = beforeComma.substring(1, beforeComma.length());
+				output.append(mSeperatorString);
+				for(long power = this.powerOfTen(digitsAfterComma - 1); power > 0; power /= 10)
+				{
+					output.append(afterComma / power % 10);
+				}
 			}
+			RandomNumberPanel.this.mNumberString = output.toString();
 			
-			// Handle ten-digit.
-			if(beforeComma.length() == 2)
-			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Tens, beforeComma, "");
-				beforeComma = beforeComma.substring(1, beforeComma.length());
-			}
+			BigDecimal value = BigDecimal.valueOf(beforeComma).add(BigDecimal.valueOf(afterComma, digitsAfterComma));
+			RandomNumberPanel.this.mNumberValue = negative ? value.negate() : value;
+			RandomNumberPanel.this.mAnswerField.setText("");
+			RandomNumberPanel.this.mResultLabel.setText(" ");
 			
-			// Handle last digit.
-			if(beforeComma.length() == 1)
+			// Hiragana and kanji numerals are created together, the latter only if the kanji mode is active.
+			StringBuilder kanji = numCon.getShowKanji() ? RandomNumberPanel.this.mKanjiBuilder : null;
+			output.setLength(0);
+			if(kanji != null)
 			{
-				hiraganaString += this.getNumberAsString(NumberContainer.Ones, beforeComma, "");
-			}
-			
-			return hiraganaString;
-		}
-		
-		/**
-		 * Transform a numerical digit to a hiragana string.
-		 * @param numberStrings array of string with numbers in hiragana
-		 * @param digitString string of which the leading digit is read
-		 * @param zeroString string wich is returned if the digit is zero (no unique definition possible)
-		 * @return Read digit as hiragana taken from the array of numberStrings.
-		 */
-		private String getNumberAsString(String[] numberStrings, String digitString, String zeroString)
-		{
-			if(!digitString.startsWith("0"))
-			{
-				String firstDigit = digitString.substring(0, 1);
-				int number = Integer.parseInt(firstDigit);
-				return numberStrings[number-1];
-			}
-			else
-			{
-				return zeroString;
+				kanji.setLength(0);
 			}
+			RandomNumberPanel.this.mConverter.appendNumber(negative, beforeComma, afterComma, digitsAfterComma, output, kanji);
+			RandomNumberPanel.this.mHiraganaString = output.toString();
+			RandomNumberPanel.this.mKanjiString = kanji == null ? " " : kanji.toString();
+			RandomNumberPanel.this.mShowKanjiBox.setVisible(kanji != null);
+			RandomNumberPanel.this.UpdateLabels();
 		}
 		
 		/**
-		 * Transform a numerical digit to a hiragana string. Multiple options for a single digit allowed.
-		 * @param numberStrings array of arrays of string with numbers in hiragana
-		 * @param digitString string of which the leading digit is read
-		 * @param zeroString string wich is returned if the digit is zero (no unique definition possible)
-		 * @return Read digit as hiragana taken from the array of numberStrings.
+		 * Calculate a power of ten without floating point rounding.
+		 * @param exponent The exponent, between 0 and 18.
+		 * @return Ten to the power of the exponent.
 		 */
-		private String getNumberAsString(String[][] numberStrings, String digitString, String zeroString)
+		private long powerOfTen(int exponent)
 		{
-			if(!digitString.startsWith("0"))
-			{
-				String firstDigit = digitString.substring(0, 1);				
-				int number = Integer.parseInt(firstDigit);
-				String[] hiraganaNumbers = numberStrings[number-1];
-				return hiraganaNumbers[RandomNumberPanel.this.rollDie(hiraganaNumbers.length) - 1];
-			}
-			else
+			long power = 1;
+			for(int counter = 0; counter < exponent; ++counter)
 			{
-				return zeroString;
+				power *= 10;
 			}
+			return power;
 		}
 	}
 }
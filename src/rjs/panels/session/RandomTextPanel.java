@@ -7,7 +7,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
@@ -49,9 +48,25 @@ public class RandomTextPanel extends AbstractRandomPanel
 	private JRadioButton mKatakataButton = null;
 	
 	/**
-	 * The current random output as list of indices picked from the currently activated letters.
+	 * Maximum number of letters of a random text.
 	 */
-	private ArrayList<Integer> mCurrentRandomOutput = null;
+	private static final int MAXIMUM_LENGTH = 10;
+	
+	/**
+	 * The current random output as indices picked from the currently activated letters.
+	 * Only the first mCurrentRandomLength entries are used.
+	 */
+	private int[] mCurrentRandomOutput = null;
+	
+	/**
+	 * Number of letters of the current random output.
+	 */
+	private int mCurrentRandomLength = 0;
+	
+	/**
+	 * Reused to build the shown text.
+	 */
+	private StringBuilder mOutputBuilder = null;
 	
 	/**
 	 * Letter type currently shown to the user.
@@ -74,7 +89,9 @@ public class RandomTextPanel extends AbstractRandomPanel
 		super.initialize(mainFrame);
 		
 		this.mCurrentLetterType = 0;
-		this.mCurrentRandomOutput = new ArrayList<Integer>();
+		this.mCurrentRandomOutput = new int[MAXIMUM_LENGTH];
+		this.mCurrentRandomLength = 0;
+		this.mOutputBuilder = new StringBuilder();
 		
 		FontContainer fontContainer = (FontContainer)this.getMainFrame().getContainerManager().getContainer(FontContainer.class);
 		
@@ -217,9 +234,9 @@ public class RandomTextPanel extends AbstractRandomPanel
 		{
 			minLength = 1;
 		}
-		if(maxLength > 10)
+		if(maxLength > MAXIMUM_LENGTH)
 		{
-			maxLength = 10;
+			maxLength = MAXIMUM_LENGTH;
 		}
 		if(minLength > maxLength)
 		{
@@ -229,23 +246,13 @@ public class RandomTextPanel extends AbstractRandomPanel
 		}
 		
 		LetterContainer letterContainer = (LetterContainer)this.getMainFrame().getContainerManager().getContainer(LetterContainer.class);
-		ArrayList<String> letters = new ArrayList<String>();
+		int letterCount = letterContainer.getActiveLetterCount();
 		
-		for(int index = 0; index < LetterContainer.latin.length; ++index)
+		// Get random indices of letters by their weights, nothing to pick from if no letters are selected.
+		this.mCurrentRandomLength = letterCount == 0 ? 0 : RandomTextPanel.this.rollDie(minLength, maxLength);
+		for(int i = 0; i < this.mCurrentRandomLength; ++i)
 		{
-			letters.addAll(this.createListFromLetterType(LetterContainer.latin[index], 
-					letterContainer.isUsingLetters(index)));
-		}
-		
-		int randomLength = RandomTextPanel.this.rollDie(minLength, maxLength);
-		
-		this.mCurrentRandomOutput.clear();
-		
-		// Get random indices of letters.
-		for(int i = 0; i < randomLength; ++i)
-		{
-			int randomIndex = RandomTextPanel.this.rollDie(0, letters.size()-1);
-			this.mCurrentRandomOutput.add(randomIndex);
+			this.mCurrentRandomOutput[i] = letterContainer.nextActiveLetter(RandomTextPanel.this.getRandomSource());
 		}
 		
 		this.updateRandomOutput();
@@ -257,66 +264,23 @@ public class RandomTextPanel extends AbstractRandomPanel
 	private void updateRandomOutput()
 	{
 		LetterContainer letterContainer = (LetterContainer)this.getMainFrame().getContainerManager().getContainer(LetterContainer.class);
-		ArrayList<String> letters = new ArrayList<String>();
-		
-		if(this.mCurrentLetterType == 0)
-		{
-			for(int index = 0; index < LetterContainer.latin.length; ++index)
-			{
-				letters.addAll(this.createListFromLetterType(LetterContainer.latin[index], 
-						letterContainer.isUsingLetters(index)));
-			}
-		}
-		if(this.mCurrentLetterType == 1)
-		{
-			for(int index = 0; index < LetterContainer.hiragana.length; ++index)
-			{
-				letters.addAll(this.createListFromLetterType(LetterContainer.hiragana[index], 
-						letterContainer.isUsingLetters(index)));
-			}
-		}
-		if(this.mCurrentLetterType == 2)
-		{
-			for(int index = 0; index < LetterContainer.katakana.length; ++index)
-			{
-				letters.addAll(this.createListFromLetterType(LetterContainer.katakana[index], 
-						letterContainer.isUsingLetters(index)));
-			}
-		}
 		
 		// Create string from random indices in current letter type.
-		String output = "";
-		if(letters.size() == 0)
+		this.mOutputBuilder.setLength(0);
+		if(letterContainer.getActiveLetterCount() == 0)
 		{
-			output = "No letters selected!";
+			this.mOutputBuilder.append("No letters selected!");
 		}
 		else
 		{
-			for(int index = 0; index < this.mCurrentRandomOutput.size(); ++index)
+			for(int index = 0; index < this.mCurrentRandomLength; ++index)
 			{
-				output += letters.get(this.mCurrentRandomOutput.get(index)) + " ";
+				// The letter selection may have changed since the text was created.
+				int letterIndex = this.mCurrentRandomOutput[index] % letterContainer.getActiveLetterCount();
+				this.mOutputBuilder.append(letterContainer.getActiveLetter(this.mCurrentLetterType, letterIndex)).append(' ');
 			}
 		}
 		
-		this.mRandomOutputLabel.setText(output);
-	}
-	
-	/**
-	 * Small helper method to avoid redundant code.
-	 * @param letterType the type of letters to use (part of list of letters in latin, hiragana or katakana).
-	 * @param applied Flag declares whether this type of letter is currently in use or not.
-	 * @return An ArrayList containing the letters currently in use.
-	 */
-	private ArrayList<String> createListFromLetterType(String[] letterType, boolean applied)
-	{
-		ArrayList<String> letters = new ArrayList<String>();
-		if(applied)
-		{
-			for(String letter : letterType)
-			{
-				letters.add(letter);
-			}
-		}
-		return letters;
+		this.mRandomOutputLabel.setText(this.mOutputBuilder.toString());
 	}
 }
@@ -8,13 +8,20 @@ import java.awt.event.ActionListener;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
 
 import rjs.container.FontContainer;
 import rjs.container.OptionsContainer;
 import rjs.container.WordListContainer;
+import rjs.container.interfaces.IWordListChangeListener;
 import rjs.frame.IMainFrame;
 import rjs.panels.AbstractRandomPanel;
+import rjs.random.ShuffleBag;
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListDiff;
 import rjs.wordlist.WordListItem;
+import rjs.wordlist.review.ReviewScheduler;
 
 /**
  * Panel used for random word learning session.
@@ -74,10 +81,36 @@ public class RandomWordPanel extends AbstractRandomPanel
 	private JCheckBox mKanjiBox = null;
 	
 	/**
-	 * Default constructor. Empty.
+	 * Order of the words in shuffled learning, null until the first word is drawn or after the word list changed.
+	 */
+	private ShuffleBag mShuffleBag = null;
+	
+	/**
+	 * Schedule of the words in spaced repetition learning, null in the other modes.
+	 */
+	private ReviewScheduler mScheduler = null;
+	
+	/**
+	 * Word list the shuffle bag and the schedule were made for.
+	 */
+	private WordList mWordList = null;
+	
+	/**
+	 * Whether the schedule has to be rebuilt before it is used next, as the word list was changed or replaced.
+	 */
+	private boolean mScheduleOutdated = false;
+	
+	/**
+	 * Keeps the current word when the word list is changed.
+	 */
+	private WordListChangeListener mChangeListener = null;
+	
+	/**
+	 * Default constructor.
 	 */
 	public RandomWordPanel()
 	{
+		this.mChangeListener = new WordListChangeListener();
 	}
 	
 	/**
@@ -89,6 +122,9 @@ public class RandomWordPanel extends AbstractRandomPanel
 		
 		OptionsContainer optionsContainer = (OptionsContainer)this.getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
 		FontContainer fontContainer = (FontContainer)this.getMainFrame().getContainerManager().getContainer(FontContainer.class);
+		WordListContainer wordListContainer = (WordListContainer)this.getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		wordListContainer.addWordListChangeListener(this.mChangeListener);
+		this.getSwingPanel().addAncestorListener(new PanelLeftListener());
 		
 		this.getSwingPanel().setLayout(new GridBagLayout());
 		GridBagConstraints constraints = new GridBagConstraints();
@@ -114,6 +150,12 @@ public class RandomWordPanel extends AbstractRandomPanel
 		this.setConstraints(constraints, 2, 4, 2, 2, 2.0, 2.0);
 		this.mKanjiLabel = this.createLabel("kanji", constraints, fontContainer);
 		
+		// The order of a previous session may belong to another word list or learning mode.
+		this.mWordList = wordListContainer.getWordList();
+		this.mShuffleBag = null;
+		this.mScheduler = null;
+		this.mScheduleOutdated = false;
+		
 		// Check whether learning is linear or random. Different buttons are needed in each case.
 		if(optionsContainer.getLinearLearning())
 		{
@@ -155,6 +197,23 @@ public class RandomWordPanel extends AbstractRandomPanel
 				}
 			});
 		}
+		else if(optionsContainer.getSpacedLearning())
+		{
+			// One button per grade, grading a word shows the next one due.
+			this.mScheduler = new ReviewScheduler(wordListContainer.getWordList(), wordListContainer.getWordListPath());
+			
+			this.setConstraints(constraints, 0, 6, 1, 3, 1.0, 3.0);
+			this.createButton("again", constraints, null, new GradeListener(ReviewScheduler.GRADE_AGAIN));
+			
+			this.setConstraints(constraints, 1, 6, 1, 3, 1.0, 3.0);
+			this.createButton("hard", constraints, null, new GradeListener(ReviewScheduler.GRADE_HARD));
+			
+			this.setConstraints(constraints, 2, 6, 1, 3, 1.0, 3.0);
+			this.createButton("good", constraints, null, new GradeListener(ReviewScheduler.GRADE_GOOD));
+			
+			this.setConstraints(constraints, 3, 6, 1, 3, 1.0, 3.0);
+			this.createButton("easy", constraints, null, new GradeListener(ReviewScheduler.GRADE_EASY));
+		}
 		else
 		{
 			this.setConstraints(constraints, 0, 6, 4, 3, 4.0, 3.0);
@@ -163,17 +222,7 @@ public class RandomWordPanel extends AbstractRandomPanel
 				public void actionPerformed(ActionEvent arg0)
 				{
 					// Go to random word in the list.
-					WordListContainer wlc = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
-					int max = wlc.getWordList().getWordCount() - 1;
-					int newIndex = mCurrentWordIndex;
-					
-					// Make sure a new word is picked.
-					while(newIndex == mCurrentWordIndex)
-					{
-						newIndex = (int)Math.round((Math.random() * max));
-					}
-					
-					updateShownWord(newIndex);
+					updateShownWord(RandomWordPanel.this.nextRandomWordIndex());
 				}
 			});
 		}
@@ -196,6 +245,41 @@ public class RandomWordPanel extends AbstractRandomPanel
 			// If session is linear, show first word of list at start.
 			this.updateShownWord(this.mCurrentWordIndex);
 		}
+		else if(this.mScheduler != null)
+		{
+			// With spaced repetition, start with the first word due.
+			this.updateShownWord(this.getScheduler().nextCard(System.currentTimeMillis()));
+		}
+	}
+	
+	/**
+	 * Pick the next random word, never the word currently shown unless it is the only one.
+	 * In shuffled learning, every word is picked once before any word is picked again.
+	 * @return The index of the next word, -1 if the word list is empty.
+	 */
+	private int nextRandomWordIndex()
+	{
+		this.updateWordList();
+		WordListContainer wlc = (WordListContainer)this.getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		OptionsContainer optionsContainer = (OptionsContainer)this.getMainFrame().getContainerManager().getContainer(OptionsContainer.class);
+		int wordCount = wlc.getWordList().getWordCount();
+		if(wordCount <= 1)
+		{
+			return wordCount - 1;
+		}
+		
+		if(optionsContainer.getShuffleLearning())
+		{
+			if(this.mShuffleBag == null || this.mShuffleBag.size() != wordCount)
+			{
+				this.mShuffleBag = new ShuffleBag(wordCount);
+			}
+			return this.mShuffleBag.next(this.getRandomSource());
+		}
+		
+		// Leave out the current word by skipping over it.
+		int newIndex = this.rollDie(0, wordCount - 2);
+		return newIndex < this.mCurrentWordIndex ? newIndex : newIndex + 1;
 	}
 	
 	/**
@@ -223,6 +307,15 @@ public class RandomWordPanel extends AbstractRandomPanel
 	private void updateVisibility()
 	{
 		WordListContainer wlc = (WordListContainer)this.getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		if(this.updateWordList())
+		{
+			// Start another word list with its first word, or the first word due.
+			this.mCurrentWordIndex = this.mScheduler != null ? Math.max(this.getScheduler().nextCard(System.currentTimeMillis()), 0) : 0;
+		}
+		if(this.mCurrentWordIndex >= wlc.getWordList().getWordCount())
+		{
+			return;
+		}
 		WordListItem item = wlc.getWordList().getWordAt(this.mCurrentWordIndex);
 		
 		String translation = this.mTranslationBox.isSelected() ? item.getTranslation() : " ";
@@ -241,6 +334,147 @@ public class RandomWordPanel extends AbstractRandomPanel
 		this.mKanjiLabel.setText(kanji);
 	}
 	
+	/**
+	 * Start over with the shuffle bag and the schedule if another word list became active since they were made,
+	 * e.g. once the word list loaded at startup is complete or after another word list was chosen.
+	 * Changes of the active word list itself are followed by the WordListChangeListener.
+	 * @return True if another word list became active.
+	 */
+	private boolean updateWordList()
+	{
+		WordListContainer wlc = (WordListContainer)this.getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+		if(wlc.getWordList() == this.mWordList)
+		{
+			return false;
+		}
+		
+		this.mWordList = wlc.getWordList();
+		this.mShuffleBag = null;
+		this.mScheduleOutdated = this.mScheduler != null;
+		return true;
+	}
+	
+	/**
+	 * Getter schedule of the active word list. Rebuilt here if the word list changed since it was built,
+	 * as building it fingerprints every word and reads the whole review file.
+	 * @return The schedule, null if learning is not spaced.
+	 */
+	private ReviewScheduler getScheduler()
+	{
+		if(this.mScheduleOutdated)
+		{
+			WordListContainer wlc = (WordListContainer)this.getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+			this.mScheduler = new ReviewScheduler(wlc.getWordList(), wlc.getWordListPath());
+			this.mScheduleOutdated = false;
+		}
+		return this.mScheduler;
+	}
+	
+	/**
+	 * Keeps showing the current word when the word list is reloaded after its file was edited.
+	 * @author Schlewinow
+	 */
+	private class WordListChangeListener implements IWordListChangeListener
+	{
+		/**
+		 * Move the current index along with the changes and update the shown word.
+		 */
+		public void wordListChanged(WordListDiff diff)
+		{
+			WordListContainer wlc = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+			int newIndex = diff.mapIndex(RandomWordPanel.this.mCurrentWordIndex, wlc.getWordList().getWordCount());
+			
+			RandomWordPanel.this.mCurrentWordIndex = Math.max(newIndex, 0);
+			
+			// Words were added or removed, start a new round.
+			RandomWordPanel.this.mWordList = wlc.getWordList();
+			RandomWordPanel.this.mShuffleBag = null;
+			
+			// The review state is stored with every grade, so the schedule is restored for the changed list once it is used.
+			RandomWordPanel.this.mScheduleOutdated = RandomWordPanel.this.mScheduler != null;
+			if(newIndex >= 0)
+			{
+				RandomWordPanel.this.updateVisibility();
+			}
+		}
+	}
+	
+	/**
+	 * ActionListener to grade the current word in spaced repetition learning and show the next word due.
+	 * @author Schlewinow
+	 */
+	private class GradeListener implements ActionListener
+	{
+		/**
+		 * Grade given by the button, see ReviewScheduler.
+		 */
+		private int mGrade;
+		
+		/**
+		 * Constructor. Be sure a grade is given.
+		 * @param grade The grade given to the current word when the button is clicked.
+		 */
+		public GradeListener(int grade)
+		{
+			this.mGrade = grade;
+		}
+		
+		/**
+		 * Grade the current word and show the next one.
+		 */
+		public void actionPerformed(ActionEvent arg0)
+		{
+			long now = System.currentTimeMillis();
+			if(RandomWordPanel.this.updateWordList())
+			{
+				// The shown word belongs to the previous word list, so it is not graded.
+				RandomWordPanel.this.updateShownWord(RandomWordPanel.this.getScheduler().nextCard(now));
+				return;
+			}
+			
+			ReviewScheduler scheduler = RandomWordPanel.this.getScheduler();
+			if(RandomWordPanel.this.mCurrentWordIndex >= scheduler.getCardCount())
+			{
+				return;
+			}
+			
+			scheduler.review(RandomWordPanel.this.mCurrentWordIndex, this.mGrade, now);
+			RandomWordPanel.this.updateShownWord(scheduler.nextCard(now));
+		}
+	}
+	
+	/**
+	 * Follows changes of the word list only while the panel is shown.
+	 * @author Schlewinow
+	 */
+	private class PanelLeftListener implements AncestorListener
+	{
+		/**
+		 * Remove the word list change listener when the panel is left.
+		 */
+		public void ancestorRemoved(AncestorEvent event)
+		{
+			WordListContainer wlc = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+			wlc.removeWordListChangeListener(RandomWordPanel.this.mChangeListener);
+		}
+		
+		/**
+		 * Add the word list change listener again when the panel is shown again.
+		 */
+		public void ancestorAdded(AncestorEvent event)
+		{
+			WordListContainer wlc = (WordListContainer)getMainFrame().getContainerManager().getContainer(WordListContainer.class);
+			wlc.addWordListChangeListener(RandomWordPanel.this.mChangeListener);
+		}
+		
+		/**
+		 * Nothing to do.
+		 */
+		public void ancestorMoved(AncestorEvent event)
+		{
+		}
+	}
+	
 	/**
 	 * ActionListener to update the visible elements if a checkbox changes it's value.
 	 * @author Schlewinow
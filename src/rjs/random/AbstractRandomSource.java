@@ -0,0 +1,96 @@
+package rjs.random;
+
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Derives all bounded values from the raw random bits of an implementation.
+ * Bounded ints use the multiply-and-reject method by Lemire: the random 32 bits are multiplied by the bound,
+ * the upper half of the product is the result. Only the few products that would favour some results are rejected,
+ * so most calls need a single multiplication and no division.
+ * @author Schlewinow
+ */
+public abstract class AbstractRandomSource implements IRandomSource
+{
+	/**
+	 * Mask of the lower 32 bits of a long.
+	 */
+	private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+	
+	/**
+	 * Get a uniformly distributed int between zero (inclusive) and bound (exclusive).
+	 */
+	public int nextInt(int bound)
+	{
+		if(bound <= 0)
+		{
+			throw new IllegalArgumentException("Bound must be positive: " + bound);
+		}
+		
+		long product = (this.nextInt() & UNSIGNED_INT_MASK) * bound;
+		if((product & UNSIGNED_INT_MASK) < bound)
+		{
+			// Products below the threshold belong to a range that is hit once more often than the others.
+			long threshold = (1L << 32) % bound;
+			while((product & UNSIGNED_INT_MASK) < threshold)
+			{
+				product = (this.nextInt() & UNSIGNED_INT_MASK) * bound;
+			}
+		}
+		return (int)(product >>> 32);
+	}
+	
+	/**
+	 * Get a uniformly distributed int between min and max, both inclusive.
+	 */
+	public int nextInt(int min, int max)
+	{
+		if(max < min)
+		{
+			throw new IllegalArgumentException("Maximum " + max + " is smaller than minimum " + min);
+		}
+		
+		long range = (long)max - min + 1;
+		if(range <= Integer.MAX_VALUE)
+		{
+			return min + this.nextInt((int)range);
+		}
+		return (int)(min + this.nextLong(range));
+	}
+	
+	/**
+	 * Get a uniformly distributed long between zero (inclusive) and bound (exclusive).
+	 * Values of 63 random bits are rejected if they fall into the incomplete last block of size bound.
+	 */
+	public long nextLong(long bound)
+	{
+		if(bound <= 0)
+		{
+			throw new IllegalArgumentException("Bound must be positive: " + bound);
+		}
+		
+		long bits = this.nextLong() >>> 1;
+		long value = bits % bound;
+		while(bits - value + (bound - 1) < 0)
+		{
+			bits = this.nextLong() >>> 1;
+			value = bits % bound;
+		}
+		return value;
+	}
+	
+	/**
+	 * Get a uniformly distributed double between zero (inclusive) and one (exclusive).
+	 */
+	public double nextDouble()
+	{
+		return (this.nextLong() >>> 11) * 0x1.0p-53;
+	}
+	
+	/**
+	 * Get true or false, each with a chance of one half.
+	 */
+	public boolean nextBoolean()
+	{
+		return this.nextInt() < 0;
+	}
+}
@@ -0,0 +1,136 @@
+package rjs.random;
+
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Draws indices with chances proportional to given weights in constant time, using the alias method by Vose.
+ * The weights are spread over one column per index, each column holding at most two indices:
+ * its own index with a certain chance and an alias index with the rest.
+ * A draw picks a column uniformly and then one of its two indices, regardless of the number of weights.
+ * Building the table takes time proportional to the number of weights.
+ * @author Schlewinow
+ */
+public class AliasTable
+{
+	/**
+	 * Chance per column to keep the index of the column.
+	 */
+	private double[] mProbabilities = null;
+	
+	/**
+	 * Index drawn per column if the index of the column is not kept.
+	 */
+	private int[] mAliases = null;
+	
+	/**
+	 * Build the table for the given weights.
+	 * Negative weights count as zero. If no weight is positive, all indices are drawn with the same chance.
+	 * @param weights Weight per index, at least one.
+	 */
+	public AliasTable(float[] weights)
+	{
+		int count = weights.length;
+		if(count == 0)
+		{
+			throw new IllegalArgumentException("At least one weight is needed.");
+		}
+		
+		double total = 0;
+		for(float weight : weights)
+		{
+			if(weight > 0)
+			{
+				total += weight;
+			}
+		}
+		
+		// Scale the weights so the average column is filled exactly.
+		double[] scaled = new double[count];
+		for(int index = 0; index < count; ++index)
+		{
+			if(total > 0)
+			{
+				scaled[index] = weights[index] > 0 ? weights[index] * count / total : 0;
+			}
+			else
+			{
+				scaled[index] = 1;
+			}
+		}
+		
+		// Indices of columns below and above the average, used as stacks.
+		int[] small = new int[count];
+		int[] large = new int[count];
+		int smallCount = 0;
+		int largeCount = 0;
+		for(int index = 0; index < count; ++index)
+		{
+			if(scaled[index] < 1)
+			{
+				small[smallCount++] = index;
+			}
+			else
+			{
+				large[largeCount++] = index;
+			}
+		}
+		
+		// Fill every small column with the rest of a large one.
+		this.mProbabilities = new double[count];
+		this.mAliases = new int[count];
+		while(smallCount > 0 && largeCount > 0)
+		{
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			this.mProbabilities[less] = scaled[less];
+			this.mAliases[less] = more;
+			
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			if(scaled[more] < 1)
+			{
+				small[smallCount++] = more;
+			}
+			else
+			{
+				large[largeCount++] = more;
+			}
+		}
+		
+		// Remaining columns are full, small ones only due to rounding errors.
+		while(largeCount > 0)
+		{
+			int index = large[--largeCount];
+			this.mProbabilities[index] = 1;
+			this.mAliases[index] = index;
+		}
+		while(smallCount > 0)
+		{
+			int index = small[--smallCount];
+			this.mProbabilities[index] = 1;
+			this.mAliases[index] = index;
+		}
+	}
+	
+	/**
+	 * Getter number of weights.
+	 */
+	public int size()
+	{
+		return this.mProbabilities.length;
+	}
+	
+	/**
+	 * Draw an index with a chance proportional to its weight.
+	 * @param source Source of the random values.
+	 * @return Index between zero (inclusive) and size (exclusive).
+	 */
+	public int next(IRandomSource source)
+	{
+		int column = source.nextInt(this.mProbabilities.length);
+		if(source.nextDouble() < this.mProbabilities[column])
+		{
+			return column;
+		}
+		return this.mAliases[column];
+	}
+}
@@ -0,0 +1,86 @@
+package rjs.random;
+
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Draws the indices from zero to size in random order, every index exactly once per cycle.
+ * The permutation is shuffled lazily by Fisher-Yates: each draw swaps a random index out of the not yet drawn part,
+ * so a draw takes constant time and no index is ever rolled twice.
+ * When a cycle is over, the next one starts with the same array, which is still a permutation.
+ * The first index of a cycle is never the last index of the previous cycle, so no index is shown twice in a row.
+ * @author Schlewinow
+ */
+public class ShuffleBag
+{
+	/**
+	 * Permutation of all indices. The first mRemaining entries have not been drawn in the current cycle.
+	 */
+	private int[] mIndices = null;
+	
+	/**
+	 * Number of indices not yet drawn in the current cycle.
+	 */
+	private int mRemaining = 0;
+	
+	/**
+	 * Create a bag of the indices from zero (inclusive) to size (exclusive).
+	 * @param size Number of indices, at least one.
+	 */
+	public ShuffleBag(int size)
+	{
+		if(size <= 0)
+		{
+			throw new IllegalArgumentException("Size must be positive: " + size);
+		}
+		
+		this.mIndices = new int[size];
+		for(int index = 0; index < size; ++index)
+		{
+			this.mIndices[index] = index;
+		}
+		this.mRemaining = size;
+	}
+	
+	/**
+	 * Getter number of indices in the bag.
+	 */
+	public int size()
+	{
+		return this.mIndices.length;
+	}
+	
+	/**
+	 * Getter number of indices not yet drawn in the current cycle.
+	 */
+	public int getRemaining()
+	{
+		return this.mRemaining;
+	}
+	
+	/**
+	 * Draw the next index.
+	 * @param source Source of the random values.
+	 * @return Index not drawn before in the current cycle.
+	 */
+	public int next(IRandomSource source)
+	{
+		int pick;
+		if(this.mRemaining == 0)
+		{
+			// The last drawn index lies at position zero, leave it out of the first draw of the new cycle.
+			this.mRemaining = this.mIndices.length;
+			pick = this.mRemaining == 1 ? 0 : 1 + source.nextInt(this.mRemaining - 1);
+		}
+		else
+		{
+			pick = source.nextInt(this.mRemaining);
+		}
+		
+		// Move the picked index behind the part not yet drawn.
+		--this.mRemaining;
+		int index = this.mIndices[pick];
+		this.mIndices[pick] = this.mIndices[this.mRemaining];
+		this.mIndices[this.mRemaining] = index;
+		return index;
+	}
+}
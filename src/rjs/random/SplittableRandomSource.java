@@ -0,0 +1,68 @@
+package rjs.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random source based on a SplittableRandom.
+ * Created with a seed, it always produces the same sequence, so a session can be repeated exactly.
+ * Not thread-safe, use split to get an independent source for another thread.
+ * @author Schlewinow
+ */
+public class SplittableRandomSource extends AbstractRandomSource
+{
+	/**
+	 * The generator producing the random bits.
+	 */
+	private SplittableRandom mRandom = null;
+	
+	/**
+	 * Create a source with an unpredictable seed.
+	 */
+	public SplittableRandomSource()
+	{
+		this.mRandom = new SplittableRandom();
+	}
+	
+	/**
+	 * Create a source producing the sequence of the given seed.
+	 * @param seed Seed of the sequence.
+	 */
+	public SplittableRandomSource(long seed)
+	{
+		this.mRandom = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * Create a source using the given generator.
+	 * @param random The generator producing the random bits.
+	 */
+	private SplittableRandomSource(SplittableRandom random)
+	{
+		this.mRandom = random;
+	}
+	
+	/**
+	 * Create a new source whose values are independent of this one. Advances this source.
+	 * @return New source, deterministic if this source is.
+	 */
+	public SplittableRandomSource split()
+	{
+		return new SplittableRandomSource(this.mRandom.split());
+	}
+	
+	/**
+	 * Get a uniformly distributed int using all 32 bits.
+	 */
+	public int nextInt()
+	{
+		return this.mRandom.nextInt();
+	}
+	
+	/**
+	 * Get a uniformly distributed long using all 64 bits.
+	 */
+	public long nextLong()
+	{
+		return this.mRandom.nextLong();
+	}
+}
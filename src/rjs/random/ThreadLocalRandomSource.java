@@ -0,0 +1,27 @@
+package rjs.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Random source based on the ThreadLocalRandom of the calling thread.
+ * Every thread uses its own generator, so there is no contention between threads. Can not be seeded.
+ * @author Schlewinow
+ */
+public class ThreadLocalRandomSource extends AbstractRandomSource
+{
+	/**
+	 * Get a uniformly distributed int using all 32 bits.
+	 */
+	public int nextInt()
+	{
+		return ThreadLocalRandom.current().nextInt();
+	}
+	
+	/**
+	 * Get a uniformly distributed long using all 64 bits.
+	 */
+	public long nextLong()
+	{
+		return ThreadLocalRandom.current().nextLong();
+	}
+}
@@ -0,0 +1,55 @@
+package rjs.random.interfaces;
+
+/**
+ * Source of random numbers used by the random sessions.
+ * Bounded values are exactly uniform, every possible value has the same chance.
+ * @author Schlewinow
+ */
+public interface IRandomSource
+{
+	/**
+	 * Get a uniformly distributed int using all 32 bits.
+	 * @return Random int, any value possible.
+	 */
+	int nextInt();
+	
+	/**
+	 * Get a uniformly distributed int between zero (inclusive) and bound (exclusive).
+	 * @param bound Upper bound, must be positive.
+	 * @return Random int between 0 and bound - 1.
+	 */
+	int nextInt(int bound);
+	
+	/**
+	 * Get a uniformly distributed int between min and max, both inclusive.
+	 * @param min Smallest value to be returned.
+	 * @param max Largest value to be returned, must not be smaller than min.
+	 * @return Random int between min and max.
+	 */
+	int nextInt(int min, int max);
+	
+	/**
+	 * Get a uniformly distributed long using all 64 bits.
+	 * @return Random long, any value possible.
+	 */
+	long nextLong();
+	
+	/**
+	 * Get a uniformly distributed long between zero (inclusive) and bound (exclusive).
+	 * @param bound Upper bound, must be positive.
+	 * @return Random long between 0 and bound - 1.
+	 */
+	long nextLong(long bound);
+	
+	/**
+	 * Get a uniformly distributed double between zero (inclusive) and one (exclusive).
+	 * @return Random double with 53 random bits.
+	 */
+	double nextDouble();
+	
+	/**
+	 * Get true or false, each with a chance of one half.
+	 * @return Random boolean.
+	 */
+	boolean nextBoolean();
+}
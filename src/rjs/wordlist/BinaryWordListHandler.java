@@ -0,0 +1,219 @@
+package rjs.wordlist;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+// Does the file management part of the compiled binary word list format.
+// Layout of a file (big endian):
+//   header:       magic number, format version, word count, string pool size in bytes
+//   offset table: (word count * field count + 1) ints, start of every field within the string pool
+//   string pool:  the UTF-8 encoded fields of all words, one after another
+// The end of a field is the start of the following one, so the table holds one extra entry.
+public class BinaryWordListHandler
+{
+	// File extension used for compiled word lists.
+	public static final String FILE_EXTENSION = ".rjsw";
+	
+	// Magic number at the start of every compiled word list ("RJSW").
+	static final int MAGIC_NUMBER = 0x524A5357;
+	
+	// Version of the binary format. Increase whenever the layout changes.
+	static final int FORMAT_VERSION = 1;
+	
+	// Size of the header in bytes.
+	static final int HEADER_SIZE = 16;
+	
+	// Number of fields stored per word (romaji, hiragana, katakana, kanji, translation).
+	static final int FIELD_COUNT = 5;
+	
+	// Check whether a path points to a compiled word list.
+	public static boolean isBinaryWordList(String filepath)
+	{
+		return filepath.toLowerCase().endsWith(FILE_EXTENSION);
+	}
+	
+	// Open a compiled word list. The file is memory-mapped, words are only decoded when accessed.
+	public static WordList readFromFile(String filepath)
+	{
+		try
+		{
+			RandomAccessFile file = new RandomAccessFile(filepath, "r");
+			try
+			{
+				// The mapping stays valid after the channel is closed.
+				FileChannel channel = file.getChannel();
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				return new MappedWordList(buffer);
+			}
+			finally
+			{
+				file.close();
+			}
+		}
+		catch(FileNotFoundException fnfex)
+		{
+			System.out.println("Former word list not found, reset active word list.");
+			return new WordList();
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			return new WordList();
+		}
+	}
+	
+	// Write a word list into a compiled binary file.
+	// The file is written next to the target first and then moved in its place, never truncated,
+	// so a word list still mapped from the former file keeps its data.
+	// Returns false if the file could not be written.
+	public static boolean writeToFile(WordList wordList, String filepath)
+	{
+		File target = new File(filepath).getAbsoluteFile();
+		File temp = null;
+		try
+		{
+			// First pass: compute the offset of every field inside the string pool.
+			int wordCount = wordList.getWordCount();
+			int[] offsets = new int[wordCount * FIELD_COUNT + 1];
+			long poolSize = 0;
+			for(int index = 0; index < wordCount; ++index)
+			{
+				WordListItem item = wordList.getWordAt(index);
+				for(int field = 0; field < FIELD_COUNT; ++field)
+				{
+					offsets[index * FIELD_COUNT + field] = (int)poolSize;
+					poolSize += BinaryWordListHandler.getEncodedLength(BinaryWordListHandler.getField(item, field));
+				}
+				
+				if(poolSize > Integer.MAX_VALUE)
+				{
+					throw new IllegalArgumentException("Word list too large for the binary format.");
+				}
+			}
+			offsets[offsets.length - 1] = (int)poolSize;
+			
+			// Second pass: write header, offset table and string pool.
+			temp = File.createTempFile(target.getName() + ".", ".tmp", target.getParentFile());
+			FileOutputStream file = new FileOutputStream(temp);
+			try
+			{
+				DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+				output.writeInt(MAGIC_NUMBER);
+				output.writeInt(FORMAT_VERSION);
+				output.writeInt(wordCount);
+				output.writeInt((int)poolSize);
+				
+				for(int offset : offsets)
+				{
+					output.writeInt(offset);
+				}
+				
+				for(int index = 0; index < wordCount; ++index)
+				{
+					WordListItem item = wordList.getWordAt(index);
+					for(int field = 0; field < FIELD_COUNT; ++field)
+					{
+						output.write(BinaryWordListHandler.getField(item, field).getBytes(StandardCharsets.UTF_8));
+					}
+				}
+				output.flush();
+				
+				// Make sure the data is on disk before the file takes the place of the target.
+				file.getChannel().force(true);
+			}
+			finally
+			{
+				file.close();
+			}
+			
+			try
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException amnsex)
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			if(temp != null && temp.exists() && !temp.delete())
+			{
+				System.out.println("Could not delete temporary word list file " + temp.getPath());
+			}
+			return false;
+		}
+	}
+	
+	// Convert a word list in XML-format into the compiled binary format.
+	// Returns false if the XML-file contained no words or the binary file could not be written.
+	public static boolean convertFromXml(String xmlFilepath, String binaryFilepath)
+	{
+		WordList wordList = XmlWordListHandler.readFromFile(xmlFilepath);
+		if(wordList.getWordCount() == 0)
+		{
+			return false;
+		}
+		
+		return BinaryWordListHandler.writeToFile(wordList, binaryFilepath);
+	}
+	
+	// Getter field of a word list item by its index within the binary format.
+	static String getField(WordListItem item, int field)
+	{
+		switch(field)
+		{
+			case 0: return item.getRomajiText();
+			case 1: return item.getHiraganaText();
+			case 2: return item.getKatakanaText();
+			case 3: return item.getKanjiText();
+			default: return item.getTranslation();
+		}
+	}
+	
+	// Number of bytes a string takes when encoded as UTF-8. Avoids creating the byte array.
+	private static int getEncodedLength(String text)
+	{
+		int length = 0;
+		for(int index = 0; index < text.length(); ++index)
+		{
+			char c = text.charAt(index);
+			if(c < 0x80)
+			{
+				length += 1;
+			}
+			else if(c < 0x800)
+			{
+				length += 2;
+			}
+			else if(Character.isHighSurrogate(c) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1)))
+			{
+				// Surrogate pair, encoded as a single four byte sequence.
+				length += 4;
+				++index;
+			}
+			else if(Character.isSurrogate(c))
+			{
+				// Unpaired surrogates are replaced by '?' on encoding.
+				length += 1;
+			}
+			else
+			{
+				length += 3;
+			}
+		}
+		return length;
+	}
+}
@@ -0,0 +1,253 @@
+package rjs.wordlist;
+
+import java.util.Arrays;
+
+// Word list storing its words column by column instead of as separate objects.
+// Every field has a packed column of distinct values, a word only holds one value id per field.
+// Repeated values like the empty sign or short kana are stored only once.
+// Word list items returned by this list are lightweight views on the columns.
+public class ColumnarWordList extends WordList
+{
+	// Number of fields per word (romaji, hiragana, katakana, kanji, translation).
+	private static final int FIELD_COUNT = 5;
+	
+	// Distinct values of every field.
+	private StringColumn[] mColumns = null;
+	
+	// Value ids of every word, one array per field.
+	private int[][] mValueIds = null;
+	
+	// Number of words in the list.
+	private int mWordCount = 0;
+	
+	// Default constructor.
+	public ColumnarWordList()
+	{
+		this.mColumns = new StringColumn[FIELD_COUNT];
+		this.mValueIds = new int[FIELD_COUNT][];
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			this.mColumns[field] = new StringColumn();
+			this.mValueIds[field] = new int[16];
+		}
+	}
+	
+	// Create a columnar copy of another word list.
+	public ColumnarWordList(WordList source)
+	{
+		this();
+		for(int index = 0; index < source.getWordCount(); ++index)
+		{
+			this.addWord(source.getWordAt(index));
+		}
+	}
+	
+	// Add a word to the list. The values of the item are copied into the columns.
+	public void addWord(WordListItem item)
+	{
+		this.ensureCapacity(this.mWordCount + 1);
+		this.copyFields(this.mWordCount++, item);
+	}
+	
+	// Replace the word at the given index. The values of the item are copied into the columns.
+	public void setWordAt(int index, WordListItem item)
+	{
+		this.checkIndex(index);
+		this.copyFields(index, item);
+	}
+	
+	// Insert the words [fromIndex, toIndex) of another list at the given index.
+	// The following words are moved only once, no matter how many words are inserted.
+	public void insertWords(int index, WordList source, int fromIndex, int toIndex)
+	{
+		if(index < 0 || index > this.mWordCount)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.mWordCount);
+		}
+		
+		int count = toIndex - fromIndex;
+		this.ensureCapacity(this.mWordCount + count);
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			System.arraycopy(this.mValueIds[field], index, this.mValueIds[field], index + count, this.mWordCount - index);
+		}
+		this.mWordCount += count;
+		
+		for(int offset = 0; offset < count; ++offset)
+		{
+			this.copyFields(index + offset, source.getWordAt(fromIndex + offset));
+		}
+	}
+	
+	// Remove the words [fromIndex, toIndex) from the list.
+	// Their values stay in the columns, as they may be shared with other words.
+	public void removeWords(int fromIndex, int toIndex)
+	{
+		if(fromIndex < 0 || toIndex > this.mWordCount || fromIndex > toIndex)
+		{
+			throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + this.mWordCount);
+		}
+		
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			System.arraycopy(this.mValueIds[field], toIndex, this.mValueIds[field], fromIndex, this.mWordCount - toIndex);
+		}
+		this.mWordCount -= toIndex - fromIndex;
+	}
+	
+	// Getter word from the list. Returns a view, changes to the item are written into the list.
+	public WordListItem getWordAt(int index)
+	{
+		this.checkIndex(index);
+		return new ItemView(index);
+	}
+	
+	// Getter word count in the list.
+	public int getWordCount()
+	{
+		return this.mWordCount;
+	}
+	
+	// Remove all words from the list.
+	public void clear()
+	{
+		this.mWordCount = 0;
+		for(StringColumn column : this.mColumns)
+		{
+			column.clear();
+		}
+	}
+	
+	// Release unused capacity of the columns once the list is completely loaded.
+	public void trimToSize()
+	{
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			this.mColumns[field].trimToSize();
+			this.mValueIds[field] = Arrays.copyOf(this.mValueIds[field], Math.max(this.mWordCount, 1));
+		}
+	}
+	
+	// Estimated heap size of a single word in bytes, including its share of the distinct values.
+	public double getEstimatedBytesPerWord()
+	{
+		if(this.mWordCount == 0)
+		{
+			return 0.0;
+		}
+		
+		long bytes = 0;
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			bytes += this.mColumns[field].getMemoryUsage() + this.mValueIds[field].length * 4L;
+		}
+		return (double)bytes / this.mWordCount;
+	}
+	
+	// Make sure the value id arrays can hold the given number of words.
+	private void ensureCapacity(int wordCount)
+	{
+		if(wordCount > this.mValueIds[0].length)
+		{
+			int capacity = Math.max(Math.max(16, wordCount), this.mValueIds[0].length * 2);
+			for(int field = 0; field < FIELD_COUNT; ++field)
+			{
+				this.mValueIds[field] = Arrays.copyOf(this.mValueIds[field], capacity);
+			}
+		}
+	}
+	
+	// Throw an IndexOutOfBoundsException if there is no word at the index.
+	private void checkIndex(int index)
+	{
+		if(index < 0 || index >= this.mWordCount)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.mWordCount);
+		}
+	}
+	
+	// Copy all values of an item into the columns at the given index.
+	private void copyFields(int index, WordListItem item)
+	{
+		this.setField(index, 0, item.getRomajiText());
+		this.setField(index, 1, item.getHiraganaText());
+		this.setField(index, 2, item.getKatakanaText());
+		this.setField(index, 3, item.getKanjiText());
+		this.setField(index, 4, item.getTranslation());
+	}
+	
+	// Getter single field value of a word.
+	private String getField(int index, int field)
+	{
+		return this.mColumns[field].getValue(this.mValueIds[field][index]);
+	}
+	
+	// Setter single field value of a word.
+	private void setField(int index, int field, String value)
+	{
+		this.mValueIds[field][index] = this.mColumns[field].intern(value);
+	}
+	
+	// Lightweight word list item reading from and writing into the columns of the list. Holds nothing but its index.
+	private class ItemView extends WordListItem
+	{
+		// Index of the word within the list.
+		private int mIndex = 0;
+		
+		// Create a view of the word at the given index.
+		public ItemView(int index)
+		{
+			this.mIndex = index;
+		}
+		
+		public void setRomajiText(String romaji)
+		{
+			ColumnarWordList.this.setField(this.mIndex, 0, this.doWordEmptyCheck(romaji));
+		}
+		
+		public String getRomajiText()
+		{
+			return ColumnarWordList.this.getField(this.mIndex, 0);
+		}
+		
+		public void setHiraganaText(String hiragana)
+		{
+			ColumnarWordList.this.setField(this.mIndex, 1, this.doWordEmptyCheck(hiragana));
+		}
+		
+		public String getHiraganaText()
+		{
+			return ColumnarWordList.this.getField(this.mIndex, 1);
+		}
+		
+		public void setKatakanaText(String katakana)
+		{
+			ColumnarWordList.this.setField(this.mIndex, 2, this.doWordEmptyCheck(katakana));
+		}
+		
+		public String getKatakanaText()
+		{
+			return ColumnarWordList.this.getField(this.mIndex, 2);
+		}
+		
+		public void setKanjiText(String kanji)
+		{
+			ColumnarWordList.this.setField(this.mIndex, 3, this.doWordEmptyCheck(kanji));
+		}
+		
+		public String getKanjiText()
+		{
+			return ColumnarWordList.this.getField(this.mIndex, 3);
+		}
+		
+		public void setTranslationText(String translation)
+		{
+			ColumnarWordList.this.setField(this.mIndex, 4, this.doWordEmptyCheck(translation));
+		}
+		
+		public String getTranslation()
+		{
+			return ColumnarWordList.this.getField(this.mIndex, 4);
+		}
+	}
+}
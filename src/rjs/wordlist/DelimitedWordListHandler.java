@@ -0,0 +1,621 @@
+package rjs.wordlist;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+// Imports word lists from delimited text files, e.g. spreadsheets saved as CSV or decks exported from Anki as plain text.
+// Every line is a word, every column a field of the word. Fields may be quoted ("a, ""b"" and c"),
+// quoted fields may contain delimiters and line breaks.
+// The file is read through a fixed buffer field by field, only the fields of mapped columns become strings.
+//
+// Which column holds which field is taken from (in this order):
+//   the column mapping passed by the caller or named by the load context (see parseColumns),
+//   an Anki header line "#columns:...",
+//   a first line naming the fields (romaji, hiragana, katakana, kanji, translation in any order),
+//   the default order romaji, hiragana, katakana, kanji, translation.
+// Other Anki header lines ("#separator:", "#html:", "#tags column:", ...) are understood as well.
+public class DelimitedWordListHandler
+{
+	// Fields of a word list item, in the order of the default column mapping.
+	public static final int FIELD_ROMAJI = 0;
+	public static final int FIELD_HIRAGANA = 1;
+	public static final int FIELD_KATAKANA = 2;
+	public static final int FIELD_KANJI = 3;
+	public static final int FIELD_TRANSLATION = 4;
+	public static final int FIELD_COUNT = 5;
+	
+	// Column of a field that is not part of the file.
+	public static final int NO_COLUMN = -1;
+	
+	// File extensions of delimited word lists. Anki exports plain text as .txt, separated by tabs.
+	public static final String CSV_EXTENSION = ".csv";
+	public static final String TSV_EXTENSION = ".tsv";
+	public static final String TEXT_EXTENSION = ".txt";
+	
+	// Names of the fields as used in header lines.
+	private static final String[] FIELD_NAMES = { "romaji", "hiragana", "katakana", "kanji", "translation" };
+	
+	// Start of Anki header lines.
+	private static final char HEADER_START = '#';
+	
+	// Size of the read buffer in chars.
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	// Number of lines read at most to decide whether a text file is a word list.
+	private static final int MAX_PROBED_LINES = 16;
+	
+	// Whether a file is a delimited word list, judged by its extension.
+	public static boolean isDelimitedWordList(String filepath)
+	{
+		String name = filepath.toLowerCase();
+		return name.endsWith(CSV_EXTENSION) || name.endsWith(TSV_EXTENSION) || name.endsWith(TEXT_EXTENSION);
+	}
+	
+	// Whether a file found in a directory is a delimited word list, judged by its extension and for .txt-files by its start.
+	// Plain text files like a README are used for many things, so they only count as word lists if they start
+	// with an Anki header naming the separator or the columns, or if their first line is separated by tabs.
+	public static boolean isDelimitedWordListFile(String filepath)
+	{
+		if(!DelimitedWordListHandler.isDelimitedWordList(filepath))
+		{
+			return false;
+		}
+		if(!filepath.toLowerCase().endsWith(TEXT_EXTENSION))
+		{
+			return true;
+		}
+		
+		try
+		{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), StandardCharsets.UTF_8));
+			try
+			{
+				String line = reader.readLine();
+				if(line != null && !line.isEmpty() && line.charAt(0) == FieldReader.BYTE_ORDER_MARK)
+				{
+					line = line.substring(1);
+				}
+				
+				for(int lineCount = 0; line != null && lineCount < MAX_PROBED_LINES; ++lineCount, line = reader.readLine())
+				{
+					if(line.isEmpty() || line.charAt(0) != HEADER_START)
+					{
+						return line.indexOf('\t') >= 0;
+					}
+					
+					String header = line.toLowerCase();
+					if(header.startsWith("#separator:") || header.startsWith("#columns:"))
+					{
+						return true;
+					}
+				}
+				return false;
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		catch(IOException ioex)
+		{
+			ioex.printStackTrace();
+			return false;
+		}
+	}
+	
+	// Getter default delimiter of a file: comma for CSV-files, tab otherwise.
+	public static char getDefaultDelimiter(String filepath)
+	{
+		return filepath.toLowerCase().endsWith(CSV_EXTENSION) ? ',' : '\t';
+	}
+	
+	// Getter default column mapping: column per field, fields in the order of the FIELD constants.
+	public static int[] getDefaultColumns()
+	{
+		int[] columns = new int[FIELD_COUNT];
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			columns[field] = field;
+		}
+		return columns;
+	}
+	
+	// Read a word list from a delimited text file. Delimiter and columns are detected.
+	public static WordList readFromFile(String filepath)
+	{
+		return DelimitedWordListHandler.readFromFile(filepath, new WordList(), new WordListLoadContext());
+	}
+	
+	// Read a word list from a delimited text file into the given (empty) word list.
+	// The delimiter is detected, the columns as well unless the context names them.
+	public static WordList readFromFile(String filepath, WordList wordList, WordListLoadContext context)
+	{
+		int[] columns = DelimitedWordListHandler.parseColumns(context.getDelimitedColumns());
+		return DelimitedWordListHandler.readFromFile(filepath, wordList, context, DelimitedWordListHandler.getDefaultDelimiter(filepath), columns);
+	}
+	
+	// Column mapping from field names separated by commas, one per column in the order of the columns (e.g. "kanji, -, translation").
+	// Names that are no field (like "-") skip their column. Null if no field is named, so the columns are detected.
+	public static int[] parseColumns(String names)
+	{
+		if(names == null)
+		{
+			return null;
+		}
+		return DelimitedWordListHandler.mapColumns(DelimitedWordListHandler.splitHeader(names, ','));
+	}
+	
+	// Read a word list from a delimited text file into the given (empty) word list.
+	// The column mapping holds the column (starting at 0) of every field or NO_COLUMN, null detects the columns.
+	// An Anki separator header overrides the given delimiter.
+	// Progress is reported to the context. If the context gets cancelled, a CancellationException is thrown.
+	public static WordList readFromFile(String filepath, WordList wordList, WordListLoadContext context, char delimiter, int[] columns)
+	{
+		try
+		{
+			File file = new File(filepath);
+			context.setTotalBytes(file.length());
+			Reader reader = new InputStreamReader(new ProgressInputStream(new FileInputStream(file), context), StandardCharsets.UTF_8);
+			try
+			{
+				DelimitedWordListHandler.readItems(new FieldReader(reader, delimiter), wordList, context, columns);
+				return wordList;
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		catch(FileNotFoundException fnfex)
+		{
+			System.out.println("Former word list not found, reset active word list.");
+			wordList.clear();
+			return wordList;
+		}
+		catch(CancellationException cex)
+		{
+			throw cex;
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			wordList.clear();
+			return wordList;
+		}
+	}
+	
+	// Read all words of a file. The column mapping may be null to detect it.
+	private static void readItems(FieldReader input, WordList wordList, WordListLoadContext context, int[] columns) throws IOException
+	{
+		// Anki header lines, only allowed at the start of the file.
+		boolean html = false;
+		ArrayList<String> headerColumns = null;
+		boolean[] reservedColumns = new boolean[0];
+		StringBuilder field = new StringBuilder(256);
+		
+		while(input.peek() == HEADER_START)
+		{
+			input.readLine(field);
+			int separator = field.indexOf(":");
+			if(separator < 0)
+			{
+				continue;
+			}
+			String key = field.substring(1, separator).trim().toLowerCase();
+			String value = field.substring(separator + 1).trim();
+			
+			if(key.equals("separator"))
+			{
+				input.setDelimiter(DelimitedWordListHandler.parseSeparator(value, input.getDelimiter()));
+			}
+			else if(key.equals("html"))
+			{
+				html = value.equalsIgnoreCase("true");
+			}
+			else if(key.equals("columns"))
+			{
+				headerColumns = DelimitedWordListHandler.splitHeader(value, input.getDelimiter());
+			}
+			else if(key.endsWith(" column"))
+			{
+				// Columns of notetype, deck, tags or guid, counted from 1. Skipped by the default mapping.
+				try
+				{
+					int column = Integer.parseInt(value) - 1;
+					if(column >= 0)
+					{
+						reservedColumns = Arrays.copyOf(reservedColumns, Math.max(reservedColumns.length, column + 1));
+						reservedColumns[column] = true;
+					}
+				}
+				catch(NumberFormatException nfex)
+				{
+					System.out.println("Ignoring invalid word list header line: " + field);
+				}
+			}
+		}
+		
+		// Detect the columns from the first line, which is skipped if it names the fields.
+		boolean firstLineRead = false;
+		ArrayList<String> firstLine = null;
+		if(columns == null && headerColumns == null)
+		{
+			firstLine = new ArrayList<String>();
+			boolean lineEnd = false;
+			while(!lineEnd && !input.isEndOfFile())
+			{
+				lineEnd = input.readField(field);
+				firstLine.add(field.toString());
+			}
+			firstLineRead = true;
+		}
+		
+		int[] fieldColumns = columns;
+		boolean isHeader = false;
+		if(fieldColumns == null)
+		{
+			fieldColumns = DelimitedWordListHandler.mapColumns(headerColumns != null ? headerColumns : firstLine);
+			isHeader = headerColumns == null && fieldColumns != null;
+		}
+		if(fieldColumns == null)
+		{
+			fieldColumns = DelimitedWordListHandler.getDefaultColumns(reservedColumns);
+		}
+		
+		// Invert the mapping to look up the field of a column while reading.
+		int columnCount = 0;
+		for(int column : fieldColumns)
+		{
+			columnCount = Math.max(columnCount, column + 1);
+		}
+		int[] columnFields = new int[columnCount];
+		Arrays.fill(columnFields, NO_COLUMN);
+		for(int fieldIndex = 0; fieldIndex < fieldColumns.length && fieldIndex < FIELD_COUNT; ++fieldIndex)
+		{
+			if(fieldColumns[fieldIndex] >= 0)
+			{
+				columnFields[fieldColumns[fieldIndex]] = fieldIndex;
+			}
+		}
+		
+		String[] values = new String[FIELD_COUNT];
+		if(firstLineRead && !isHeader)
+		{
+			for(int column = 0; column < firstLine.size() && column < columnCount; ++column)
+			{
+				if(columnFields[column] != NO_COLUMN)
+				{
+					values[columnFields[column]] = firstLine.get(column);
+				}
+			}
+			DelimitedWordListHandler.addItem(values, html, wordList, context);
+		}
+		
+		// Remaining lines.
+		while(!input.isEndOfFile())
+		{
+			Arrays.fill(values, null);
+			int column = 0;
+			boolean lineEnd = false;
+			while(!lineEnd)
+			{
+				lineEnd = input.readField(field);
+				if(column < columnCount && columnFields[column] != NO_COLUMN)
+				{
+					values[columnFields[column]] = field.toString();
+				}
+				++column;
+			}
+			DelimitedWordListHandler.addItem(values, html, wordList, context);
+		}
+	}
+	
+	// Add a word made of the given field values. Lines without any value are skipped.
+	private static void addItem(String[] values, boolean html, WordList wordList, WordListLoadContext context)
+	{
+		boolean empty = true;
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			if(values[field] != null)
+			{
+				values[field] = html ? DelimitedWordListHandler.stripHtml(values[field]).trim() : values[field].trim();
+				empty &= values[field].isEmpty();
+			}
+		}
+		if(empty)
+		{
+			return;
+		}
+		
+		WordListItem item = new SimpleWordListItem();
+		item.setRomajiText(values[FIELD_ROMAJI]);
+		item.setHiraganaText(values[FIELD_HIRAGANA]);
+		item.setKatakanaText(values[FIELD_KATAKANA]);
+		item.setKanjiText(values[FIELD_KANJI]);
+		item.setTranslationText(values[FIELD_TRANSLATION]);
+		context.addWord(wordList, item);
+	}
+	
+	// Column mapping from a line of column names, null if the line does not name any field.
+	private static int[] mapColumns(ArrayList<String> names)
+	{
+		if(names == null)
+		{
+			return null;
+		}
+		
+		int[] columns = new int[FIELD_COUNT];
+		Arrays.fill(columns, NO_COLUMN);
+		boolean found = false;
+		for(int column = 0; column < names.size(); ++column)
+		{
+			String name = names.get(column).trim().toLowerCase();
+			for(int field = 0; field < FIELD_COUNT; ++field)
+			{
+				if(name.equals(FIELD_NAMES[field]) && columns[field] == NO_COLUMN)
+				{
+					columns[field] = column;
+					found = true;
+				}
+			}
+		}
+		return found ? columns : null;
+	}
+	
+	// Default column mapping that leaves out reserved columns (e.g. Anki tags).
+	private static int[] getDefaultColumns(boolean[] reservedColumns)
+	{
+		int[] columns = new int[FIELD_COUNT];
+		int column = 0;
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			while(column < reservedColumns.length && reservedColumns[column])
+			{
+				++column;
+			}
+			columns[field] = column++;
+		}
+		return columns;
+	}
+	
+	// Delimiter named by an Anki separator header, the given default if unknown.
+	private static char parseSeparator(String value, char defaultDelimiter)
+	{
+		String name = value.toLowerCase();
+		if(name.equals("tab"))
+		{
+			return '\t';
+		}
+		else if(name.equals("comma"))
+		{
+			return ',';
+		}
+		else if(name.equals("semicolon"))
+		{
+			return ';';
+		}
+		else if(name.equals("space"))
+		{
+			return ' ';
+		}
+		else if(name.equals("pipe"))
+		{
+			return '|';
+		}
+		else if(name.equals("colon"))
+		{
+			return ':';
+		}
+		else if(value.length() == 1)
+		{
+			return value.charAt(0);
+		}
+		
+		System.out.println("Unknown word list separator \"" + value + "\", using default.");
+		return defaultDelimiter;
+	}
+	
+	// Split the value of a header line at the delimiter.
+	private static ArrayList<String> splitHeader(String value, char delimiter)
+	{
+		ArrayList<String> names = new ArrayList<String>();
+		int start = 0;
+		for(int index = 0; index <= value.length(); ++index)
+		{
+			if(index == value.length() || value.charAt(index) == delimiter)
+			{
+				names.add(value.substring(start, index));
+				start = index + 1;
+			}
+		}
+		return names;
+	}
+	
+	// Remove HTML tags and decode the most common entities, for Anki fields exported as HTML.
+	private static String stripHtml(String text)
+	{
+		if(text.indexOf('<') < 0 && text.indexOf('&') < 0)
+		{
+			return text;
+		}
+		
+		String stripped = text.replaceAll("<[^>]*>", "");
+		stripped = stripped.replace("&nbsp;", " ").replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"");
+		return stripped.replace("&amp;", "&");
+	}
+	
+	// Reads the fields of a delimited text through a fixed char buffer.
+	private static class FieldReader
+	{
+		// Byte order mark some editors write at the start of UTF-8 files.
+		private static final char BYTE_ORDER_MARK = '\uFEFF';
+		
+		// Source of the text.
+		private Reader mReader = null;
+		
+		// Read buffer and the range of it that was not consumed yet.
+		private char[] mBuffer = null;
+		private int mPosition = 0;
+		private int mLimit = 0;
+		
+		// Delimiter between fields.
+		private char mDelimiter = ',';
+		
+		// Set once the whole text was read.
+		private boolean mEndOfFile = false;
+		
+		// Read from the given reader.
+		FieldReader(Reader reader, char delimiter) throws IOException
+		{
+			this.mReader = reader;
+			this.mBuffer = new char[BUFFER_SIZE];
+			this.mDelimiter = delimiter;
+			if(this.peek() == BYTE_ORDER_MARK)
+			{
+				++this.mPosition;
+			}
+			this.mEndOfFile = this.peek() < 0;
+		}
+		
+		// Getter delimiter between fields.
+		char getDelimiter()
+		{
+			return this.mDelimiter;
+		}
+		
+		// Setter delimiter between fields.
+		void setDelimiter(char delimiter)
+		{
+			this.mDelimiter = delimiter;
+		}
+		
+		// Whether the whole text was read.
+		boolean isEndOfFile()
+		{
+			return this.mEndOfFile;
+		}
+		
+		// Getter next char without consuming it, -1 at the end of the text.
+		int peek() throws IOException
+		{
+			if(this.mPosition == this.mLimit)
+			{
+				int count = this.mReader.read(this.mBuffer, 0, this.mBuffer.length);
+				while(count == 0)
+				{
+					count = this.mReader.read(this.mBuffer, 0, this.mBuffer.length);
+				}
+				if(count < 0)
+				{
+					return -1;
+				}
+				this.mPosition = 0;
+				this.mLimit = count;
+			}
+			return this.mBuffer[this.mPosition];
+		}
+		
+		// Getter and consume next char, -1 at the end of the text.
+		private int next() throws IOException
+		{
+			int c = this.peek();
+			if(c >= 0)
+			{
+				++this.mPosition;
+			}
+			return c;
+		}
+		
+		// Note whether a line break was the last one of the text.
+		private void endLine() throws IOException
+		{
+			this.mEndOfFile = this.peek() < 0;
+		}
+		
+		// Read a whole line without splitting it into fields.
+		void readLine(StringBuilder line) throws IOException
+		{
+			line.setLength(0);
+			int c = this.next();
+			while(c >= 0 && c != '\n' && c != '\r')
+			{
+				line.append((char)c);
+				c = this.next();
+			}
+			if(c == '\r' && this.peek() == '\n')
+			{
+				++this.mPosition;
+			}
+			this.endLine();
+		}
+		
+		// Read the next field into the builder. Returns whether the field ended the line.
+		// Quotes around a field are removed, doubled quotes inside of it are read as one quote.
+		boolean readField(StringBuilder field) throws IOException
+		{
+			field.setLength(0);
+			boolean quoted = false;
+			boolean inQuotes = false;
+			
+			while(true)
+			{
+				int c = this.next();
+				if(c < 0)
+				{
+					this.mEndOfFile = true;
+					return true;
+				}
+				
+				if(inQuotes)
+				{
+					if(c != '"')
+					{
+						field.append((char)c);
+					}
+					else if(this.peek() == '"')
+					{
+						// Escaped quote.
+						field.append('"');
+						++this.mPosition;
+					}
+					else
+					{
+						inQuotes = false;
+					}
+				}
+				else if(c == this.mDelimiter)
+				{
+					return false;
+				}
+				else if(c == '\n' || c == '\r')
+				{
+					if(c == '\r' && this.peek() == '\n')
+					{
+						++this.mPosition;
+					}
+					this.endLine();
+					return true;
+				}
+				else if(c == '"' && !quoted && field.length() == 0)
+				{
+					quoted = true;
+					inQuotes = true;
+				}
+				else
+				{
+					// Text behind a closing quote is kept as it is.
+					field.append((char)c);
+				}
+			}
+		}
+	}
+}
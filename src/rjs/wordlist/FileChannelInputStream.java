@@ -0,0 +1,67 @@
+package rjs.wordlist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Input stream reading a range of bytes of a file channel, e.g. a single chunk of a word list file.
+// Only positional reads are used, so several streams can read from the same channel at once.
+class FileChannelInputStream extends InputStream
+{
+	// Channel to read from. It is not closed by this stream.
+	private FileChannel mChannel = null;
+	
+	// Position of the next byte to read.
+	private long mPosition = 0;
+	
+	// Position right behind the last byte to read.
+	private long mEnd = 0;
+	
+	// Read the bytes [start, end) of the given channel.
+	FileChannelInputStream(FileChannel channel, long start, long end)
+	{
+		this.mChannel = channel;
+		this.mPosition = start;
+		this.mEnd = end;
+	}
+	
+	public int read() throws IOException
+	{
+		byte[] value = new byte[1];
+		return this.read(value, 0, 1) < 0 ? -1 : value[0] & 0xFF;
+	}
+	
+	public int read(byte[] buffer, int offset, int length) throws IOException
+	{
+		if(length == 0)
+		{
+			return 0;
+		}
+		
+		int count = (int)Math.min(length, this.mEnd - this.mPosition);
+		if(count <= 0)
+		{
+			return -1;
+		}
+		count = this.mChannel.read(ByteBuffer.wrap(buffer, offset, count), this.mPosition);
+		if(count < 0)
+		{
+			return -1;
+		}
+		this.mPosition += count;
+		return count;
+	}
+	
+	public long skip(long count)
+	{
+		long skipped = Math.max(0, Math.min(count, this.mEnd - this.mPosition));
+		this.mPosition += skipped;
+		return skipped;
+	}
+	
+	public int available()
+	{
+		return (int)Math.min(Integer.MAX_VALUE, this.mEnd - this.mPosition);
+	}
+}
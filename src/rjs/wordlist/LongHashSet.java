@@ -0,0 +1,96 @@
+package rjs.wordlist;
+
+// Set of 64-bit values stored in a single array using open addressing with linear probing.
+// Needs 8 to 16 bytes per value instead of an object per value like a HashSet<Long>.
+// Zero marks a free slot, so the value zero itself is tracked by a separate flag.
+class LongHashSet
+{
+	// Maximum share of used slots before the table grows, as fraction of 1024.
+	private static final int MAX_LOAD = 716;
+	
+	// Slots of the table, length is a power of two.
+	private long[] mSlots = null;
+	
+	// Number of values in the table, without zero.
+	private int mSize = 0;
+	
+	// Whether the set contains zero.
+	private boolean mContainsZero = false;
+	
+	// Create an empty set.
+	LongHashSet()
+	{
+		this.clear();
+	}
+	
+	// Add a value. Returns false if the value was already part of the set.
+	boolean add(long value)
+	{
+		if(value == 0)
+		{
+			boolean added = !this.mContainsZero;
+			this.mContainsZero = true;
+			return added;
+		}
+		
+		int mask = this.mSlots.length - 1;
+		int slot = LongHashSet.mix(value) & mask;
+		while(this.mSlots[slot] != 0)
+		{
+			if(this.mSlots[slot] == value)
+			{
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		
+		this.mSlots[slot] = value;
+		++this.mSize;
+		if(this.mSize * 1024L > this.mSlots.length * (long)MAX_LOAD)
+		{
+			this.grow();
+		}
+		return true;
+	}
+	
+	// Getter number of values in the set.
+	int size()
+	{
+		return this.mSize + (this.mContainsZero ? 1 : 0);
+	}
+	
+	// Remove all values and shrink the table.
+	void clear()
+	{
+		this.mSlots = new long[64];
+		this.mSize = 0;
+		this.mContainsZero = false;
+	}
+	
+	// Double the table and insert all values again.
+	private void grow()
+	{
+		long[] previous = this.mSlots;
+		this.mSlots = new long[previous.length * 2];
+		int mask = this.mSlots.length - 1;
+		for(long value : previous)
+		{
+			if(value != 0)
+			{
+				int slot = LongHashSet.mix(value) & mask;
+				while(this.mSlots[slot] != 0)
+				{
+					slot = (slot + 1) & mask;
+				}
+				this.mSlots[slot] = value;
+			}
+		}
+	}
+	
+	// Spread the bits of a value over the lower bits used as slot index.
+	private static int mix(long value)
+	{
+		long mixed = value * 0x9E3779B97F4A7C15L;
+		return (int)(mixed ^ (mixed >>> 32));
+	}
+}
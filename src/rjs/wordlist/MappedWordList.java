@@ -0,0 +1,154 @@
+package rjs.wordlist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Read-only word list backed by a memory-mapped file in the compiled binary format.
+// Nothing but the mapping is kept on the heap, word list items are decoded on access.
+public class MappedWordList extends WordList
+{
+	// The mapped file content.
+	private ByteBuffer mBuffer = null;
+	
+	// Number of words in the mapped file.
+	private int mWordCount = 0;
+	
+	// Position of the first byte of the string pool within the buffer.
+	private int mPoolStart = 0;
+	
+	// Size of the string pool in bytes.
+	private int mPoolSize = 0;
+	
+	// Create a word list view on a mapped file. Checks the header and the offset table of the file,
+	// so a corrupt or truncated file is rejected here instead of failing when its words are read.
+	MappedWordList(ByteBuffer buffer) throws IOException
+	{
+		if(buffer.capacity() < BinaryWordListHandler.HEADER_SIZE 
+				|| buffer.getInt(0) != BinaryWordListHandler.MAGIC_NUMBER
+				|| buffer.getInt(4) != BinaryWordListHandler.FORMAT_VERSION)
+		{
+			throw new IOException("Not a compiled word list or unsupported format version.");
+		}
+		
+		// Sizes are computed in long, a corrupt header must not overflow them.
+		int wordCount = buffer.getInt(8);
+		int poolSize = buffer.getInt(12);
+		long poolStart = BinaryWordListHandler.HEADER_SIZE + ((long)wordCount * BinaryWordListHandler.FIELD_COUNT + 1) * 4;
+		if(wordCount < 0 || poolSize < 0 || poolStart + poolSize > buffer.capacity())
+		{
+			throw new IOException("Compiled word list is corrupt or truncated.");
+		}
+		
+		// Every field ends where the next one starts, so the offsets never decrease and stay within the pool.
+		int previous = 0;
+		for(int position = BinaryWordListHandler.HEADER_SIZE; position < poolStart; position += 4)
+		{
+			int offset = buffer.getInt(position);
+			if(offset < previous || offset > poolSize)
+			{
+				throw new IOException("Compiled word list has an invalid offset table.");
+			}
+			previous = offset;
+		}
+		
+		this.mBuffer = buffer;
+		this.mWordCount = wordCount;
+		this.mPoolStart = (int)poolStart;
+		this.mPoolSize = poolSize;
+	}
+	
+	// Mapped word lists can not be modified.
+	public void addWord(WordListItem item)
+	{
+		throw new UnsupportedOperationException("Memory-mapped word lists are read-only.");
+	}
+	
+	// Mapped word lists can not be modified.
+	public void setWordAt(int index, WordListItem item)
+	{
+		throw new UnsupportedOperationException("Memory-mapped word lists are read-only.");
+	}
+	
+	// Mapped word lists can not be modified.
+	public void insertWords(int index, WordList source, int fromIndex, int toIndex)
+	{
+		throw new UnsupportedOperationException("Memory-mapped word lists are read-only.");
+	}
+	
+	// Mapped word lists can not be modified.
+	public void removeWords(int fromIndex, int toIndex)
+	{
+		throw new UnsupportedOperationException("Memory-mapped word lists are read-only.");
+	}
+	
+	// Mapped word lists can not be modified.
+	public void clear()
+	{
+		throw new UnsupportedOperationException("Memory-mapped word lists are read-only.");
+	}
+	
+	// Mapped word lists can not be modified.
+	public boolean isReadOnly()
+	{
+		return true;
+	}
+	
+	// Size of a single word within the mapping in bytes. The words themselves are not kept on the heap.
+	public double getEstimatedBytesPerWord()
+	{
+		if(this.mWordCount == 0)
+		{
+			return 0.0;
+		}
+		
+		return (double)this.mBuffer.capacity() / this.mWordCount;
+	}
+	
+	// Getter word from the list. Creates a new item from the mapped data on every call.
+	public WordListItem getWordAt(int index)
+	{
+		if(index < 0 || index >= this.mWordCount)
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.mWordCount);
+		}
+		
+		int tablePosition = BinaryWordListHandler.HEADER_SIZE + index * BinaryWordListHandler.FIELD_COUNT * 4;
+		
+		WordListItem item = new SimpleWordListItem();
+		item.setRomajiText(this.readField(tablePosition));
+		item.setHiraganaText(this.readField(tablePosition + 4));
+		item.setKatakanaText(this.readField(tablePosition + 8));
+		item.setKanjiText(this.readField(tablePosition + 12));
+		item.setTranslationText(this.readField(tablePosition + 16));
+		return item;
+	}
+	
+	// Getter word count in the list.
+	public int getWordCount()
+	{
+		return this.mWordCount;
+	}
+	
+	// Decode a single field. The offset table entry at the given position marks its start, the following one its end.
+	// Only absolute reads are used, so the shared buffer may be accessed from several threads.
+	// The offsets are checked again, in case the file was changed on disk after it was mapped.
+	private String readField(int tablePosition)
+	{
+		int startOffset = this.mBuffer.getInt(tablePosition);
+		int endOffset = this.mBuffer.getInt(tablePosition + 4);
+		if(startOffset < 0 || endOffset < startOffset || endOffset > this.mPoolSize)
+		{
+			throw new IllegalStateException("Compiled word list was changed while mapped, invalid field at " + tablePosition);
+		}
+		
+		int start = this.mPoolStart + startOffset;
+		int end = this.mPoolStart + endOffset;
+		byte[] bytes = new byte[end - start];
+		for(int index = 0; index < bytes.length; ++index)
+		{
+			bytes[index] = this.mBuffer.get(start + index);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,439 @@
+package rjs.wordlist;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+// Reads large XML word lists using several threads.
+// Word list items do not depend on each other, so the file is split right before item start tags.
+// Every chunk is wrapped into a root element of its own and parsed by the streaming reader.
+// The chunks are read through positional reads of one file channel, the file is never mapped into memory.
+// The chunks are merged in file order, so the result equals the one of the sequential reader.
+// Files which can not be split safely (document type declarations, comments or CDATA sections
+// between the items) are left to the sequential reader.
+class ParallelXmlWordListHandler
+{
+	// Files smaller than this are read sequentially, splitting them does not pay off.
+	static final long MIN_FILE_SIZE = 8L << 20;
+	
+	// Chunks are not made smaller than this.
+	private static final int MIN_CHUNK_SIZE = 1 << 20;
+	
+	// Number of chunks per thread. More chunks than threads even out chunks that parse slower than others.
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	// Size of the buffer used to search the file for split positions.
+	private static final int SCAN_BUFFER_SIZE = 1 << 16;
+	
+	// Name of the item tag as bytes, with and without the slash of an end tag.
+	// Valid for UTF-8 and every other ASCII compatible encoding.
+	private static final byte[] ITEM_START = "item".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] ITEM_END = "/item".getBytes(StandardCharsets.US_ASCII);
+	
+	// States of the search for split positions.
+	private static final int SCAN_TEXT = 0;
+	private static final int SCAN_TAG_NAME = 1;
+	private static final int SCAN_ITEM_START_TAG = 2;
+	private static final int SCAN_ITEM_END_TAG = 3;
+	private static final int SCAN_MARKUP_DECLARATION = 4;
+	private static final int SCAN_COMMENT = 5;
+	
+	// Root element wrapped around every chunk.
+	private static final String CHUNK_ROOT_START = "<wordlist>";
+	private static final byte[] CHUNK_ROOT_END = "</wordlist>".getBytes(StandardCharsets.US_ASCII);
+	
+	// Check whether a file is large enough and enough processors are available to read it in parallel.
+	// Compressed files can only be read from the start, so they are never split.
+	static boolean isWorthwhile(String filepath)
+	{
+		if(XmlWordListHandler.isCompressedXml(filepath))
+		{
+			return false;
+		}
+		
+		return Runtime.getRuntime().availableProcessors() > 1 && new File(filepath).length() >= MIN_FILE_SIZE;
+	}
+	
+	// Read a word list from an XML-file into the given (empty) word list.
+	// Returns false if the file can not be read in parallel. The word list may contain some items in this case,
+	// but all chunk parsers have stopped and report no more progress.
+	static boolean readFromFile(String filepath, WordList wordList, WordListLoadContext context) throws Exception
+	{
+		RandomAccessFile file = new RandomAccessFile(filepath, "r");
+		try
+		{
+			FileChannel channel = file.getChannel();
+			context.setTotalBytes(channel.size());
+			
+			int threadCount = Runtime.getRuntime().availableProcessors();
+			long[] bounds = ParallelXmlWordListHandler.findChunkBounds(channel, threadCount * CHUNKS_PER_THREAD);
+			if(bounds == null)
+			{
+				return false;
+			}
+			byte[] chunkStart = ParallelXmlWordListHandler.createChunkStart(channel, bounds[0]);
+			return ParallelXmlWordListHandler.readChunks(channel, bounds, chunkStart, threadCount, wordList, context);
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+	
+	// Parse the chunks between the given bounds in parallel and merge them into the word list.
+	// Returns false if a chunk is no valid XML.
+	private static boolean readChunks(FileChannel channel, long[] bounds, byte[] chunkStart, int threadCount,
+			WordList wordList, WordListLoadContext context) throws Exception
+	{
+		// All chunks report to a context of their own, so they can be stopped together without cancelling the whole load.
+		WordListLoadContext chunksContext = new WordListLoadContext(context);
+		List<Future<WordList>> chunks = new ArrayList<Future<WordList>>();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, bounds.length - 1));
+		try
+		{
+			for(int index = 0; index + 1 < bounds.length; ++index)
+			{
+				InputStream chunk = new FileChannelInputStream(channel, bounds[index], bounds[index + 1]);
+				chunks.add(executor.submit(new ChunkParser(chunk, chunkStart, new WordListLoadContext(chunksContext))));
+			}
+			
+			// Merge in file order. Later chunks keep being parsed meanwhile.
+			for(Future<WordList> chunk : chunks)
+			{
+				WordList chunkWords = chunk.get();
+				for(int index = 0; index < chunkWords.getWordCount(); ++index)
+				{
+					context.addWord(wordList, chunkWords.getWordAt(index));
+				}
+			}
+			return true;
+		}
+		catch(ExecutionException eex)
+		{
+			Throwable cause = eex.getCause();
+			if(cause instanceof XMLStreamException)
+			{
+				System.out.println("Parallel word list reader failed, falling back to sequential reader.");
+				return false;
+			}
+			else if(cause instanceof CancellationException)
+			{
+				throw (CancellationException)cause;
+			}
+			else if(cause instanceof Exception)
+			{
+				throw (Exception)cause;
+			}
+			throw eex;
+		}
+		catch(InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Word list loading interrupted.");
+		}
+		finally
+		{
+			// Stop the chunks still being parsed and wait for them, so none of them adds to the progress
+			// of the sequential reader taking over or reads from the channel after it was closed.
+			chunksContext.cancel();
+			for(Future<WordList> chunk : chunks)
+			{
+				chunk.cancel(true);
+			}
+			executor.shutdownNow();
+			ParallelXmlWordListHandler.awaitTermination(executor);
+		}
+	}
+	
+	// Wait until all threads of the executor have stopped.
+	private static void awaitTermination(ExecutorService executor)
+	{
+		try
+		{
+			while(!executor.awaitTermination(1, TimeUnit.SECONDS))
+			{
+				// Chunk parsers notice the cancellation with the next item or read.
+			}
+		}
+		catch(InterruptedException iex)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	// Find the positions to split the file at, reading it once from start to end.
+	// The first bound is the start of the first item, the last bound the end of the last item
+	// (its end tag or its start tag if it is empty), all others are starts of items.
+	// Returns null if the file can not be split safely.
+	private static long[] findChunkBounds(FileChannel channel, int maxChunkCount) throws IOException
+	{
+		long length = channel.size();
+		long[] bounds = null;
+		int boundCount = 0;
+		long[] targets = null;
+		int nextTarget = 0;
+		
+		long itemsEnd = -1;
+		long lastDeclaration = -1;
+		
+		int state = SCAN_TEXT;
+		long tagStart = 0;
+		byte[] tagName = null;
+		int tagNameLength = 0;
+		byte quote = 0;
+		byte previous = 0;
+		int dashes = 0;
+		
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long bufferStart = 0;
+		while(bufferStart < length)
+		{
+			buffer.clear();
+			int count = channel.read(buffer, bufferStart);
+			if(count < 0)
+			{
+				break;
+			}
+			
+			for(int index = 0; index < count; ++index)
+			{
+				byte value = buffer.get(index);
+				long position = bufferStart + index;
+				switch(state)
+				{
+				case SCAN_TEXT:
+					if(value == '<')
+					{
+						state = SCAN_TAG_NAME;
+						tagStart = position;
+						tagName = null;
+						tagNameLength = 0;
+					}
+					break;
+					
+				case SCAN_TAG_NAME:
+					if(tagName == null)
+					{
+						// The first byte tells which kind of markup follows.
+						if(value == '!')
+						{
+							state = SCAN_MARKUP_DECLARATION;
+							dashes = 0;
+							break;
+						}
+						tagName = value == '/' ? ITEM_END : ITEM_START;
+					}
+					
+					if(tagNameLength < tagName.length)
+					{
+						// Any other tag is skipped, '<' can not occur in its attribute values.
+						state = value == tagName[tagNameLength++] ? SCAN_TAG_NAME : SCAN_TEXT;
+					}
+					else if(value == '>' || value == '/' || value == ' ' || value == '\t' || value == '\r' || value == '\n')
+					{
+						// Skip tags only starting with the same name, e.g. "<items>".
+						if(tagName == ITEM_END)
+						{
+							state = SCAN_ITEM_END_TAG;
+						}
+						else
+						{
+							if(bounds == null)
+							{
+								// First item: the size of the chunks is known now.
+								int chunkCount = (int)Math.max(1, Math.min(maxChunkCount, (length - tagStart) / MIN_CHUNK_SIZE));
+								bounds = new long[chunkCount + 1];
+								bounds[boundCount++] = tagStart;
+								targets = new long[chunkCount - 1];
+								for(int chunk = 1; chunk < chunkCount; ++chunk)
+								{
+									targets[chunk - 1] = tagStart + (length - tagStart) * chunk / chunkCount;
+								}
+							}
+							else if(nextTarget < targets.length && tagStart >= targets[nextTarget])
+							{
+								// First item at or behind the next split position.
+								bounds[boundCount++] = tagStart;
+								while(nextTarget < targets.length && tagStart >= targets[nextTarget])
+								{
+									++nextTarget;
+								}
+							}
+							state = SCAN_ITEM_START_TAG;
+							quote = 0;
+						}
+						previous = value;
+						
+						if(value == '>')
+						{
+							state = SCAN_TEXT;
+							if(tagName == ITEM_END)
+							{
+								itemsEnd = position + 1;
+							}
+						}
+					}
+					else
+					{
+						state = SCAN_TEXT;
+					}
+					break;
+					
+				case SCAN_ITEM_START_TAG:
+					// Attribute values may contain '>' and '/', so quotes are followed.
+					if(quote != 0)
+					{
+						quote = value == quote ? 0 : quote;
+					}
+					else if(value == '"' || value == '\'')
+					{
+						quote = value;
+					}
+					else if(value == '>')
+					{
+						state = SCAN_TEXT;
+						if(previous == '/')
+						{
+							// An empty item is an item as well, e.g. "<item/>".
+							itemsEnd = position + 1;
+						}
+					}
+					previous = value;
+					break;
+					
+				case SCAN_ITEM_END_TAG:
+					if(value == '>')
+					{
+						state = SCAN_TEXT;
+						itemsEnd = position + 1;
+					}
+					break;
+					
+				case SCAN_MARKUP_DECLARATION:
+					// "<!--" starts a comment, anything else is a document type declaration or a CDATA section.
+					// Comments are skipped, so item tags inside of them are not mistaken for split positions.
+					// None of them may be part of a chunk, which is checked once the end of the items is known.
+					lastDeclaration = tagStart;
+					if(value != '-')
+					{
+						if(bounds == null)
+						{
+							// Document type declarations declare entities, which might be used in any chunk.
+							return null;
+						}
+						state = SCAN_TEXT;
+					}
+					else if(++dashes == 2)
+					{
+						state = SCAN_COMMENT;
+						dashes = 0;
+					}
+					break;
+					
+				case SCAN_COMMENT:
+					if(value == '>' && dashes >= 2)
+					{
+						state = SCAN_TEXT;
+					}
+					dashes = value == '-' ? dashes + 1 : 0;
+					break;
+					
+				default:
+					break;
+				}
+			}
+			bufferStart += count;
+		}
+		
+		if(bounds == null || itemsEnd <= bounds[0])
+		{
+			return null;
+		}
+		
+		// Comments and CDATA sections between the items can not be split safely.
+		if(lastDeclaration > bounds[0] && lastDeclaration < itemsEnd)
+		{
+			return null;
+		}
+		
+		while(boundCount > 1 && bounds[boundCount - 1] >= itemsEnd)
+		{
+			--boundCount;
+		}
+		bounds[boundCount++] = itemsEnd;
+		return Arrays.copyOf(bounds, boundCount);
+	}
+	
+	// Create the bytes every chunk starts with: the XML declaration of the file (if any) and the chunk root element.
+	// Keeping the declaration makes every chunk use the encoding of the file.
+	private static byte[] createChunkStart(FileChannel channel, long firstItem) throws IOException
+	{
+		ByteBuffer prolog = ByteBuffer.allocate((int)Math.min(firstItem, Integer.MAX_VALUE));
+		while(prolog.hasRemaining() && channel.read(prolog, prolog.position()) >= 0)
+		{
+			// Positional reads may return less than requested.
+		}
+		String text = new String(prolog.array(), 0, prolog.position(), StandardCharsets.ISO_8859_1);
+		
+		String declaration = "";
+		int declarationStart = text.indexOf("<?xml");
+		int declarationEnd = text.indexOf("?>");
+		if(declarationStart >= 0 && declarationStart <= 3 && declarationEnd > declarationStart)
+		{
+			declaration = text.substring(declarationStart, declarationEnd + 2);
+		}
+		return (declaration + CHUNK_ROOT_START).getBytes(StandardCharsets.ISO_8859_1);
+	}
+	
+	// Parses a single chunk of a word list file into a word list of its own.
+	private static class ChunkParser implements Callable<WordList>
+	{
+		// Bytes of the chunk.
+		private InputStream mChunk = null;
+		
+		// Bytes put in front of the chunk to make it a complete document.
+		private byte[] mChunkStart = null;
+		
+		// Progress and cancellation state of this chunk.
+		private WordListLoadContext mContext = null;
+		
+		// Constructor.
+		public ChunkParser(InputStream chunk, byte[] chunkStart, WordListLoadContext context)
+		{
+			this.mChunk = chunk;
+			this.mChunkStart = chunkStart;
+			this.mContext = context;
+		}
+		
+		public WordList call() throws Exception
+		{
+			List<InputStream> parts = new ArrayList<InputStream>();
+			parts.add(new ByteArrayInputStream(this.mChunkStart));
+			parts.add(new ProgressInputStream(this.mChunk, this.mContext));
+			parts.add(new ByteArrayInputStream(CHUNK_ROOT_END));
+			
+			WordList words = new WordList();
+			XmlWordListHandler.readItems(new SequenceInputStream(Collections.enumeration(parts)), words, this.mContext);
+			return words;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package rjs.wordlist;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Input stream reporting the number of bytes read to a load context.
+class ProgressInputStream extends FilterInputStream
+{
+	// Context to report read bytes to.
+	private WordListLoadContext mContext = null;
+	
+	// Wrap a stream, bytes read from it are counted in the given context.
+	ProgressInputStream(InputStream input, WordListLoadContext context)
+	{
+		super(input);
+		this.mContext = context;
+	}
+	
+	public int read() throws IOException
+	{
+		int value = super.read();
+		if(value >= 0)
+		{
+			this.mContext.addBytesRead(1);
+		}
+		return value;
+	}
+	
+	public int read(byte[] buffer, int offset, int length) throws IOException
+	{
+		int count = super.read(buffer, offset, length);
+		if(count > 0)
+		{
+			this.mContext.addBytesRead(count);
+		}
+		return count;
+	}
+	
+	public long skip(long count) throws IOException
+	{
+		long skipped = super.skip(count);
+		this.mContext.addBytesRead(skipped);
+		return skipped;
+	}
+}
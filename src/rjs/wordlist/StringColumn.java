@@ -0,0 +1,172 @@
+package rjs.wordlist;
+
+import java.util.Arrays;
+
+// Packed storage of the values of a single word list field.
+// Every distinct value is stored only once in a shared char buffer and referenced by its id.
+// Values are interned through an open addressing hash table over the char buffer, so no String objects are kept.
+class StringColumn
+{
+	// Characters of all distinct values, one after another.
+	private char[] mChars = null;
+	
+	// Number of characters used in the char buffer.
+	private int mCharCount = 0;
+	
+	// Start of every value in the char buffer. The end of a value is the start of the next one.
+	private int[] mValueStarts = null;
+	
+	// Number of distinct values.
+	private int mValueCount = 0;
+	
+	// Hash table of value ids (id + 1, 0 marks an empty slot). The size is always a power of two.
+	private int[] mHashTable = null;
+	
+	// Create an empty column.
+	StringColumn()
+	{
+		this.mChars = new char[256];
+		this.mValueStarts = new int[65];
+		this.mHashTable = new int[128];
+	}
+	
+	// Store a value (if not already present) and return its id.
+	int intern(String value)
+	{
+		int hash = StringColumn.mix(value.hashCode());
+		int mask = this.mHashTable.length - 1;
+		
+		for(int slot = hash & mask; ; slot = (slot + 1) & mask)
+		{
+			int entry = this.mHashTable[slot];
+			if(entry == 0)
+			{
+				int id = this.appendValue(value);
+				this.mHashTable[slot] = id + 1;
+				
+				// Keep the load factor at or below one half.
+				if(this.mValueCount * 2 > this.mHashTable.length)
+				{
+					this.rehash();
+				}
+				return id;
+			}
+			
+			if(this.valueEquals(entry - 1, value))
+			{
+				return entry - 1;
+			}
+		}
+	}
+	
+	// Getter value by id. The shared empty sign is returned without creating a new string.
+	String getValue(int id)
+	{
+		int start = this.mValueStarts[id];
+		int length = this.mValueStarts[id + 1] - start;
+		
+		if(length == 1 && this.mChars[start] == WordListItem.emptySign.charAt(0))
+		{
+			return WordListItem.emptySign;
+		}
+		return new String(this.mChars, start, length);
+	}
+	
+	// Remove all values.
+	void clear()
+	{
+		this.mCharCount = 0;
+		this.mValueCount = 0;
+		Arrays.fill(this.mHashTable, 0);
+	}
+	
+	// Release unused capacity of the char buffer and the value table.
+	void trimToSize()
+	{
+		this.mChars = Arrays.copyOf(this.mChars, Math.max(this.mCharCount, 1));
+		this.mValueStarts = Arrays.copyOf(this.mValueStarts, this.mValueCount + 1);
+	}
+	
+	// Number of bytes used by the arrays of this column (array headers ignored).
+	long getMemoryUsage()
+	{
+		return this.mChars.length * 2L + this.mValueStarts.length * 4L + this.mHashTable.length * 4L;
+	}
+	
+	// Add a new value to the char buffer.
+	private int appendValue(String value)
+	{
+		if(this.mCharCount + value.length() > this.mChars.length)
+		{
+			this.mChars = Arrays.copyOf(this.mChars, Math.max(this.mChars.length * 2, this.mCharCount + value.length()));
+		}
+		if(this.mValueCount + 2 > this.mValueStarts.length)
+		{
+			this.mValueStarts = Arrays.copyOf(this.mValueStarts, this.mValueStarts.length * 2);
+		}
+		
+		value.getChars(0, value.length(), this.mChars, this.mCharCount);
+		this.mValueStarts[this.mValueCount] = this.mCharCount;
+		this.mCharCount += value.length();
+		this.mValueStarts[this.mValueCount + 1] = this.mCharCount;
+		
+		return this.mValueCount++;
+	}
+	
+	// Compare a stored value with a string without creating a new string.
+	private boolean valueEquals(int id, String value)
+	{
+		int start = this.mValueStarts[id];
+		int length = this.mValueStarts[id + 1] - start;
+		if(length != value.length())
+		{
+			return false;
+		}
+		
+		for(int index = 0; index < length; ++index)
+		{
+			if(this.mChars[start + index] != value.charAt(index))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	// Double the size of the hash table and re-insert all value ids.
+	private void rehash()
+	{
+		int[] table = new int[this.mHashTable.length * 2];
+		int mask = table.length - 1;
+		
+		for(int id = 0; id < this.mValueCount; ++id)
+		{
+			int slot = StringColumn.mix(this.hashOf(id)) & mask;
+			while(table[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+		
+		this.mHashTable = table;
+	}
+	
+	// Same hash as String.hashCode() of the stored value.
+	private int hashOf(int id)
+	{
+		int hash = 0;
+		for(int index = this.mValueStarts[id]; index < this.mValueStarts[id + 1]; ++index)
+		{
+			hash = 31 * hash + this.mChars[index];
+		}
+		return hash;
+	}
+	
+	// Spread the bits of a hash code, String hashes of short kana differ mostly in the low bits.
+	private static int mix(int hash)
+	{
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -32,4 +32,86 @@ public class WordList
 	{
 		return this.mWordListItems.size();
 	}
+	
+	// Replace the word at the given index.
+	public void setWordAt(int index, WordListItem item)
+	{
+		this.mWordListItems.set(index, item);
+	}
+	
+	// Insert the words [fromIndex, toIndex) of another list at the given index.
+	public void insertWords(int index, WordList source, int fromIndex, int toIndex)
+	{
+		ArrayList<WordListItem> items = new ArrayList<WordListItem>(toIndex - fromIndex);
+		for(int sourceIndex = fromIndex; sourceIndex < toIndex; ++sourceIndex)
+		{
+			items.add(source.getWordAt(sourceIndex));
+		}
+		this.mWordListItems.addAll(index, items);
+	}
+	
+	// Remove the words [fromIndex, toIndex) from the list.
+	public void removeWords(int fromIndex, int toIndex)
+	{
+		this.mWordListItems.subList(fromIndex, toIndex).clear();
+	}
+	
+	// Remove all words from the list.
+	public void clear()
+	{
+		this.mWordListItems.clear();
+	}
+	
+	// Whether the words of this list may be changed or not.
+	public boolean isReadOnly()
+	{
+		return false;
+	}
+	
+	// Release unused capacity once the list is completely loaded.
+	public void trimToSize()
+	{
+		this.mWordListItems.trimToSize();
+	}
+	
+	// Estimated heap size of a single word in bytes.
+	// Assumes a 64 bit VM with compressed references and compact strings.
+	public double getEstimatedBytesPerWord()
+	{
+		if(this.mWordListItems.isEmpty())
+		{
+			return 0.0;
+		}
+		
+		// List slot plus item object (SimpleWordListItem: header and five references).
+		long bytes = this.mWordListItems.size() * (4L + 32L);
+		for(WordListItem item : this.mWordListItems)
+		{
+			bytes += WordList.estimateStringSize(item.getRomajiText());
+			bytes += WordList.estimateStringSize(item.getHiraganaText());
+			bytes += WordList.estimateStringSize(item.getKatakanaText());
+			bytes += WordList.estimateStringSize(item.getKanjiText());
+			bytes += WordList.estimateStringSize(item.getTranslation());
+		}
+		return (double)bytes / this.mWordListItems.size();
+	}
+	
+	// Estimated heap size of a string owned by a word (string object and its byte array).
+	// The shared empty sign does not count.
+	private static long estimateStringSize(String text)
+	{
+		if(text == WordListItem.emptySign)
+		{
+			return 0;
+		}
+		
+		boolean latin1 = true;
+		for(int index = 0; index < text.length() && latin1; ++index)
+		{
+			latin1 = text.charAt(index) < 0x100;
+		}
+		
+		long arraySize = 16 + (latin1 ? text.length() : text.length() * 2L);
+		return 24 + ((arraySize + 7) / 8) * 8;
+	}
 }
@@ -0,0 +1,236 @@
+package rjs.wordlist;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+// On-disk cache of parsed word lists.
+// A parsed word list is stored in the compiled binary format, so the next start only has to map it.
+// Every entry is keyed by path, size, modification time and a content hash of the source file,
+// as well as the deduplication key and the column names of delimited text files the word list was parsed with.
+// An entry consists of two files: the compiled word list and a key file describing the source.
+// Every store writes the compiled word list under a new, versioned name and then replaces the key file atomically.
+// A cached word list may still be mapped as active word list, so its file is never overwritten or truncated;
+// outdated versions are deleted once they are replaced, which fails harmlessly on systems locking mapped files.
+public class WordListCache
+{
+	// Directory containing the cache entries.
+	private static final String CACHE_DIRECTORY = "cache";
+	
+	// File extension of the key files.
+	private static final String KEY_EXTENSION = ".key";
+	
+	// Keys used within a key file.
+	private static final String KEY_PATH = "path";
+	private static final String KEY_SIZE = "size";
+	private static final String KEY_MODIFIED = "modified";
+	private static final String KEY_HASH = "hash";
+	private static final String KEY_DATA = "data";
+	private static final String KEY_DEDUPLICATION = "deduplication";
+	private static final String KEY_DUPLICATES_DROPPED = "duplicates_dropped";
+	private static final String KEY_COLUMNS = "columns";
+	
+	// Load the cached version of a word list parsed without deduplication.
+	// Returns null if there is no entry or the source file changed since the entry was written.
+	public static WordList load(String filepath)
+	{
+		return WordListCache.load(filepath, new WordListLoadContext());
+	}
+	
+	// Load the cached version of a word list parsed with the deduplication key of the context.
+	// The number of duplicates dropped when the entry was written is reported to the context.
+	// Returns null if there is no entry, the source file changed or it was parsed with another deduplication key or column names.
+	public static WordList load(String filepath, WordListLoadContext context)
+	{
+		try
+		{
+			File source = new File(filepath).getAbsoluteFile();
+			File keyFile = WordListCache.getEntryFile(source, KEY_EXTENSION);
+			if(!source.isFile() || !keyFile.isFile())
+			{
+				return null;
+			}
+			
+			Properties key = new Properties();
+			InputStream input = new FileInputStream(keyFile);
+			try
+			{
+				key.load(input);
+			}
+			finally
+			{
+				input.close();
+			}
+			
+			// The key names the current version of the compiled word list.
+			String dataName = key.getProperty(KEY_DATA);
+			File dataFile = dataName == null ? null : new File(CACHE_DIRECTORY, new File(dataName).getName());
+			if(dataFile == null || !dataFile.isFile())
+			{
+				return null;
+			}
+			
+			// Compare the cheap parts of the key first, the content hash needs to read the whole file.
+			if(!source.getPath().equals(key.getProperty(KEY_PATH))
+					|| !String.valueOf(context.getDeduplicationKey()).equals(key.getProperty(KEY_DEDUPLICATION, "0"))
+					|| !WordListCache.getColumnsKey(source, context).equals(key.getProperty(KEY_COLUMNS, ""))
+					|| !String.valueOf(source.length()).equals(key.getProperty(KEY_SIZE))
+					|| !String.valueOf(source.lastModified()).equals(key.getProperty(KEY_MODIFIED))
+					|| !String.valueOf(WordListCache.computeContentHash(source)).equals(key.getProperty(KEY_HASH)))
+			{
+				return null;
+			}
+			
+			WordList wordList = BinaryWordListHandler.readFromFile(dataFile.getPath());
+			if(wordList.getWordCount() == 0)
+			{
+				return null;
+			}
+			context.addDuplicatesDropped(Integer.parseInt(key.getProperty(KEY_DUPLICATES_DROPPED, "0")));
+			return wordList;
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			return null;
+		}
+	}
+	
+	// Column names the source was parsed with. Only delimited text files use them, other files always get an empty key.
+	private static String getColumnsKey(File source, WordListLoadContext context)
+	{
+		String columns = context.getDelimitedColumns();
+		return columns == null || !DelimitedWordListHandler.isDelimitedWordList(source.getPath()) ? "" : columns;
+	}
+	
+	// Store a word list parsed without deduplication in the cache.
+	// The key is taken from the source file as it is now, so call this right after parsing it.
+	public static void store(String filepath, WordList wordList)
+	{
+		WordListCache.store(filepath, wordList, new WordListLoadContext());
+	}
+	
+	// Store a word list parsed with the given context in the cache, along with its deduplication key and result.
+	// The key is taken from the source file as it is now, so call this right after parsing it.
+	public static void store(String filepath, WordList wordList, WordListLoadContext context)
+	{
+		if(wordList.getWordCount() == 0)
+		{
+			return;
+		}
+		
+		try
+		{
+			File source = new File(filepath).getAbsoluteFile();
+			File keyFile = WordListCache.getEntryFile(source, KEY_EXTENSION);
+			File directory = keyFile.getAbsoluteFile().getParentFile();
+			directory.mkdirs();
+			
+			// Reserve a new version of the compiled word list. The former key stays valid until the new one replaces it.
+			String prefix = WordListCache.getEntryFile(source, ".").getName();
+			File dataFile = File.createTempFile(prefix, BinaryWordListHandler.FILE_EXTENSION, directory);
+			if(!BinaryWordListHandler.writeToFile(wordList, dataFile.getPath()))
+			{
+				dataFile.delete();
+				return;
+			}
+			
+			Properties key = new Properties();
+			key.setProperty(KEY_PATH, source.getPath());
+			key.setProperty(KEY_SIZE, String.valueOf(source.length()));
+			key.setProperty(KEY_MODIFIED, String.valueOf(source.lastModified()));
+			key.setProperty(KEY_HASH, String.valueOf(WordListCache.computeContentHash(source)));
+			key.setProperty(KEY_DEDUPLICATION, String.valueOf(context.getDeduplicationKey()));
+			key.setProperty(KEY_COLUMNS, WordListCache.getColumnsKey(source, context));
+			key.setProperty(KEY_DUPLICATES_DROPPED, String.valueOf(context.getDuplicatesDropped()));
+			key.setProperty(KEY_DATA, dataFile.getName());
+			
+			File tempKeyFile = File.createTempFile(prefix, ".tmp", directory);
+			OutputStream output = new FileOutputStream(tempKeyFile);
+			try
+			{
+				key.store(output, "RJS word list cache entry");
+			}
+			finally
+			{
+				output.close();
+			}
+			try
+			{
+				Files.move(tempKeyFile.toPath(), keyFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException amnsex)
+			{
+				Files.move(tempKeyFile.toPath(), keyFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			
+			WordListCache.deleteOutdatedVersions(directory, prefix, dataFile);
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+		}
+	}
+	
+	// Delete all versions of the compiled word list of an entry but the current one.
+	// Versions still mapped cannot be deleted on some systems, they are removed by a later store.
+	private static void deleteOutdatedVersions(File directory, String prefix, File current)
+	{
+		File[] files = directory.listFiles();
+		if(files == null)
+		{
+			return;
+		}
+		
+		for(File file : files)
+		{
+			String name = file.getName();
+			if(name.startsWith(prefix) && name.endsWith(BinaryWordListHandler.FILE_EXTENSION) && !name.equals(current.getName()))
+			{
+				file.delete();
+			}
+		}
+	}
+	
+	// Getter file of a cache entry. The name is derived from the absolute path of the source file.
+	private static File getEntryFile(File source, String extension)
+	{
+		CRC32 pathHash = new CRC32();
+		pathHash.update(source.getPath().getBytes(StandardCharsets.UTF_8));
+		return new File(CACHE_DIRECTORY, source.getName() + "." + Long.toHexString(pathHash.getValue()) + extension);
+	}
+	
+	// Compute a hash over the complete content of a file.
+	private static long computeContentHash(File file) throws IOException
+	{
+		CRC32 hash = new CRC32();
+		FileInputStream input = new FileInputStream(file);
+		try
+		{
+			FileChannel channel = input.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+			while(channel.read(buffer) > 0)
+			{
+				buffer.flip();
+				hash.update(buffer);
+				buffer.clear();
+			}
+		}
+		finally
+		{
+			input.close();
+		}
+		return hash.getValue();
+	}
+}
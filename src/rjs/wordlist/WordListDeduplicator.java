@@ -0,0 +1,120 @@
+package rjs.wordlist;
+
+// Drops words whose key fields equal those of a word seen before.
+// Every word is reduced to a 64-bit fingerprint of its key fields, only the fingerprints are kept.
+// With 64 bits, two different words get the same fingerprint with a chance of about 1 : 10^19 per pair,
+// so even lists of millions of words practically never lose a word that is no duplicate.
+// Not thread-safe, every load uses its own deduplicator.
+public class WordListDeduplicator
+{
+	// Fields that can be part of a key, combined as bit mask.
+	public static final int FIELD_ROMAJI = 1;
+	public static final int FIELD_HIRAGANA = 1 << 1;
+	public static final int FIELD_KATAKANA = 1 << 2;
+	public static final int FIELD_KANJI = 1 << 3;
+	public static final int FIELD_TRANSLATION = 1 << 4;
+	
+	// Keep all words.
+	public static final int KEY_NONE = 0;
+	
+	// Words are duplicates if all fields are equal.
+	public static final int KEY_ALL_FIELDS = FIELD_ROMAJI | FIELD_HIRAGANA | FIELD_KATAKANA | FIELD_KANJI | FIELD_TRANSLATION;
+	
+	// Words are duplicates if they are written the same in japanese, regardless of the translation.
+	public static final int KEY_JAPANESE = FIELD_ROMAJI | FIELD_HIRAGANA | FIELD_KATAKANA | FIELD_KANJI;
+	
+	// Words are duplicates if kanji and reading are equal.
+	public static final int KEY_KANJI_AND_HIRAGANA = FIELD_KANJI | FIELD_HIRAGANA;
+	
+	// Number of fields of a word list item.
+	private static final int FIELD_COUNT = 5;
+	
+	// Parameters of the FNV-1a hash.
+	private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+	
+	// Fields forming the key.
+	private int mKey = KEY_NONE;
+	
+	// Fingerprints of all words kept so far.
+	private LongHashSet mFingerprints = null;
+	
+	// Number of words dropped so far.
+	private int mDroppedCount = 0;
+	
+	// Create a deduplicator comparing the given fields (bit mask of FIELD constants).
+	public WordListDeduplicator(int key)
+	{
+		this.mKey = key;
+		this.mFingerprints = new LongHashSet();
+		this.mDroppedCount = 0;
+	}
+	
+	// Getter fields forming the key.
+	public int getKey()
+	{
+		return this.mKey;
+	}
+	
+	// Remember a word. Returns false if it is a duplicate of a word seen before and should be dropped.
+	public boolean add(WordListItem item)
+	{
+		if(this.mKey == KEY_NONE)
+		{
+			return true;
+		}
+		
+		if(this.mFingerprints.add(WordListDeduplicator.fingerprint(item, this.mKey)))
+		{
+			return true;
+		}
+		++this.mDroppedCount;
+		return false;
+	}
+	
+	// Getter number of words dropped so far.
+	public int getDroppedCount()
+	{
+		return this.mDroppedCount;
+	}
+	
+	// Forget all words, e.g. because the load starts over.
+	public void clear()
+	{
+		this.mFingerprints.clear();
+		this.mDroppedCount = 0;
+	}
+	
+	// 64-bit fingerprint of the key fields of a word.
+	// The fields are hashed char by char, no strings or byte arrays are created.
+	public static long fingerprint(WordListItem item, int key)
+	{
+		long hash = FNV_OFFSET_BASIS;
+		for(int field = 0; field < FIELD_COUNT; ++field)
+		{
+			if((key & (1 << field)) == 0)
+			{
+				continue;
+			}
+			
+			String text = BinaryWordListHandler.getField(item, field);
+			for(int index = 0; index < text.length(); ++index)
+			{
+				char c = text.charAt(index);
+				hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+				hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+			}
+			
+			// Separate the fields, so "ab" + "c" differs from "a" + "bc".
+			hash = (hash ^ (0x100 | field)) * FNV_PRIME;
+		}
+		
+		// Let every input bit affect all bits of the result.
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,151 @@
+package rjs.wordlist;
+
+// Difference between two versions of a word list.
+// Equal words at the start and at the end of both lists are skipped, only the region in between differs.
+// Within that region words are compared position by position: differing words count as changed,
+// surplus words of the old version as removed and surplus words of the new version as added.
+// Typical edits of a word list (append, insert or remove a block, fix some words) result in small differences.
+public class WordListDiff
+{
+	// Index of the first word that differs.
+	private int mStart = 0;
+	
+	// End of the differing region in the old list (exclusive).
+	private int mOldEnd = 0;
+	
+	// End of the differing region in the new list (exclusive).
+	private int mNewEnd = 0;
+	
+	// Number of words of the old list in the differing region that have a counterpart in the new list.
+	private int mCommon = 0;
+	
+	// Number of words within the common part that differ.
+	private int mChanged = 0;
+	
+	// Private constructor, use compute.
+	private WordListDiff()
+	{
+	}
+	
+	// Compute the difference between an old and a new version of a word list.
+	public static WordListDiff compute(WordList oldList, WordList newList)
+	{
+		WordListDiff diff = new WordListDiff();
+		int oldCount = oldList.getWordCount();
+		int newCount = newList.getWordCount();
+		
+		// Skip equal words at the start.
+		int start = 0;
+		while(start < oldCount && start < newCount && oldList.getWordAt(start).contentEquals(newList.getWordAt(start)))
+		{
+			++start;
+		}
+		
+		// Skip equal words at the end, without overlapping the start.
+		int oldEnd = oldCount;
+		int newEnd = newCount;
+		while(oldEnd > start && newEnd > start && oldList.getWordAt(oldEnd - 1).contentEquals(newList.getWordAt(newEnd - 1)))
+		{
+			--oldEnd;
+			--newEnd;
+		}
+		
+		diff.mStart = start;
+		diff.mOldEnd = oldEnd;
+		diff.mNewEnd = newEnd;
+		diff.mCommon = Math.min(oldEnd - start, newEnd - start);
+		
+		// Count the words that differ within the common part.
+		for(int offset = 0; offset < diff.mCommon; ++offset)
+		{
+			if(!oldList.getWordAt(start + offset).contentEquals(newList.getWordAt(start + offset)))
+			{
+				++diff.mChanged;
+			}
+		}
+		
+		return diff;
+	}
+	
+	// Difference of a list where the words [start, oldEnd) were replaced by the words [start, newEnd).
+	static WordListDiff replaced(int start, int oldEnd, int newEnd)
+	{
+		WordListDiff diff = new WordListDiff();
+		diff.mStart = start;
+		diff.mOldEnd = oldEnd;
+		diff.mNewEnd = newEnd;
+		diff.mCommon = 0;
+		diff.mChanged = 0;
+		return diff;
+	}
+	
+	// Apply this difference to the old list, so it equals the new list afterwards.
+	// Only changed, removed and added words are touched.
+	public void applyTo(WordList oldList, WordList newList)
+	{
+		for(int index = this.mStart; index < this.mStart + this.mCommon; ++index)
+		{
+			WordListItem newItem = newList.getWordAt(index);
+			if(!oldList.getWordAt(index).contentEquals(newItem))
+			{
+				oldList.setWordAt(index, newItem);
+			}
+		}
+		
+		if(this.getRemovedCount() > 0)
+		{
+			oldList.removeWords(this.mStart + this.mCommon, this.mOldEnd);
+		}
+		if(this.getAddedCount() > 0)
+		{
+			oldList.insertWords(this.mStart + this.mCommon, newList, this.mStart + this.mCommon, this.mNewEnd);
+		}
+	}
+	
+	// Map the index of a word in the old list to its index in the new list.
+	// Removed words are mapped to the word following them. Returns -1 if the new list is empty.
+	public int mapIndex(int oldIndex, int newCount)
+	{
+		int newIndex = oldIndex;
+		if(oldIndex >= this.mOldEnd)
+		{
+			newIndex = oldIndex - this.mOldEnd + this.mNewEnd;
+		}
+		else if(oldIndex >= this.mStart + this.mCommon)
+		{
+			newIndex = this.mStart + this.mCommon;
+		}
+		
+		return Math.min(newIndex, newCount - 1);
+	}
+	
+	// Whether both lists are equal.
+	public boolean isEmpty()
+	{
+		return this.getAddedCount() == 0 && this.getRemovedCount() == 0 && this.getChangedCount() == 0;
+	}
+	
+	// Getter number of words that were added.
+	public int getAddedCount()
+	{
+		return (this.mNewEnd - this.mStart) - this.mCommon;
+	}
+	
+	// Getter number of words that were removed.
+	public int getRemovedCount()
+	{
+		return (this.mOldEnd - this.mStart) - this.mCommon;
+	}
+	
+	// Getter number of words that were changed.
+	public int getChangedCount()
+	{
+		return this.mChanged;
+	}
+	
+	// Output the difference in a human readable way.
+	public String toString()
+	{
+		return "added: " + this.getAddedCount() + ", removed: " + this.getRemovedCount() + ", changed: " + this.getChangedCount();
+	}
+}
@@ -1,98 +1,56 @@
 package rjs.wordlist;
 
-// The container of an item in the word list.
-public class WordListItem
+// An item in the word list.
+// Only declares the values of a word, so views of words stored elsewhere (e.g. in the columns of a word list)
+// carry nothing but their position. SimpleWordListItem holds the values itself.
+public abstract class WordListItem
 {
 	public static final String emptySign = "-";
 	
-	// Word in romaji (latin letters).
-	private String mRomajiText = "";
-	
-	// Word in Hiragana.
-	private String mHiraganaText = "";
-	
-	// Word in Katakana.
-	private String mKatakanaText = "";
-	
-	// Word as Kanji.
-	private String mKanjiText = "";
-	
-	// Translation of the word (in non-japanese).
-	private String mTranslation = "";
-	
-	public WordListItem()
-	{
-		this.mRomajiText = WordListItem.emptySign;
-		this.mHiraganaText = WordListItem.emptySign;
-		this.mKatakanaText = WordListItem.emptySign;
-		this.mKanjiText = WordListItem.emptySign;
-		this.mTranslation = WordListItem.emptySign;
-	}
-	
 	// Setter word in latin letters.
-	public void setRomajiText(String romaji)
-	{
-		this.mRomajiText = this.doWordEmptyCheck(romaji);
-	}
+	public abstract void setRomajiText(String romaji);
 	
 	// Getter word in latin letters.
-	public String getRomajiText()
-	{
-		return this.mRomajiText;
-	}
+	public abstract String getRomajiText();
 	
 	// Setter word in hiragana.
-	public void setHiraganaText(String hiragana)
-	{
-		this.mHiraganaText = this.doWordEmptyCheck(hiragana);
-	}
+	public abstract void setHiraganaText(String hiragana);
 	
 	// Getter word in hiragana.
-	public String getHiraganaText()
-	{
-		return this.mHiraganaText;
-	}
+	public abstract String getHiraganaText();
 	
 	// Setter word in katakana.
-	public void setKatakanaText(String katakana)
-	{
-		this.mKatakanaText = this.doWordEmptyCheck(katakana);
-	}
+	public abstract void setKatakanaText(String katakana);
 	
 	// Getter word in katakana.
-	public String getKatakanaText()
-	{
-		return this.mKatakanaText;
-	}
+	public abstract String getKatakanaText();
 	
 	// Setter word as kanji.
-	public void setKanjiText(String kanji)
-	{
-		this.mKanjiText = this.doWordEmptyCheck(kanji);
-	}
+	public abstract void setKanjiText(String kanji);
 	
 	// Getter Kanji as string.
-	public String getKanjiText()
-	{
-		return this.mKanjiText;
-	}
+	public abstract String getKanjiText();
 	
 	// Setter word as kanji.
-	public void setTranslationText(String translation)
-	{
-		this.mTranslation = this.doWordEmptyCheck(translation);
-	}
+	public abstract void setTranslationText(String translation);
 	
 	// Getter translation text.
-	public String getTranslation()
+	public abstract String getTranslation();
+	
+	// Check whether another item holds exactly the same values.
+	public boolean contentEquals(WordListItem other)
 	{
-		return this.mTranslation;
+		return this.getRomajiText().equals(other.getRomajiText())
+				&& this.getHiraganaText().equals(other.getHiraganaText())
+				&& this.getKatakanaText().equals(other.getKatakanaText())
+				&& this.getKanjiText().equals(other.getKanjiText())
+				&& this.getTranslation().equals(other.getTranslation());
 	}
 	
 	// Make sure a word (romaji, hiragana, katakana, kanji, translation) is set properly.
-	private String doWordEmptyCheck(String word)
+	protected String doWordEmptyCheck(String word)
 	{
-		if(word == null || word == "")
+		if(word == null || word.isEmpty())
 		{
 			return WordListItem.emptySign;
 		}
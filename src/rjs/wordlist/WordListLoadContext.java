@@ -0,0 +1,184 @@
+package rjs.wordlist;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// State shared between a running word list load and its observers.
+// Counts parsed items and read bytes and allows to cancel the load from another thread.
+// Loaders add every parsed item through this context, so cancellation is noticed item by item.
+// Duplicate items can be dropped right there, before they take any space in the word list.
+public class WordListLoadContext
+{
+	// Number of word list items added so far.
+	private AtomicInteger mItemsParsed = null;
+	
+	// Number of bytes read from the file so far.
+	private AtomicLong mBytesRead = null;
+	
+	// Size of the file being loaded in bytes, 0 if unknown.
+	private long mTotalBytes = 0;
+	
+	// Set once the load should stop as soon as possible.
+	private volatile boolean mCancelled = false;
+	
+	// Context of the whole load if this context only covers a part of it, null otherwise.
+	private WordListLoadContext mParent = null;
+	
+	// Drops duplicate items, null if all items are kept.
+	private WordListDeduplicator mDeduplicator = null;
+	
+	// Number of dropped duplicates, including those of child contexts.
+	private AtomicInteger mDuplicatesDropped = null;
+	
+	// Field names of the columns of delimited text files (see DelimitedWordListHandler.parseColumns), null to detect them.
+	private String mDelimitedColumns = null;
+	
+	// Default constructor.
+	public WordListLoadContext()
+	{
+		this.mItemsParsed = new AtomicInteger();
+		this.mBytesRead = new AtomicLong();
+		this.mDuplicatesDropped = new AtomicInteger();
+		this.mTotalBytes = 0;
+		this.mCancelled = false;
+	}
+	
+	// Context for a part of a load, e.g. a single chunk of a file parsed in parallel.
+	// Read bytes are also reported to the parent, cancelling the parent cancels this context as well.
+	// Items are only counted here, as they are added to the parent once all parts are merged.
+	// Duplicates are not dropped unless enabled for the child, dropped duplicates are also reported to the parent.
+	public WordListLoadContext(WordListLoadContext parent)
+	{
+		this();
+		this.mParent = parent;
+	}
+	
+	// Add a parsed item to the word list that is being loaded. Duplicates are dropped if enabled.
+	// Throws a CancellationException if the load was cancelled.
+	public void addWord(WordList wordList, WordListItem item)
+	{
+		this.checkCancelled();
+		if(this.mDeduplicator != null && !this.mDeduplicator.add(item))
+		{
+			this.addDuplicatesDropped(1);
+			return;
+		}
+		wordList.addWord(item);
+		this.mItemsParsed.incrementAndGet();
+	}
+	
+	// Setter fields identifying duplicates (see WordListDeduplicator), KEY_NONE keeps all items.
+	// Has to be set before the first item is added.
+	public void setDeduplicationKey(int key)
+	{
+		this.mDeduplicator = key == WordListDeduplicator.KEY_NONE ? null : new WordListDeduplicator(key);
+	}
+	
+	// Getter fields identifying duplicates, KEY_NONE if all items are kept.
+	public int getDeduplicationKey()
+	{
+		return this.mDeduplicator == null ? WordListDeduplicator.KEY_NONE : this.mDeduplicator.getKey();
+	}
+	
+	// Setter field names of the columns of delimited text files, null or empty to detect the columns.
+	public void setDelimitedColumns(String columns)
+	{
+		this.mDelimitedColumns = columns == null || columns.trim().isEmpty() ? null : columns.trim();
+	}
+	
+	// Getter field names of the columns of delimited text files, null if the columns are detected.
+	public String getDelimitedColumns()
+	{
+		return this.mDelimitedColumns;
+	}
+	
+	// Count duplicates that were dropped, e.g. by an earlier load of the same file.
+	public void addDuplicatesDropped(int count)
+	{
+		this.mDuplicatesDropped.addAndGet(count);
+		if(this.mParent != null)
+		{
+			this.mParent.addDuplicatesDropped(count);
+		}
+	}
+	
+	// Getter number of dropped duplicates.
+	public int getDuplicatesDropped()
+	{
+		return this.mDuplicatesDropped.get();
+	}
+	
+	// Count items that were added to the loaded word list without this context, e.g. a completely loaded part of a word list set.
+	public void addItemsParsed(int count)
+	{
+		this.mItemsParsed.addAndGet(count);
+	}
+	
+	// Count bytes read from the file.
+	public void addBytesRead(long bytes)
+	{
+		this.mBytesRead.addAndGet(bytes);
+		if(this.mParent != null)
+		{
+			this.mParent.addBytesRead(bytes);
+		}
+	}
+	
+	// Getter number of items added so far.
+	public int getItemsParsed()
+	{
+		return this.mItemsParsed.get();
+	}
+	
+	// Getter number of bytes read so far.
+	public long getBytesRead()
+	{
+		return this.mBytesRead.get();
+	}
+	
+	// Setter size of the file being loaded.
+	public void setTotalBytes(long totalBytes)
+	{
+		this.mTotalBytes = totalBytes;
+	}
+	
+	// Getter size of the file being loaded, 0 if unknown.
+	public long getTotalBytes()
+	{
+		return this.mTotalBytes;
+	}
+	
+	// Reset the counters and forget the items seen for deduplication. Used when a loader has to start over.
+	public void resetProgress()
+	{
+		this.mItemsParsed.set(0);
+		this.mBytesRead.set(0);
+		if(this.mDeduplicator != null)
+		{
+			this.addDuplicatesDropped(-this.mDeduplicator.getDroppedCount());
+			this.mDeduplicator.clear();
+		}
+	}
+	
+	// Request the load to stop. The loader notices this with the next item.
+	public void cancel()
+	{
+		this.mCancelled = true;
+	}
+	
+	// Getter cancellation state.
+	public boolean isCancelled()
+	{
+		return this.mCancelled || (this.mParent != null && this.mParent.isCancelled());
+	}
+	
+	// Throw a CancellationException if the load was cancelled.
+	public void checkCancelled()
+	{
+		if(this.isCancelled())
+		{
+			throw new CancellationException("Word list loading cancelled.");
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package rjs.wordlist;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Read-only word list combining the word lists of several files, e.g. one file per chapter.
+// A set is described either by a directory (all word list files within) or by a manifest file listing one path per line.
+// Every source may be deactivated, its words are skipped then without loading anything again.
+// A set is never changed once created: (de)activating a source creates another set sharing the loaded sources,
+// so a set may be read from other threads (e.g. while the search index is built) at any time.
+// Words returned by a set are those of their source, getWordSourcePath tells which source a word belongs to.
+public class WordListSet extends WordList
+{
+	// File extension of manifest files.
+	public static final String MANIFEST_EXTENSION = ".lst";
+	
+	// Lines of a manifest starting with this sign are ignored.
+	private static final String MANIFEST_COMMENT = "#";
+	
+	// Paths of the source files.
+	private String[] mSourcePaths = null;
+	
+	// Loaded word lists of the source files.
+	private WordList[] mSources = null;
+	
+	// Whether the words of a source are part of the set.
+	private boolean[] mActive = null;
+	
+	// Index of the first word of every source within the set, inactive sources have no words.
+	// The additional last entry is the number of words in the set.
+	private int[] mStarts = null;
+	
+	// Create a set of loaded word lists. All sources are active.
+	public WordListSet(String[] sourcePaths, WordList[] sources)
+	{
+		if(sourcePaths.length != sources.length)
+		{
+			throw new IllegalArgumentException("Every source needs a path.");
+		}
+		
+		this.mSourcePaths = sourcePaths.clone();
+		this.mSources = sources.clone();
+		this.mActive = new boolean[sources.length];
+		Arrays.fill(this.mActive, true);
+		this.mStarts = new int[sources.length + 1];
+		this.updateStarts();
+	}
+	
+	// Create a set sharing the sources of another set, where only the given source is (de)activated.
+	private WordListSet(WordListSet other, int source, boolean active)
+	{
+		this.mSourcePaths = other.mSourcePaths;
+		this.mSources = other.mSources;
+		this.mActive = other.mActive.clone();
+		this.mActive[source] = active;
+		this.mStarts = new int[this.mSources.length + 1];
+		this.updateStarts();
+	}
+	
+	// Check whether a path describes a word list set, i.e. it is a directory or a manifest.
+	public static boolean isWordListSet(String path)
+	{
+		return path.toLowerCase().endsWith(MANIFEST_EXTENSION) || new File(path).isDirectory();
+	}
+	
+	// List the source files of a word list set.
+	// A directory provides its XML (also compressed), delimited text and compiled word lists in alphabetical order.
+	// Text files which do not look like word lists (e.g. a README.txt) are skipped.
+	// A manifest provides its non-empty lines, relative paths are resolved against the directory of the manifest.
+	// Sets can not be nested: manifests and directories listed by a manifest are skipped,
+	// otherwise a manifest listing itself (directly or through another one) would be loaded forever.
+	public static String[] listSources(String path) throws IOException
+	{
+		File file = new File(path);
+		ArrayList<String> sources = new ArrayList<String>();
+		
+		if(file.isDirectory())
+		{
+			File[] children = file.listFiles();
+			if(children == null)
+			{
+				throw new IOException("Could not list word list directory " + path);
+			}
+			Arrays.sort(children);
+			
+			for(File child : children)
+			{
+				String name = child.getName().toLowerCase();
+				if(child.isFile() && (name.endsWith(".xml") || XmlWordListHandler.isCompressedXml(name) || BinaryWordListHandler.isBinaryWordList(name) || DelimitedWordListHandler.isDelimitedWordListFile(child.getPath())))
+				{
+					sources.add(child.getPath());
+				}
+			}
+		}
+		else
+		{
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+			try
+			{
+				String line = null;
+				while((line = reader.readLine()) != null)
+				{
+					line = line.trim();
+					if(line.isEmpty() || line.startsWith(MANIFEST_COMMENT))
+					{
+						continue;
+					}
+					
+					File source = new File(line);
+					if(!source.isAbsolute())
+					{
+						source = new File(file.getAbsoluteFile().getParentFile(), line);
+					}
+					
+					if(WordListSet.isWordListSet(source.getPath()))
+					{
+						System.out.println("Word list sets can not contain other sets, skipped " + source.getPath());
+						continue;
+					}
+					sources.add(source.getPath());
+				}
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		
+		return sources.toArray(new String[sources.size()]);
+	}
+	
+	// Getter number of sources, active or not.
+	public int getSourceCount()
+	{
+		return this.mSources.length;
+	}
+	
+	// Getter path of a source.
+	public String getSourcePath(int source)
+	{
+		return this.mSourcePaths[source];
+	}
+	
+	// Getter number of words of a source, whether it is active or not.
+	public int getSourceWordCount(int source)
+	{
+		return this.mSources[source].getWordCount();
+	}
+	
+	// Getter number of words of all sources, whether they are active or not.
+	public int getTotalWordCount()
+	{
+		int count = 0;
+		for(WordList source : this.mSources)
+		{
+			count += source.getWordCount();
+		}
+		return count;
+	}
+	
+	// Getter whether the words of a source are part of the set.
+	public boolean isSourceActive(int source)
+	{
+		return this.mActive[source];
+	}
+	
+	// Create a set with the same sources, where the words of a source are added or removed. This set is not changed.
+	public WordListSet withSourceActive(int source, boolean active)
+	{
+		return new WordListSet(this, source, active);
+	}
+	
+	// Difference between this set and a set created from it by withSourceActive for the given source.
+	// May be used to map indices of words.
+	public WordListDiff diffSourceActive(WordListSet changed, int source)
+	{
+		return WordListDiff.replaced(this.mStarts[source], this.mStarts[source + 1], changed.mStarts[source + 1]);
+	}
+	
+	// Getter word from the set.
+	public WordListItem getWordAt(int index)
+	{
+		this.checkIndex(index);
+		int source = this.findSource(index);
+		return this.mSources[source].getWordAt(index - this.mStarts[source]);
+	}
+	
+	// Getter path of the file the word at the given index was loaded from.
+	// Kept per source instead of per word, the sources are the ranges of words between their start indices.
+	public String getWordSourcePath(int index)
+	{
+		this.checkIndex(index);
+		return this.mSourcePaths[this.findSource(index)];
+	}
+	
+	// Getter word count of the active sources.
+	public int getWordCount()
+	{
+		return this.mStarts[this.mSources.length];
+	}
+	
+	// Word list sets can not be modified.
+	public void addWord(WordListItem item)
+	{
+		throw new UnsupportedOperationException("Word list sets are read-only.");
+	}
+	
+	// Word list sets can not be modified.
+	public void setWordAt(int index, WordListItem item)
+	{
+		throw new UnsupportedOperationException("Word list sets are read-only.");
+	}
+	
+	// Word list sets can not be modified.
+	public void insertWords(int index, WordList source, int fromIndex, int toIndex)
+	{
+		throw new UnsupportedOperationException("Word list sets are read-only.");
+	}
+	
+	// Word list sets can not be modified.
+	public void removeWords(int fromIndex, int toIndex)
+	{
+		throw new UnsupportedOperationException("Word list sets are read-only.");
+	}
+	
+	// Word list sets can not be modified.
+	public void clear()
+	{
+		throw new UnsupportedOperationException("Word list sets are read-only.");
+	}
+	
+	// Word list sets can not be modified.
+	public boolean isReadOnly()
+	{
+		return true;
+	}
+	
+	// Release unused capacity of all sources.
+	public void trimToSize()
+	{
+		for(WordList source : this.mSources)
+		{
+			if(!source.isReadOnly())
+			{
+				source.trimToSize();
+			}
+		}
+	}
+	
+	// Average size of a word over all sources, active or not.
+	public double getEstimatedBytesPerWord()
+	{
+		double bytes = 0.0;
+		int count = 0;
+		for(WordList source : this.mSources)
+		{
+			bytes += source.getEstimatedBytesPerWord() * source.getWordCount();
+			count += source.getWordCount();
+		}
+		return count == 0 ? 0.0 : bytes / count;
+	}
+	
+	// Compute the start of every source from the active flags.
+	private void updateStarts()
+	{
+		int start = 0;
+		for(int source = 0; source < this.mSources.length; ++source)
+		{
+			this.mStarts[source] = start;
+			if(this.mActive[source])
+			{
+				start += this.mSources[source].getWordCount();
+			}
+		}
+		this.mStarts[this.mSources.length] = start;
+	}
+	
+	// Find the source holding the word at the given index of the set.
+	// Binary search for the last source starting at or before the index. Inactive sources start where the next one does,
+	// so the found source always holds words.
+	private int findSource(int index)
+	{
+		int low = 0;
+		int high = this.mSources.length - 1;
+		while(low < high)
+		{
+			int middle = (low + high + 1) >>> 1;
+			if(this.mStarts[middle] <= index)
+			{
+				low = middle;
+			}
+			else
+			{
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+	
+	// Throw an IndexOutOfBoundsException if there is no word at the index.
+	private void checkIndex(int index)
+	{
+		if(index < 0 || index >= this.getWordCount())
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.getWordCount());
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package rjs.wordlist;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+// Watches a word list file for changes on a background thread.
+// Editors often write a file in several steps, so changes are reported only once the file stayed untouched for a short time.
+public abstract class WordListWatcher extends Thread
+{
+	// Time the file has to stay untouched before a change is reported (in ms).
+	private static final long QUIET_PERIOD = 500;
+	
+	// The watched file.
+	private Path mFile = null;
+	
+	// Watch service observing the directory of the file.
+	private WatchService mWatchService = null;
+	
+	// Start watching the given file. Call start() to run the watcher.
+	public WordListWatcher(String filepath) throws IOException
+	{
+		super("Word list watcher");
+		this.setDaemon(true);
+		
+		this.mFile = Paths.get(filepath).toAbsolutePath();
+		this.mWatchService = FileSystems.getDefault().newWatchService();
+		this.mFile.getParent().register(this.mWatchService, 
+				StandardWatchEventKinds.ENTRY_CREATE, 
+				StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+	
+	// Called on the watcher thread once the watched file changed.
+	protected abstract void fileChanged(String filepath);
+	
+	// Stop watching the file.
+	public void stopWatching()
+	{
+		try
+		{
+			this.mWatchService.close();
+		}
+		catch(IOException ex)
+		{
+			ex.printStackTrace();
+		}
+		this.interrupt();
+	}
+	
+	// Wait for changes of the file and report them.
+	public void run()
+	{
+		try
+		{
+			while(true)
+			{
+				// Wait for the first change, then until the file stays untouched.
+				if(!this.pollChange(this.mWatchService.take()))
+				{
+					continue;
+				}
+				
+				WatchKey key = this.mWatchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+				while(key != null)
+				{
+					this.pollChange(key);
+					key = this.mWatchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+				}
+				
+				this.fileChanged(this.mFile.toString());
+			}
+		}
+		catch(InterruptedException iex)
+		{
+			// Watching was stopped.
+		}
+		catch(ClosedWatchServiceException cwsex)
+		{
+			// Watching was stopped.
+		}
+	}
+	
+	// Read the events of a watch key. Returns true if one of them concerns the watched file.
+	private boolean pollChange(WatchKey key)
+	{
+		boolean changed = false;
+		for(WatchEvent<?> event : key.pollEvents())
+		{
+			if(this.mFile.getFileName().equals(event.context()))
+			{
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+}
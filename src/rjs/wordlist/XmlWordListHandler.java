@@ -1,9 +1,30 @@
 package rjs.wordlist;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -12,53 +33,290 @@ import org.w3c.dom.NodeList;
 // Does the XML-file management part like loading and saving a word list.
 public class XmlWordListHandler
 {
+	// XML-tag of the whole word list.
+	private static final String XML_TAG_ROOT = "wordlist";
+	
+	// XML-tag of a single word list item.
+	private static final String XML_TAG_ITEM = "item";
+	
+	// XML-tags of the fields of an item, in the order they are written.
+	private static final String[] XML_TAG_FIELDS = { "romaji", "hiragana", "katakana", "kanji", "translation" };
+	
+	// File extension of gzip compressed XML word lists.
+	public static final String COMPRESSED_EXTENSION = ".xml.gz";
+	
+	// Size of the buffers between file, decompression and parser.
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	// Whether a file is a gzip compressed XML word list, judged by its extension.
+	public static boolean isCompressedXml(String filepath)
+	{
+		return filepath.toLowerCase().endsWith(COMPRESSED_EXTENSION);
+	}
+	
 	// Read a word list from an XML-file.
+	// The file is streamed, so only the resulting word list is kept in memory.
+	// The DOM reader is only used if the streaming reader can not handle the file.
 	public static WordList readFromFile(String filepath)
+	{
+		return XmlWordListHandler.readFromFile(filepath, new WordList());
+	}
+	
+	// Read a word list from an XML-file into the given (empty) word list.
+	// Allows to choose the storage of the loaded words, e.g. a ColumnarWordList.
+	public static WordList readFromFile(String filepath, WordList wordList)
+	{
+		return XmlWordListHandler.readFromFile(filepath, wordList, new WordListLoadContext());
+	}
+	
+	// Read a word list from an XML-file into the given (empty) word list.
+	// Progress is reported to the context. If the context gets cancelled, a CancellationException is thrown.
+	// Large files are parsed in parallel chunks if the file allows it.
+	// Compressed files (.xml.gz) are decompressed on the fly while they are parsed.
+	public static WordList readFromFile(String filepath, WordList wordList, WordListLoadContext context)
+	{
+		try
+		{
+			if(ParallelXmlWordListHandler.isWorthwhile(filepath))
+			{
+				if(ParallelXmlWordListHandler.readFromFile(filepath, wordList, context))
+				{
+					return wordList;
+				}
+				
+				// File can not be split safely, drop partial results and read it in one go.
+				wordList.clear();
+				context.resetProgress();
+			}
+			
+			return XmlWordListHandler.readFromFileStreaming(filepath, wordList, context);
+		}
+		catch(FileNotFoundException fnfex)
+		{
+			System.out.println("Former word list not found, reset active word list.");
+			wordList.clear();
+			return wordList;
+		}
+		catch(XMLStreamException xsex)
+		{
+			// Drop the words read before the streaming reader failed.
+			System.out.println("Streaming word list reader failed, falling back to DOM reader.");
+			wordList.clear();
+			context.resetProgress();
+			return XmlWordListHandler.readFromFileDom(filepath, wordList, context);
+		}
+		catch(CancellationException cex)
+		{
+			throw cex;
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			wordList.clear();
+			return wordList;
+		}
+	}
+	
+	// Read a word list from an XML-file using a StAX pull parser.
+	private static WordList readFromFileStreaming(String filepath, WordList wordList, WordListLoadContext context) throws Exception
+	{
+		InputStream input = XmlWordListHandler.openInputStream(filepath, context);
+		try
+		{
+			XmlWordListHandler.readItems(input, wordList, context);
+			return wordList;
+		}
+		finally
+		{
+			input.close();
+		}
+	}
+	
+	// Read the items of a word list from a stream using a StAX pull parser.
+	// Word list items are created directly while the elements arrive and added through the context.
+	// The stream is not closed.
+	static void readItems(InputStream input, WordList wordList, WordListLoadContext context) throws XMLStreamException
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		XMLStreamReader reader = factory.createXMLStreamReader(input);
+		
+		try
+		{
+			WordListItem item = null;
+			
+			while(reader.hasNext())
+			{
+				int event = reader.next();
+				
+				if(event == XMLStreamConstants.START_ELEMENT)
+				{
+					String name = reader.getLocalName();
+					if(item == null)
+					{
+						// Outside of an item only the start of a new item is of interest.
+						if(name.equals(XML_TAG_ITEM))
+						{
+							item = new SimpleWordListItem();
+						}
+					}
+					else
+					{
+						// Inside an item, read as many values as possible.
+						XmlWordListHandler.applyValue(item, name, reader.getElementText());
+					}
+				}
+				else if(event == XMLStreamConstants.END_ELEMENT && item != null && reader.getLocalName().equals(XML_TAG_ITEM))
+				{
+					context.addWord(wordList, item);
+					item = null;
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+	
+	// Write a word list into an XML-file, compressed if the path ends with .xml.gz.
+	// Items are streamed one by one, so word lists of any size are written without building a document.
+	// The list is written into a temporary file next to the target first, which then replaces the target in one step.
+	// An interrupted write never leaves a partial word list behind.
+	// Returns false if the file could not be written. The target is unchanged in this case.
+	public static boolean writeToFile(WordList wordList, String filepath)
+	{
+		File target = new File(filepath).getAbsoluteFile();
+		File temp = null;
+		try
+		{
+			temp = File.createTempFile(target.getName() + ".", ".tmp", target.getParentFile());
+			
+			FileOutputStream file = new FileOutputStream(temp);
+			try
+			{
+				OutputStream output = new BufferedOutputStream(file, BUFFER_SIZE);
+				GZIPOutputStream compressed = null;
+				if(XmlWordListHandler.isCompressedXml(filepath))
+				{
+					// The writer produces many small pieces, buffer them to compress larger blocks at once.
+					compressed = new GZIPOutputStream(output, BUFFER_SIZE);
+					output = new BufferedOutputStream(compressed, BUFFER_SIZE);
+				}
+				
+				XmlWordListHandler.writeItems(wordList, output);
+				output.flush();
+				if(compressed != null)
+				{
+					compressed.finish();
+					compressed.flush();
+				}
+				
+				// Make sure the data is on disk before the file takes the place of the target.
+				file.getChannel().force(true);
+			}
+			finally
+			{
+				file.close();
+			}
+			
+			try
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException amnsex)
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			if(temp != null && temp.exists() && !temp.delete())
+			{
+				System.out.println("Could not delete temporary word list file " + temp.getPath());
+			}
+			return false;
+		}
+	}
+	
+	// Write all items of a word list to a stream using a StAX writer, indented like hand-written word lists.
+	// The stream is not closed.
+	private static void writeItems(WordList wordList, OutputStream output) throws XMLStreamException
+	{
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+		try
+		{
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.writeCharacters("\n");
+			writer.writeStartElement(XML_TAG_ROOT);
+			
+			for(int index = 0; index < wordList.getWordCount(); ++index)
+			{
+				WordListItem item = wordList.getWordAt(index);
+				writer.writeCharacters("\n\t");
+				writer.writeStartElement(XML_TAG_ITEM);
+				for(int field = 0; field < XML_TAG_FIELDS.length; ++field)
+				{
+					writer.writeCharacters("\n\t\t");
+					writer.writeStartElement(XML_TAG_FIELDS[field]);
+					writer.writeCharacters(BinaryWordListHandler.getField(item, field));
+					writer.writeEndElement();
+				}
+				writer.writeCharacters("\n\t");
+				writer.writeEndElement();
+			}
+			
+			writer.writeCharacters("\n");
+			writer.writeEndElement();
+			writer.writeCharacters("\n");
+			writer.writeEndDocument();
+			writer.flush();
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+	
+	// Read a word list from an XML-file by building a DOM tree first.
+	// Needs far more memory than the streaming reader, only used as fallback.
+	private static WordList readFromFileDom(String filepath, WordList wordList, WordListLoadContext context)
 	{
 		try
 		{
 			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 			DocumentBuilder builder = factory.newDocumentBuilder();
-			Document doc = builder.parse(filepath);
 			
-			NodeList nodes = doc.getElementsByTagName("item");
-			WordList wordList = new WordList();
+			InputStream input = XmlWordListHandler.openInputStream(filepath, context);
+			Document doc = null;
+			try
+			{
+				doc = builder.parse(input, new File(filepath).toURI().toString());
+			}
+			finally
+			{
+				input.close();
+			}
+			
+			NodeList nodes = doc.getElementsByTagName(XML_TAG_ITEM);
 			
 			for(int index = 0; index < nodes.getLength(); ++index)
 			{
 				// Iterate over nodes of type "item" and generate word list items.
 				Node xmlNode = nodes.item(index);
-				WordListItem item = new WordListItem();
+				WordListItem item = new SimpleWordListItem();
 				
 				NodeList children = xmlNode.getChildNodes();
 				for(int childIndex = 0; childIndex < children.getLength(); ++childIndex)
 				{
-					Node xmlChild = children.item(childIndex);
-					
 					// Read as many values as possible.
-					if(xmlChild.getNodeName().equals("romaji"))
-					{
-						item.setRomajiText(xmlChild.getTextContent());
-					}
-					if(xmlChild.getNodeName().equals("hiragana"))
-					{
-						item.setHiraganaText(xmlChild.getTextContent());
-					}
-					if(xmlChild.getNodeName().equals("katakana"))
-					{
-						item.setKatakanaText(xmlChild.getTextContent());
-					}
-					if(xmlChild.getNodeName().equals("kanji"))
-					{
-						item.setKanjiText(xmlChild.getTextContent());
-					}
-					if(xmlChild.getNodeName().equals("translation"))
-					{
-						item.setTranslationText(xmlChild.getTextContent());
-					}
+					Node xmlChild = children.item(childIndex);
+					XmlWordListHandler.applyValue(item, xmlChild.getNodeName(), xmlChild.getTextContent());
 				}
 				
-				wordList.addWord(item);
+				context.addWord(wordList, item);
 			}
 			
 			return wordList;
@@ -66,12 +324,66 @@ public class XmlWordListHandler
 		catch(FileNotFoundException fnfex)
 		{
 			System.out.println("Former word list not found, reset active word list.");
-			return new WordList();
+			wordList.clear();
+			return wordList;
+		}
+		catch(CancellationException cex)
+		{
+			throw cex;
 		}
 		catch(Exception ex)
 		{
 			ex.printStackTrace();
-			return new WordList();
+			wordList.clear();
+			return wordList;
+		}
+	}
+	
+	// Open a buffered stream on a file channel. Read bytes are reported to the context.
+	// Compressed files are inflated while they are read, progress is counted in compressed bytes.
+	private static InputStream openInputStream(String filepath, WordListLoadContext context) throws IOException
+	{
+		RandomAccessFile file = new RandomAccessFile(filepath, "r");
+		context.setTotalBytes(file.length());
+		InputStream input = new BufferedInputStream(new ProgressInputStream(Channels.newInputStream(file.getChannel()), context), BUFFER_SIZE);
+		if(XmlWordListHandler.isCompressedXml(filepath))
+		{
+			try
+			{
+				input = new GZIPInputStream(input, BUFFER_SIZE);
+			}
+			catch(IOException ioex)
+			{
+				input.close();
+				throw ioex;
+			}
+		}
+		return input;
+	}
+	
+	// Set the value of a word list item field identified by its XML-tag.
+	// Unknown tags are ignored.
+	private static void applyValue(WordListItem item, String tag, String value)
+	{
+		if(tag.equals("romaji"))
+		{
+			item.setRomajiText(value);
+		}
+		else if(tag.equals("hiragana"))
+		{
+			item.setHiraganaText(value);
+		}
+		else if(tag.equals("katakana"))
+		{
+			item.setKatakanaText(value);
+		}
+		else if(tag.equals("kanji"))
+		{
+			item.setKanjiText(value);
+		}
+		else if(tag.equals("translation"))
+		{
+			item.setTranslationText(value);
 		}
 	}
 }
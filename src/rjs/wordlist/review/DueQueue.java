@@ -0,0 +1,124 @@
+package rjs.wordlist.review;
+
+// Priority queue of cards ordered by their due time, earliest first.
+// A binary min-heap of card numbers, with the position of every card in the heap kept in a second array.
+// So the due time of a card already in the queue can be changed and the card moved to its new place
+// in O(log n), without searching for it. Cards due at the same time are ordered by their number.
+class DueQueue
+{
+	// Due time of every card, shared with the scheduler. Call update after changing the time of a queued card.
+	private long[] mDueTimes = null;
+	
+	// The heap of card numbers, only the first mSize entries are used.
+	private int[] mHeap = null;
+	
+	// Position of every card in the heap, -1 if the card is not queued.
+	private int[] mPositions = null;
+	
+	// Number of queued cards.
+	private int mSize = 0;
+	
+	// Create an empty queue for the cards of the given due times.
+	DueQueue(long[] dueTimes)
+	{
+		this.mDueTimes = dueTimes;
+		this.mHeap = new int[dueTimes.length];
+		this.mPositions = new int[dueTimes.length];
+		for(int card = 0; card < this.mPositions.length; ++card)
+		{
+			this.mPositions[card] = -1;
+		}
+		this.mSize = 0;
+	}
+	
+	// Getter number of queued cards.
+	int size()
+	{
+		return this.mSize;
+	}
+	
+	// Check whether a card is queued.
+	boolean contains(int card)
+	{
+		return this.mPositions[card] >= 0;
+	}
+	
+	// Getter the card due first, -1 if the queue is empty.
+	int peek()
+	{
+		return this.mSize > 0 ? this.mHeap[0] : -1;
+	}
+	
+	// Queue a card, or move it to its new place if it is queued already.
+	void update(int card)
+	{
+		int position = this.mPositions[card];
+		if(position < 0)
+		{
+			position = this.mSize++;
+			this.mHeap[position] = card;
+			this.mPositions[card] = position;
+		}
+		
+		position = this.siftUp(position);
+		this.siftDown(position);
+	}
+	
+	// Move the card at a position up until its parent is due earlier. Returns its new position.
+	private int siftUp(int position)
+	{
+		int card = this.mHeap[position];
+		while(position > 0)
+		{
+			int parent = (position - 1) >>> 1;
+			if(!this.isEarlier(card, this.mHeap[parent]))
+			{
+				break;
+			}
+			this.place(this.mHeap[parent], position);
+			position = parent;
+		}
+		this.place(card, position);
+		return position;
+	}
+	
+	// Move the card at a position down until its children are due later.
+	private void siftDown(int position)
+	{
+		int card = this.mHeap[position];
+		while(true)
+		{
+			int child = 2 * position + 1;
+			if(child >= this.mSize)
+			{
+				break;
+			}
+			if(child + 1 < this.mSize && this.isEarlier(this.mHeap[child + 1], this.mHeap[child]))
+			{
+				++child;
+			}
+			if(!this.isEarlier(this.mHeap[child], card))
+			{
+				break;
+			}
+			this.place(this.mHeap[child], position);
+			position = child;
+		}
+		this.place(card, position);
+	}
+	
+	// Put a card at a position of the heap.
+	private void place(int card, int position)
+	{
+		this.mHeap[position] = card;
+		this.mPositions[card] = position;
+	}
+	
+	// Check whether a card is due before another one.
+	private boolean isEarlier(int card, int other)
+	{
+		long due = this.mDueTimes[card];
+		long otherDue = this.mDueTimes[other];
+		return due < otherDue || (due == otherDue && card < other);
+	}
+}
@@ -0,0 +1,217 @@
+package rjs.wordlist.review;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+
+// Side file storing the review state of the cards of a word list.
+// Every review appends one record, so saving takes constant time regardless of the number of cards.
+// When the state is read, later records of a card replace earlier ones.
+// Once the file holds much more records than reviewed cards, it is rewritten with one record per card.
+// Cards are identified by a fingerprint of all their fields, so the state survives reordering and editing of the list.
+// Records of words which are not part of the current list (e.g. of an inactive source of a set, or of a word
+// removed only for a moment while its file was edited) are kept as they are and written back when rewriting.
+// Layout of a file (big endian):
+//   header:  magic number, format version
+//   records: fingerprint (long), due time in ms (long), interval in days (int), ease (float), repetitions (short)
+class ReviewJournal
+{
+	// File extension appended to the path of the word list.
+	static final String FILE_EXTENSION = ".review";
+	
+	// Magic number at the start of every review file ("RJSR").
+	private static final int MAGIC_NUMBER = 0x524A5352;
+	
+	// Version of the format. Increase whenever the layout changes.
+	private static final int FORMAT_VERSION = 1;
+	
+	// Size of the header in bytes.
+	private static final int HEADER_SIZE = 8;
+	
+	// Size of a record in bytes.
+	private static final int RECORD_SIZE = 26;
+	
+	// Size of the buffers used to read and rewrite the file.
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	// Path of the review file.
+	private String mPath = null;
+	
+	// Latest record of every reviewed fingerprint the scheduler has no card for, exactly as read from the file.
+	private LinkedHashMap<Long, byte[]> mOtherRecords = null;
+	
+	// Create the journal of the word list at the given path.
+	ReviewJournal(String wordListPath)
+	{
+		this.mPath = wordListPath + FILE_EXTENSION;
+		this.mOtherRecords = new LinkedHashMap<Long, byte[]>();
+	}
+	
+	// Getter number of records kept for fingerprints without card.
+	int getOtherRecordCount()
+	{
+		return this.mOtherRecords.size();
+	}
+	
+	// Read all records and hand them to the scheduler in the order they were written.
+	// Records the scheduler has no card for are kept for the next rewrite.
+	// Returns the number of records read, -1 if the file exists but could not be read or is no valid review file
+	// (e.g. written by a newer version). The file must not be rewritten in this case.
+	int read(ReviewScheduler scheduler)
+	{
+		this.mOtherRecords.clear();
+		File file = new File(this.mPath);
+		if(!file.isFile() || file.length() == 0)
+		{
+			return 0;
+		}
+		
+		try
+		{
+			DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+			try
+			{
+				if(file.length() < HEADER_SIZE || input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION)
+				{
+					System.out.println("Ignoring invalid review file " + this.mPath);
+					return -1;
+				}
+				
+				// An incomplete last record is left out, e.g. if the application was stopped while appending.
+				long count = (file.length() - HEADER_SIZE) / RECORD_SIZE;
+				byte[] bytes = new byte[RECORD_SIZE];
+				ByteBuffer record = ByteBuffer.wrap(bytes);
+				for(long index = 0; index < count; ++index)
+				{
+					input.readFully(bytes);
+					long fingerprint = record.getLong(0);
+					long due = record.getLong(8);
+					int interval = record.getInt(16);
+					float ease = record.getFloat(20);
+					int repetitions = record.getShort(24);
+					if(!scheduler.restore(fingerprint, due, interval, ease, repetitions) && due != ReviewScheduler.NOT_REVIEWED)
+					{
+						this.mOtherRecords.put(fingerprint, bytes.clone());
+					}
+				}
+				return (int)Math.min(count, Integer.MAX_VALUE);
+			}
+			finally
+			{
+				input.close();
+			}
+		}
+		catch(IOException ioex)
+		{
+			ioex.printStackTrace();
+			return -1;
+		}
+	}
+	
+	// Append the state of a card after a review.
+	boolean append(long fingerprint, long due, int interval, float ease, int repetitions)
+	{
+		File file = new File(this.mPath);
+		try
+		{
+			boolean created = !file.isFile() || file.length() == 0;
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), HEADER_SIZE + RECORD_SIZE));
+			try
+			{
+				if(created)
+				{
+					output.writeInt(MAGIC_NUMBER);
+					output.writeInt(FORMAT_VERSION);
+				}
+				ReviewJournal.writeRecord(output, fingerprint, due, interval, ease, repetitions);
+			}
+			finally
+			{
+				output.close();
+			}
+			return true;
+		}
+		catch(IOException ioex)
+		{
+			ioex.printStackTrace();
+			return false;
+		}
+	}
+	
+	// Replace the file by one holding a single record per reviewed card, i.e. per card with a due time,
+	// followed by the kept records of fingerprints without card.
+	// Written to a temporary file first, so the old state stays intact if writing fails.
+	boolean rewrite(long[] fingerprints, long[] dueTimes, int[] intervals, float[] eases, int[] repetitions)
+	{
+		File target = new File(this.mPath).getAbsoluteFile();
+		File temp = null;
+		try
+		{
+			temp = File.createTempFile(target.getName() + ".", ".tmp", target.getParentFile());
+			
+			FileOutputStream file = new FileOutputStream(temp);
+			try
+			{
+				DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file, BUFFER_SIZE));
+				output.writeInt(MAGIC_NUMBER);
+				output.writeInt(FORMAT_VERSION);
+				for(int card = 0; card < fingerprints.length; ++card)
+				{
+					if(dueTimes[card] != ReviewScheduler.NOT_REVIEWED)
+					{
+						ReviewJournal.writeRecord(output, fingerprints[card], dueTimes[card], intervals[card], eases[card], repetitions[card]);
+					}
+				}
+				for(byte[] record : this.mOtherRecords.values())
+				{
+					output.write(record);
+				}
+				output.flush();
+				file.getChannel().force(true);
+			}
+			finally
+			{
+				file.close();
+			}
+			
+			try
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException amnsex)
+			{
+				Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		}
+		catch(Exception ex)
+		{
+			ex.printStackTrace();
+			if(temp != null && temp.exists() && !temp.delete())
+			{
+				System.out.println("Could not delete temporary review file " + temp.getPath());
+			}
+			return false;
+		}
+	}
+	
+	// Write the state of a single card.
+	private static void writeRecord(DataOutputStream output, long fingerprint, long due, int interval, float ease, int repetitions) throws IOException
+	{
+		output.writeLong(fingerprint);
+		output.writeLong(due);
+		output.writeInt(interval);
+		output.writeFloat(ease);
+		output.writeShort(Math.min(repetitions, Short.MAX_VALUE));
+	}
+}
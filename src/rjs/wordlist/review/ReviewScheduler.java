@@ -0,0 +1,291 @@
+package rjs.wordlist.review;
+
+import java.util.HashMap;
+
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListDeduplicator;
+
+// Schedules the words of a word list as cards for spaced repetition, following the SM-2 algorithm.
+// Every card has an ease, an interval in days and a number of successful repetitions in a row.
+// Reviewing a card with a grade from 0 (forgotten) to 5 (perfect) sets the time it is due again:
+// successful reviews push it out by a growing interval, failed ones bring it back within a few minutes.
+// Reviewed cards wait in a queue ordered by due time, so the next card is found in constant time
+// and a review takes O(log n), also for word lists with hundreds of thousands of words.
+// Cards due now come first, then cards never reviewed in list order, then the cards due next.
+// The state of all cards is kept in arrays indexed like the word list and stored in a side file beside it.
+// Not thread-safe, use it from the event dispatch thread only.
+public class ReviewScheduler
+{
+	// Grades offered to the user. SM-2 counts grades below 3 as failed.
+	public static final int GRADE_AGAIN = 1;
+	public static final int GRADE_HARD = 3;
+	public static final int GRADE_GOOD = 4;
+	public static final int GRADE_EASY = 5;
+	
+	// Lowest and highest grade accepted.
+	public static final int MINIMUM_GRADE = 0;
+	public static final int MAXIMUM_GRADE = 5;
+	
+	// Due time of cards never reviewed.
+	static final long NOT_REVIEWED = 0;
+	
+	// Lowest grade counting as successful review.
+	private static final int PASSING_GRADE = 3;
+	
+	// Ease of new cards and lowest ease of any card.
+	private static final float DEFAULT_EASE = 2.5f;
+	private static final float MINIMUM_EASE = 1.3f;
+	
+	// Intervals after the first and second successful review, in days.
+	private static final int FIRST_INTERVAL = 1;
+	private static final int SECOND_INTERVAL = 6;
+	
+	// Longest interval, in days.
+	private static final int MAXIMUM_INTERVAL = 36500;
+	
+	// Length of a day and time until a failed card is shown again, in ms.
+	private static final long DAY = 24L * 60L * 60L * 1000L;
+	private static final long RELEARN_DELAY = 10L * 60L * 1000L;
+	
+	// Number of surplus records allowed in the side file before it is rewritten.
+	private static final int COMPACT_THRESHOLD = 1024;
+	
+	// Fingerprint of every card, identifies it in the side file.
+	private long[] mFingerprints = null;
+	
+	// Time every card is due again in ms since 1970, NOT_REVIEWED for new cards.
+	private long[] mDueTimes = null;
+	
+	// Current interval of every card in days, 0 while it is (re)learned.
+	private int[] mIntervals = null;
+	
+	// Ease of every card, the factor the interval grows by with every successful review.
+	private float[] mEases = null;
+	
+	// Number of successful reviews in a row of every card.
+	private int[] mRepetitions = null;
+	
+	// Reviewed cards ordered by due time.
+	private DueQueue mQueue = null;
+	
+	// First card that might not be reviewed yet. All cards before it have been reviewed.
+	private int mNextNewCard = 0;
+	
+	// Side file storing the state, null if the state is not stored.
+	private ReviewJournal mJournal = null;
+	
+	// Number of records in the side file.
+	private int mRecordCount = 0;
+	
+	// First card per fingerprint and the next card having the same fingerprint, only used while reading the side file.
+	private HashMap<Long, Integer> mCardsByFingerprint = null;
+	private int[] mSameFingerprint = null;
+	
+	// Create the schedule of a word list and restore the state stored beside the word list file.
+	// If the path is null, all cards start new and nothing is stored.
+	public ReviewScheduler(WordList wordList, String wordListPath)
+	{
+		int count = wordList.getWordCount();
+		this.mFingerprints = new long[count];
+		this.mDueTimes = new long[count];
+		this.mIntervals = new int[count];
+		this.mEases = new float[count];
+		this.mRepetitions = new int[count];
+		for(int card = 0; card < count; ++card)
+		{
+			this.mFingerprints[card] = WordListDeduplicator.fingerprint(wordList.getWordAt(card), WordListDeduplicator.KEY_ALL_FIELDS);
+			this.mDueTimes[card] = NOT_REVIEWED;
+			this.mEases[card] = DEFAULT_EASE;
+		}
+		this.mQueue = new DueQueue(this.mDueTimes);
+		this.mNextNewCard = 0;
+		
+		if(wordListPath != null && !wordListPath.isEmpty())
+		{
+			this.mJournal = new ReviewJournal(wordListPath);
+			this.restoreState();
+		}
+	}
+	
+	// Getter number of cards.
+	public int getCardCount()
+	{
+		return this.mDueTimes.length;
+	}
+	
+	// Getter number of cards reviewed at least once.
+	public int getReviewedCount()
+	{
+		return this.mQueue.size();
+	}
+	
+	// Check whether a card has never been reviewed.
+	public boolean isNew(int card)
+	{
+		return this.mDueTimes[card] == NOT_REVIEWED;
+	}
+	
+	// Getter time a card is due again in ms since 1970, NOT_REVIEWED for new cards.
+	public long getDueTime(int card)
+	{
+		return this.mDueTimes[card];
+	}
+	
+	// Getter current interval of a card in days.
+	public int getInterval(int card)
+	{
+		return this.mIntervals[card];
+	}
+	
+	// Getter ease of a card.
+	public float getEase(int card)
+	{
+		return this.mEases[card];
+	}
+	
+	// Getter the card to show next at the given time, -1 if there are no cards.
+	// If no card is due and all cards have been reviewed, the card due next is shown ahead of time.
+	public int nextCard(long now)
+	{
+		int first = this.mQueue.peek();
+		if(first >= 0 && this.mDueTimes[first] <= now)
+		{
+			return first;
+		}
+		
+		while(this.mNextNewCard < this.mDueTimes.length && this.mDueTimes[this.mNextNewCard] != NOT_REVIEWED)
+		{
+			++this.mNextNewCard;
+		}
+		if(this.mNextNewCard < this.mDueTimes.length)
+		{
+			return this.mNextNewCard;
+		}
+		
+		return first;
+	}
+	
+	// Grade the review of a card at the given time and schedule it again.
+	public void review(int card, int grade, long now)
+	{
+		if(grade < MINIMUM_GRADE || grade > MAXIMUM_GRADE)
+		{
+			throw new IllegalArgumentException("Grade must be between " + MINIMUM_GRADE + " and " + MAXIMUM_GRADE + ": " + grade);
+		}
+		
+		if(grade < PASSING_GRADE)
+		{
+			// Forgotten, learn it again from the start. SM-2 keeps the ease in this case.
+			this.mRepetitions[card] = 0;
+			this.mIntervals[card] = 0;
+			this.mDueTimes[card] = now + RELEARN_DELAY;
+		}
+		else
+		{
+			int interval;
+			if(this.mRepetitions[card] == 0)
+			{
+				interval = FIRST_INTERVAL;
+			}
+			else if(this.mRepetitions[card] == 1)
+			{
+				interval = SECOND_INTERVAL;
+			}
+			else
+			{
+				interval = (int)Math.min(Math.round(this.mIntervals[card] * (double)this.mEases[card]), MAXIMUM_INTERVAL);
+			}
+			
+			int miss = MAXIMUM_GRADE - grade;
+			this.mEases[card] = Math.max(MINIMUM_EASE, this.mEases[card] + 0.1f - miss * (0.08f + miss * 0.02f));
+			this.mIntervals[card] = interval;
+			++this.mRepetitions[card];
+			this.mDueTimes[card] = now + interval * DAY;
+		}
+		
+		// A due time of exactly NOT_REVIEWED would make the card new again.
+		if(this.mDueTimes[card] == NOT_REVIEWED)
+		{
+			this.mDueTimes[card] = NOT_REVIEWED + 1;
+		}
+		this.mQueue.update(card);
+		
+		if(this.mJournal != null)
+		{
+			if(this.mJournal.append(this.mFingerprints[card], this.mDueTimes[card], this.mIntervals[card], this.mEases[card], this.mRepetitions[card]))
+			{
+				++this.mRecordCount;
+			}
+			this.compactIfNeeded();
+		}
+	}
+	
+	// Apply a record of the side file to all cards having its fingerprint.
+	// Returns false if no card has the fingerprint.
+	boolean restore(long fingerprint, long due, int interval, float ease, int repetitions)
+	{
+		Integer first = this.mCardsByFingerprint.get(fingerprint);
+		if(first == null)
+		{
+			return false;
+		}
+		if(due == NOT_REVIEWED)
+		{
+			return true;
+		}
+		
+		for(int card = first; card >= 0; card = this.mSameFingerprint[card])
+		{
+			this.mDueTimes[card] = due;
+			this.mIntervals[card] = Math.max(0, Math.min(interval, MAXIMUM_INTERVAL));
+			this.mEases[card] = ease >= MINIMUM_EASE ? ease : MINIMUM_EASE;
+			this.mRepetitions[card] = Math.max(0, repetitions);
+			this.mQueue.update(card);
+		}
+		return true;
+	}
+	
+	// Read the side file and rewrite it if it holds too many outdated records.
+	// If it can not be read, nothing is stored during this session, so the file is left as it is.
+	private void restoreState()
+	{
+		// Map fingerprints to cards, the same word may appear more than once in a list.
+		this.mCardsByFingerprint = new HashMap<Long, Integer>(this.mFingerprints.length * 2);
+		this.mSameFingerprint = new int[this.mFingerprints.length];
+		for(int card = this.mFingerprints.length - 1; card >= 0; --card)
+		{
+			Integer next = this.mCardsByFingerprint.put(this.mFingerprints[card], card);
+			this.mSameFingerprint[card] = next == null ? -1 : next;
+		}
+		
+		int records = this.mJournal.read(this);
+		this.mCardsByFingerprint = null;
+		this.mSameFingerprint = null;
+		
+		if(records < 0)
+		{
+			System.out.println("Review state is not stored in this session.");
+			this.mJournal = null;
+			return;
+		}
+		
+		this.mRecordCount = records;
+		this.compactIfNeeded();
+	}
+	
+	// Rewrite the side file with one record per reviewed card once it holds too many outdated records.
+	// Records of words not in the word list are kept.
+	private void compactIfNeeded()
+	{
+		int keptRecords = this.mQueue.size() + this.mJournal.getOtherRecordCount();
+		if(this.mRecordCount <= 2 * keptRecords + COMPACT_THRESHOLD)
+		{
+			return;
+		}
+		
+		if(this.mJournal.rewrite(this.mFingerprints, this.mDueTimes, this.mIntervals, this.mEases, this.mRepetitions))
+		{
+			this.mRecordCount = keptRecords;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package rjs.wordlist.search;
+
+import java.util.HashMap;
+
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListItem;
+
+// Finds words by their reading, regardless of the script it is written in.
+// Hiragana, katakana and romaji of every word are folded into hiragana (see KanaNormalizer),
+// the folded forms are the keys of a hash map. A query is folded the same way and looked up directly,
+// so the lookup takes time proportional to the length of the query, not to the size of the word list.
+class FoldedIndex
+{
+	// Number of every distinct folded form.
+	private HashMap<String, Integer> mKeyIds = null;
+	
+	// Words per folded form number.
+	private PostingIndex mPostings = null;
+	
+	// Build the index for the given word list.
+	FoldedIndex(WordList wordList)
+	{
+		this.mKeyIds = new HashMap<String, Integer>(wordList.getWordCount() * 2);
+		this.mPostings = new PostingIndex();
+		
+		// One buffer for all texts, only the folded keys become strings.
+		StringBuilder folded = new StringBuilder(64);
+		for(int index = 0; index < wordList.getWordCount(); ++index)
+		{
+			WordListItem item = wordList.getWordAt(index);
+			this.addText(item.getHiraganaText(), index, folded);
+			this.addText(item.getKatakanaText(), index, folded);
+			this.addText(item.getRomajiText(), index, folded);
+		}
+		this.mPostings.build();
+	}
+	
+	// Fold a text of a word and post the word under it.
+	private void addText(String text, int word, StringBuilder folded)
+	{
+		if(text.equals(WordListItem.emptySign))
+		{
+			return;
+		}
+		
+		folded.setLength(0);
+		KanaNormalizer.fold(text, folded);
+		if(folded.length() == 0)
+		{
+			return;
+		}
+		
+		String key = folded.toString();
+		Integer id = this.mKeyIds.get(key);
+		if(id == null)
+		{
+			id = this.mKeyIds.size();
+			this.mKeyIds.put(key, id);
+		}
+		this.mPostings.add(id, word);
+	}
+	
+	// Getter sorted indices of all words having a reading equal to the query in any script.
+	int[] find(String query)
+	{
+		Integer id = this.mKeyIds.get(KanaNormalizer.fold(query));
+		if(id == null)
+		{
+			return new int[0];
+		}
+		return this.mPostings.get(id);
+	}
+}
@@ -0,0 +1,300 @@
+package rjs.wordlist.search;
+
+import java.util.Arrays;
+
+// Folds japanese text written in hiragana, katakana or romaji into one form: hiragana.
+// Katakana are mapped to hiragana by the fixed offset between both blocks, romaji syllables are looked up
+// in a sorted table of packed ints. Hepburn, Kunrei-shiki and typical keyboard spellings (si, tu, nn, xtu, ...) are understood.
+// Characters that can not be folded are kept, latin letters in lower case.
+// Folding appends to a given StringBuilder and creates no objects per character.
+public class KanaNormalizer
+{
+	// Offset between a katakana and the corresponding hiragana.
+	private static final int KATAKANA_OFFSET = 0x60;
+	
+	// First and last katakana having a hiragana counterpart (small a to small ke).
+	private static final char FIRST_KATAKANA = '\u30A1';									// xa
+	private static final char LAST_KATAKANA = '\u30F6';									// xke
+	
+	// First and last hiragana (small a to small ke).
+	private static final char FIRST_HIRAGANA = '\u3041';									// xa
+	private static final char LAST_HIRAGANA = '\u3096';									// xke
+	
+	// Katakana long vowel mark, lengthens the vowel of the kana in front of it.
+	private static final char LONG_VOWEL_MARK = '\u30FC';									// -
+	
+	// Longest romaji syllable in the table.
+	private static final int MAX_SYLLABLE_LENGTH = 4;
+	
+	// Small tsu, used for doubled consonants.
+	private static final char SMALL_TSU = '\u3063';										// xtsu
+	
+	// Syllabic n.
+	private static final char SYLLABIC_N = '\u3093';										// n
+	
+	// Romaji syllables and their kana, every kana right behind its romaji.
+	private static final String[] SYLLABLES = {
+		"a", "\u3042", "i", "\u3044", "u", "\u3046", "e", "\u3048", "o", "\u304A",
+		"ka", "\u304B", "ki", "\u304D", "ku", "\u304F", "ke", "\u3051", "ko", "\u3053",
+		"kya", "\u304D\u3083", "kyu", "\u304D\u3085", "kyo", "\u304D\u3087",
+		"sa", "\u3055", "shi", "\u3057", "si", "\u3057", "su", "\u3059", "se", "\u305B", "so", "\u305D",
+		"sha", "\u3057\u3083", "shu", "\u3057\u3085", "sho", "\u3057\u3087", "she", "\u3057\u3047",
+		"sya", "\u3057\u3083", "syu", "\u3057\u3085", "syo", "\u3057\u3087",
+		"ta", "\u305F", "chi", "\u3061", "ti", "\u3061", "tsu", "\u3064", "tu", "\u3064", "te", "\u3066", "to", "\u3068",
+		"cha", "\u3061\u3083", "chu", "\u3061\u3085", "cho", "\u3061\u3087", "che", "\u3061\u3047",
+		"tya", "\u3061\u3083", "tyu", "\u3061\u3085", "tyo", "\u3061\u3087",
+		"cya", "\u3061\u3083", "cyu", "\u3061\u3085", "cyo", "\u3061\u3087",
+		"na", "\u306A", "ni", "\u306B", "nu", "\u306C", "ne", "\u306D", "no", "\u306E",
+		"nya", "\u306B\u3083", "nyu", "\u306B\u3085", "nyo", "\u306B\u3087",
+		"ha", "\u306F", "hi", "\u3072", "fu", "\u3075", "hu", "\u3075", "he", "\u3078", "ho", "\u307B",
+		"hya", "\u3072\u3083", "hyu", "\u3072\u3085", "hyo", "\u3072\u3087",
+		"fa", "\u3075\u3041", "fi", "\u3075\u3043", "fe", "\u3075\u3047", "fo", "\u3075\u3049",
+		"ma", "\u307E", "mi", "\u307F", "mu", "\u3080", "me", "\u3081", "mo", "\u3082",
+		"mya", "\u307F\u3083", "myu", "\u307F\u3085", "myo", "\u307F\u3087",
+		"ya", "\u3084", "yu", "\u3086", "yo", "\u3088",
+		"ra", "\u3089", "ri", "\u308A", "ru", "\u308B", "re", "\u308C", "ro", "\u308D",
+		"rya", "\u308A\u3083", "ryu", "\u308A\u3085", "ryo", "\u308A\u3087",
+		"wa", "\u308F", "wo", "\u3092",
+		"ga", "\u304C", "gi", "\u304E", "gu", "\u3050", "ge", "\u3052", "go", "\u3054",
+		"gya", "\u304E\u3083", "gyu", "\u304E\u3085", "gyo", "\u304E\u3087",
+		"za", "\u3056", "ji", "\u3058", "zi", "\u3058", "zu", "\u305A", "ze", "\u305C", "zo", "\u305E",
+		"ja", "\u3058\u3083", "ju", "\u3058\u3085", "jo", "\u3058\u3087", "je", "\u3058\u3047",
+		"zya", "\u3058\u3083", "zyu", "\u3058\u3085", "zyo", "\u3058\u3087",
+		"jya", "\u3058\u3083", "jyu", "\u3058\u3085", "jyo", "\u3058\u3087",
+		"da", "\u3060", "di", "\u3062", "du", "\u3065", "de", "\u3067", "do", "\u3069",
+		"ba", "\u3070", "bi", "\u3073", "bu", "\u3076", "be", "\u3079", "bo", "\u307C",
+		"bya", "\u3073\u3083", "byu", "\u3073\u3085", "byo", "\u3073\u3087",
+		"pa", "\u3071", "pi", "\u3074", "pu", "\u3077", "pe", "\u307A", "po", "\u307D",
+		"pya", "\u3074\u3083", "pyu", "\u3074\u3085", "pyo", "\u3074\u3087",
+		"xa", "\u3041", "xi", "\u3043", "xu", "\u3045", "xe", "\u3047", "xo", "\u3049",
+		"la", "\u3041", "li", "\u3043", "lu", "\u3045", "le", "\u3047", "lo", "\u3049",
+		"xya", "\u3083", "xyu", "\u3085", "xyo", "\u3087", "lya", "\u3083", "lyu", "\u3085", "lyo", "\u3087",
+		"xtu", "\u3063", "ltu", "\u3063", "xtsu", "\u3063", "ltsu", "\u3063",
+	};
+	
+	// Packed romaji syllables, sorted. Every letter takes 8 bits, the first letter the highest ones.
+	// Only ASCII letters are used, so the keys are never negative.
+	private static final int[] SYLLABLE_KEYS;
+	
+	// Packed kana of every syllable: first kana in the upper, optional second kana in the lower 16 bits.
+	private static final int[] SYLLABLE_KANA;
+	
+	// Vowel (as latin letter) every hiragana ends with, indexed from the first hiragana. 0 for kana without vowel.
+	private static final char[] HIRAGANA_VOWELS;
+	
+	static
+	{
+		int count = SYLLABLES.length / 2;
+		long[] entries = new long[count];
+		HIRAGANA_VOWELS = new char[LAST_HIRAGANA - FIRST_HIRAGANA + 1];
+		for(int index = 0; index < count; ++index)
+		{
+			String romaji = SYLLABLES[index * 2];
+			String kana = SYLLABLES[index * 2 + 1];
+			HIRAGANA_VOWELS[kana.charAt(kana.length() - 1) - FIRST_HIRAGANA] = romaji.charAt(romaji.length() - 1);
+			int key = 0;
+			for(int letter = 0; letter < romaji.length(); ++letter)
+			{
+				key = (key << 8) | romaji.charAt(letter);
+			}
+			int value = (kana.charAt(0) << 16) | (kana.length() > 1 ? kana.charAt(1) : 0);
+			entries[index] = ((long)key << 32) | (value & 0xFFFFFFFFL);
+		}
+		Arrays.sort(entries);
+		
+		SYLLABLE_KEYS = new int[count];
+		SYLLABLE_KANA = new int[count];
+		for(int index = 0; index < count; ++index)
+		{
+			SYLLABLE_KEYS[index] = (int)(entries[index] >>> 32);
+			SYLLABLE_KANA[index] = (int)entries[index];
+		}
+	}
+	
+	// Private constructor, only static methods.
+	private KanaNormalizer()
+	{
+	}
+	
+	// Fold a text into hiragana.
+	public static String fold(String text)
+	{
+		StringBuilder folded = new StringBuilder(text.length());
+		KanaNormalizer.fold(text, folded);
+		return folded.toString();
+	}
+	
+	// Fold a text into hiragana and append the result. Spaces, hyphens and apostrophes within romaji are dropped.
+	// A long vowel mark becomes the kana a long vowel is written with in romaji with macrons, e.g. "o" + mark as "ou".
+	public static void fold(CharSequence text, StringBuilder output)
+	{
+		int start = output.length();
+		int index = 0;
+		int length = text.length();
+		while(index < length)
+		{
+			char letter = KanaNormalizer.toLowerCase(text.charAt(index));
+			
+			if(letter >= FIRST_KATAKANA && letter <= LAST_KATAKANA)
+			{
+				output.append((char)(letter - KATAKANA_OFFSET));
+				++index;
+				continue;
+			}
+			
+			if(letter == LONG_VOWEL_MARK && output.length() > start)
+			{
+				char previous = output.charAt(output.length() - 1);
+				char vowel = previous >= FIRST_HIRAGANA && previous <= LAST_HIRAGANA ? HIRAGANA_VOWELS[previous - FIRST_HIRAGANA] : 0;
+				if(vowel != 0)
+				{
+					output.append(KanaNormalizer.getLongVowelKana(vowel));
+					++index;
+					continue;
+				}
+			}
+			
+			if(letter == ' ' || letter == '-' || letter == '\'')
+			{
+				++index;
+				continue;
+			}
+			
+			if(letter >= 'a' && letter <= 'z')
+			{
+				char next = index + 1 < length ? KanaNormalizer.toLowerCase(text.charAt(index + 1)) : 0;
+				
+				// Syllabic n: before consonants, at the end, as "nn" or written as "n'".
+				if(letter == 'n' && !KanaNormalizer.isVowel(next) && next != 'y')
+				{
+					output.append(SYLLABIC_N);
+					char afterNext = index + 2 < length ? KanaNormalizer.toLowerCase(text.charAt(index + 2)) : 0;
+					boolean consumeNext = next == '\'' || (next == 'n' && !KanaNormalizer.isVowel(afterNext) && afterNext != 'y');
+					index += consumeNext ? 2 : 1;
+					continue;
+				}
+				
+				// Doubled consonant (and "tch"): small tsu, the second consonant starts the next syllable.
+				if(!KanaNormalizer.isVowel(letter) && letter != 'n' && (next == letter || (letter == 't' && next == 'c')))
+				{
+					output.append(SMALL_TSU);
+					++index;
+					continue;
+				}
+			}
+			
+			// Longest matching syllable. A long vowel (macron or circumflex) ends a syllable and adds a vowel behind it.
+			int matched = 0;
+			int kana = 0;
+			char extension = 0;
+			int key = 0;
+			for(int syllableLength = 1; syllableLength <= MAX_SYLLABLE_LENGTH && index + syllableLength <= length; ++syllableLength)
+			{
+				char syllableLetter = KanaNormalizer.toLowerCase(text.charAt(index + syllableLength - 1));
+				char baseLetter = KanaNormalizer.getShortVowel(syllableLetter);
+				if(baseLetter > 0x7F)
+				{
+					break;
+				}
+				key = (key << 8) | baseLetter;
+				int found = Arrays.binarySearch(SYLLABLE_KEYS, key);
+				if(found >= 0)
+				{
+					matched = syllableLength;
+					kana = SYLLABLE_KANA[found];
+					extension = KanaNormalizer.getLongVowelExtension(syllableLetter);
+				}
+				if(baseLetter != syllableLetter)
+				{
+					break;
+				}
+			}
+			
+			if(matched > 0)
+			{
+				output.append((char)(kana >>> 16));
+				if((kana & 0xFFFF) != 0)
+				{
+					output.append((char)(kana & 0xFFFF));
+				}
+				if(extension != 0)
+				{
+					output.append(extension);
+				}
+				index += matched;
+			}
+			else
+			{
+				output.append(letter);
+				++index;
+			}
+		}
+	}
+	
+	// Lower case of latin letters, other characters are kept.
+	private static char toLowerCase(char letter)
+	{
+		if(letter >= 'A' && letter <= 'Z')
+		{
+			return (char)(letter + ('a' - 'A'));
+		}
+		return letter;
+	}
+	
+	// Whether a letter is a latin vowel, including long vowels.
+	private static boolean isVowel(char letter)
+	{
+		switch(KanaNormalizer.getShortVowel(letter))
+		{
+			case 'a': case 'i': case 'u': case 'e': case 'o':
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	// Vowel of a long vowel written with macron or circumflex. Other letters are kept.
+	private static char getShortVowel(char letter)
+	{
+		switch(letter)
+		{
+			case '\u0101': case '\u00E2': case '\u0100': case '\u00C2':		// a with macron or circumflex
+				return 'a';
+			case '\u012B': case '\u00EE': case '\u012A': case '\u00CE':		// i with macron or circumflex
+				return 'i';
+			case '\u016B': case '\u00FB': case '\u016A': case '\u00DB':		// u with macron or circumflex
+				return 'u';
+			case '\u0113': case '\u00EA': case '\u0112': case '\u00CA':		// e with macron or circumflex
+				return 'e';
+			case '\u014D': case '\u00F4': case '\u014C': case '\u00D4':		// o with macron or circumflex
+				return 'o';
+			default:
+				return letter;
+		}
+	}
+	
+	// Hiragana lengthening a long vowel written with macron or circumflex, 0 for other letters.
+	private static char getLongVowelExtension(char letter)
+	{
+		char vowel = KanaNormalizer.getShortVowel(letter);
+		return vowel == letter ? 0 : KanaNormalizer.getLongVowelKana(vowel);
+	}
+	
+	// Hiragana lengthening a vowel (as usually written in kana), 0 for other letters.
+	private static char getLongVowelKana(char vowel)
+	{
+		switch(vowel)
+		{
+			case 'a':
+				return '\u3042';												// a
+			case 'i':
+			case 'e':
+				return '\u3044';												// i
+			case 'u':
+			case 'o':
+				return '\u3046';												// u
+			default:
+				return 0;
+		}
+	}
+}
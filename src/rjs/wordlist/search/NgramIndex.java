@@ -0,0 +1,108 @@
+package rjs.wordlist.search;
+
+import java.util.Arrays;
+
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListItem;
+
+// Finds words containing a piece of text in their hiragana, katakana or kanji.
+// Japanese text has no word boundaries, so every single character and every pair of neighbouring characters is indexed.
+// A query is answered by intersecting the words of all its character pairs, then checking the candidates for the whole query.
+class NgramIndex
+{
+	// The indexed word list, needed to check candidates.
+	private WordList mWordList = null;
+	
+	// Words per single character (key is the character) and per character pair (key is both characters packed).
+	private PostingIndex mPostings = null;
+	
+	// Build the index for the given word list.
+	NgramIndex(WordList wordList)
+	{
+		this.mWordList = wordList;
+		this.mPostings = new PostingIndex();
+		
+		for(int index = 0; index < wordList.getWordCount(); ++index)
+		{
+			WordListItem item = wordList.getWordAt(index);
+			this.addText(item.getHiraganaText(), index);
+			this.addText(item.getKatakanaText(), index);
+			this.addText(item.getKanjiText(), index);
+		}
+		this.mPostings.build();
+	}
+	
+	// Getter sorted indices of all words whose hiragana, katakana or kanji contain the given text.
+	int[] find(String text)
+	{
+		if(text.isEmpty())
+		{
+			return new int[0];
+		}
+		if(text.length() == 1)
+		{
+			return this.mPostings.get(text.charAt(0));
+		}
+		
+		// Start with the rarest pair to keep the intersections small.
+		int rarest = 0;
+		for(int index = 1; index + 1 < text.length(); ++index)
+		{
+			if(this.mPostings.getCount(NgramIndex.pairKey(text, index)) < this.mPostings.getCount(NgramIndex.pairKey(text, rarest)))
+			{
+				rarest = index;
+			}
+		}
+		
+		int[] candidates = this.mPostings.get(NgramIndex.pairKey(text, rarest));
+		for(int index = 0; index + 1 < text.length() && candidates.length > 0; ++index)
+		{
+			if(index != rarest)
+			{
+				candidates = PostingIndex.intersect(candidates, this.mPostings.get(NgramIndex.pairKey(text, index)));
+			}
+		}
+		
+		if(text.length() == 2)
+		{
+			return candidates;
+		}
+		
+		// All pairs occurring does not mean they occur in a row.
+		int count = 0;
+		for(int candidate : candidates)
+		{
+			WordListItem item = this.mWordList.getWordAt(candidate);
+			if(item.getHiraganaText().contains(text) || item.getKatakanaText().contains(text) || item.getKanjiText().contains(text))
+			{
+				candidates[count++] = candidate;
+			}
+		}
+		return Arrays.copyOf(candidates, count);
+	}
+	
+	// Index all characters and character pairs of a text.
+	private void addText(String text, int word)
+	{
+		if(text.equals(WordListItem.emptySign))
+		{
+			return;
+		}
+		
+		for(int index = 0; index < text.length(); ++index)
+		{
+			this.mPostings.add(text.charAt(index), word);
+			if(index + 1 < text.length())
+			{
+				this.mPostings.add(NgramIndex.pairKey(text, index), word);
+			}
+		}
+	}
+	
+	// Key of the character pair starting at the given index. Never equal to the key of a single character,
+	// as the first character is never zero.
+	private static int pairKey(String text, int index)
+	{
+		return (text.charAt(index) << 16) | text.charAt(index + 1);
+	}
+}
@@ -0,0 +1,205 @@
+package rjs.wordlist.search;
+
+import java.util.Arrays;
+
+// Maps integer keys to the sorted indices of the words containing them.
+// Pairs of key and word index are collected first, then sorted once and packed into flat arrays:
+// the distinct keys, the start of every key within the postings and the postings (word indices) themselves.
+// No objects are created per key or per word, so even large word lists need only a few arrays.
+class PostingIndex
+{
+	// Collected pairs while the index is built, key in the upper and word index in the lower half. Null once built.
+	private long[] mPairs = null;
+	
+	// Number of collected pairs.
+	private int mPairCount = 0;
+	
+	// Distinct keys in ascending order.
+	private int[] mKeys = null;
+	
+	// Start of the postings of every key, the additional last entry is the number of postings.
+	private int[] mStarts = null;
+	
+	// Word indices of all keys, ascending per key.
+	private int[] mWords = null;
+	
+	// Create an empty index. Add pairs, then call build.
+	PostingIndex()
+	{
+		this.mPairs = new long[1024];
+		this.mPairCount = 0;
+	}
+	
+	// Add a key found in the word at the given index. Duplicates are dropped on build.
+	void add(int key, int word)
+	{
+		if(this.mPairCount == this.mPairs.length)
+		{
+			this.mPairs = Arrays.copyOf(this.mPairs, this.mPairs.length * 2);
+		}
+		this.mPairs[this.mPairCount++] = ((long)key << 32) | (word & 0xFFFFFFFFL);
+	}
+	
+	// Sort the collected pairs and pack them. No pairs may be added afterwards.
+	void build()
+	{
+		Arrays.sort(this.mPairs, 0, this.mPairCount);
+		
+		int[] keys = new int[Math.max(1, this.mPairCount)];
+		int[] starts = new int[Math.max(1, this.mPairCount) + 1];
+		int[] words = new int[this.mPairCount];
+		int keyCount = 0;
+		int wordCount = 0;
+		
+		for(int index = 0; index < this.mPairCount; ++index)
+		{
+			long pair = this.mPairs[index];
+			if(index > 0 && pair == this.mPairs[index - 1])
+			{
+				continue;
+			}
+			
+			int key = (int)(pair >> 32);
+			if(keyCount == 0 || keys[keyCount - 1] != key)
+			{
+				keys[keyCount] = key;
+				starts[keyCount] = wordCount;
+				++keyCount;
+			}
+			words[wordCount++] = (int)pair;
+		}
+		starts[keyCount] = wordCount;
+		
+		this.mKeys = Arrays.copyOf(keys, keyCount);
+		this.mStarts = Arrays.copyOf(starts, keyCount + 1);
+		this.mWords = Arrays.copyOf(words, wordCount);
+		this.mPairs = null;
+		this.mPairCount = 0;
+	}
+	
+	// Getter sorted word indices of a key, empty if the key is unknown.
+	int[] get(int key)
+	{
+		int keyIndex = Arrays.binarySearch(this.mKeys, key);
+		if(keyIndex < 0)
+		{
+			return new int[0];
+		}
+		return Arrays.copyOfRange(this.mWords, this.mStarts[keyIndex], this.mStarts[keyIndex + 1]);
+	}
+	
+	// Getter number of word indices of a key without copying them.
+	int getCount(int key)
+	{
+		int keyIndex = Arrays.binarySearch(this.mKeys, key);
+		if(keyIndex < 0)
+		{
+			return 0;
+		}
+		return this.mStarts[keyIndex + 1] - this.mStarts[keyIndex];
+	}
+	
+	// Getter sorted word indices of all keys in [fromKey, toKey), without duplicates.
+	int[] getRange(int fromKey, int toKey)
+	{
+		int from = PostingIndex.lowerBound(this.mKeys, fromKey);
+		int to = PostingIndex.lowerBound(this.mKeys, toKey);
+		if(to - from == 1)
+		{
+			return Arrays.copyOfRange(this.mWords, this.mStarts[from], this.mStarts[to]);
+		}
+		
+		int[] words = Arrays.copyOfRange(this.mWords, this.mStarts[from], this.mStarts[to]);
+		Arrays.sort(words);
+		return PostingIndex.distinct(words);
+	}
+	
+	// Intersection of two sorted arrays.
+	static int[] intersect(int[] first, int[] second)
+	{
+		int[] result = new int[Math.min(first.length, second.length)];
+		int count = 0;
+		int firstIndex = 0;
+		int secondIndex = 0;
+		while(firstIndex < first.length && secondIndex < second.length)
+		{
+			if(first[firstIndex] < second[secondIndex])
+			{
+				++firstIndex;
+			}
+			else if(first[firstIndex] > second[secondIndex])
+			{
+				++secondIndex;
+			}
+			else
+			{
+				result[count++] = first[firstIndex];
+				++firstIndex;
+				++secondIndex;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+	
+	// Union of two sorted arrays without duplicates.
+	static int[] union(int[] first, int[] second)
+	{
+		int[] result = new int[first.length + second.length];
+		int count = 0;
+		int firstIndex = 0;
+		int secondIndex = 0;
+		while(firstIndex < first.length || secondIndex < second.length)
+		{
+			int value = 0;
+			if(secondIndex >= second.length || (firstIndex < first.length && first[firstIndex] < second[secondIndex]))
+			{
+				value = first[firstIndex++];
+			}
+			else if(firstIndex >= first.length || second[secondIndex] < first[firstIndex])
+			{
+				value = second[secondIndex++];
+			}
+			else
+			{
+				value = first[firstIndex++];
+				++secondIndex;
+			}
+			result[count++] = value;
+		}
+		return Arrays.copyOf(result, count);
+	}
+	
+	// Remove duplicates from a sorted array.
+	static int[] distinct(int[] sorted)
+	{
+		int count = 0;
+		for(int index = 0; index < sorted.length; ++index)
+		{
+			if(count == 0 || sorted[count - 1] != sorted[index])
+			{
+				sorted[count++] = sorted[index];
+			}
+		}
+		return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+	}
+	
+	// Index of the first value not smaller than the key.
+	private static int lowerBound(int[] values, int key)
+	{
+		int low = 0;
+		int high = values.length;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(values[middle] < key)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
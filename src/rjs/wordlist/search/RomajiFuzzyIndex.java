@@ -0,0 +1,226 @@
+package rjs.wordlist.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListItem;
+
+// Finds words whose romaji is similar to a query, to forgive typical typos like "si" for "shi" or "tu" for "tsu".
+// Similarity is the Levenshtein distance (inserted, removed or replaced letters).
+// The distinct lower case romaji texts are sorted, which makes them the leaves of a flattened trie.
+// A query runs the Levenshtein automaton of the query along this trie: every prefix gets one row of the
+// edit distance matrix, computed from the row of the prefix one letter shorter. Keys sharing a prefix share its rows,
+// and once every value of a row exceeds the allowed distance, all keys starting with that prefix are skipped.
+class RomajiFuzzyIndex
+{
+	// Distinct lower case romaji texts, sorted.
+	private String[] mKeys = null;
+	
+	// Length of the common prefix of every key and the key before it.
+	private int[] mCommonPrefixes = null;
+	
+	// Length of the longest key.
+	private int mMaxKeyLength = 0;
+	
+	// Words per key.
+	private PostingIndex mPostings = null;
+	
+	// Build the index for the given word list.
+	RomajiFuzzyIndex(WordList wordList)
+	{
+		// Collect the distinct keys, numbered in order of appearance.
+		HashMap<String, Integer> keyIds = new HashMap<String, Integer>();
+		int[] wordKeys = new int[wordList.getWordCount()];
+		for(int index = 0; index < wordList.getWordCount(); ++index)
+		{
+			wordKeys[index] = -1;
+			String text = wordList.getWordAt(index).getRomajiText();
+			if(text.equals(WordListItem.emptySign))
+			{
+				continue;
+			}
+			
+			String key = text.toLowerCase(Locale.ROOT);
+			Integer id = keyIds.get(key);
+			if(id == null)
+			{
+				id = keyIds.size();
+				keyIds.put(key, id);
+			}
+			wordKeys[index] = id;
+		}
+		
+		// Sort the keys and renumber them accordingly.
+		this.mKeys = keyIds.keySet().toArray(new String[keyIds.size()]);
+		Arrays.sort(this.mKeys);
+		int[] sortedIds = new int[this.mKeys.length];
+		this.mCommonPrefixes = new int[this.mKeys.length];
+		for(int sortedId = 0; sortedId < this.mKeys.length; ++sortedId)
+		{
+			String key = this.mKeys[sortedId];
+			sortedIds[keyIds.get(key)] = sortedId;
+			this.mMaxKeyLength = Math.max(this.mMaxKeyLength, key.length());
+			if(sortedId > 0)
+			{
+				this.mCommonPrefixes[sortedId] = RomajiFuzzyIndex.commonPrefix(this.mKeys[sortedId - 1], key);
+			}
+		}
+		
+		this.mPostings = new PostingIndex();
+		for(int index = 0; index < wordKeys.length; ++index)
+		{
+			if(wordKeys[index] >= 0)
+			{
+				this.mPostings.add(sortedIds[wordKeys[index]], index);
+			}
+		}
+		this.mPostings.build();
+	}
+	
+	// Getter indices of all words whose romaji is at most maxDistance edits away from the (lower case) query.
+	// Closer words come first, words of equal distance are in word list order.
+	int[] find(String query, int maxDistance)
+	{
+		// Row per prefix length. Row zero belongs to the empty prefix: the query has to be inserted completely.
+		int[][] rows = new int[this.mMaxKeyLength + 1][query.length() + 1];
+		for(int column = 0; column <= query.length(); ++column)
+		{
+			rows[0][column] = column;
+		}
+		
+		// Matching keys per distance.
+		int[][] matches = new int[maxDistance + 1][4];
+		int[] matchCounts = new int[maxDistance + 1];
+		
+		// Number of letters of the previous key whose rows are computed.
+		int validRows = 0;
+		int keyIndex = 0;
+		while(keyIndex < this.mKeys.length)
+		{
+			String key = this.mKeys[keyIndex];
+			int depth = Math.min(validRows, this.mCommonPrefixes[keyIndex]);
+			boolean pruned = false;
+			
+			while(depth < key.length() && !pruned)
+			{
+				pruned = RomajiFuzzyIndex.computeRow(query, key.charAt(depth), rows[depth], rows[depth + 1]) > maxDistance;
+				++depth;
+			}
+			
+			if(pruned)
+			{
+				// No key starting with this prefix can get close enough, jump behind all of them.
+				// The following key shares less than the pruned prefix with the skipped ones.
+				keyIndex = this.skipPrefix(keyIndex, key.substring(0, depth));
+				validRows = depth - 1;
+				continue;
+			}
+			validRows = depth;
+			
+			int distance = rows[key.length()][query.length()];
+			if(distance <= maxDistance)
+			{
+				if(matchCounts[distance] == matches[distance].length)
+				{
+					matches[distance] = Arrays.copyOf(matches[distance], matches[distance].length * 2);
+				}
+				matches[distance][matchCounts[distance]++] = keyIndex;
+			}
+			++keyIndex;
+		}
+		
+		// Every word has exactly one key, so the words of different keys never overlap.
+		int wordCount = 0;
+		for(int distance = 0; distance <= maxDistance; ++distance)
+		{
+			for(int match = 0; match < matchCounts[distance]; ++match)
+			{
+				wordCount += this.mPostings.getCount(matches[distance][match]);
+			}
+		}
+		
+		int[] words = new int[wordCount];
+		wordCount = 0;
+		for(int distance = 0; distance <= maxDistance; ++distance)
+		{
+			int offset = wordCount;
+			for(int match = 0; match < matchCounts[distance]; ++match)
+			{
+				int[] keyWords = this.mPostings.get(matches[distance][match]);
+				System.arraycopy(keyWords, 0, words, wordCount, keyWords.length);
+				wordCount += keyWords.length;
+			}
+			Arrays.sort(words, offset, wordCount);
+		}
+		return words;
+	}
+	
+	// Compute the row of a prefix extended by one letter from the row of the prefix. Returns the smallest value of the row.
+	private static int computeRow(String query, char letter, int[] previous, int[] current)
+	{
+		current[0] = previous[0] + 1;
+		int minimum = current[0];
+		for(int column = 1; column <= query.length(); ++column)
+		{
+			int replace = previous[column - 1] + (letter == query.charAt(column - 1) ? 0 : 1);
+			int remove = previous[column] + 1;
+			int insert = current[column - 1] + 1;
+			current[column] = Math.min(replace, Math.min(remove, insert));
+			minimum = Math.min(minimum, current[column]);
+		}
+		return minimum;
+	}
+	
+	// Index of the first key behind the given one that does not start with the prefix.
+	private int skipPrefix(int keyIndex, String prefix)
+	{
+		int low = keyIndex + 1;
+		int high = this.mKeys.length;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(this.mKeys[middle].startsWith(prefix))
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	// Length of the common prefix of two texts.
+	private static int commonPrefix(String first, String second)
+	{
+		int length = 0;
+		while(length < first.length() && length < second.length() && first.charAt(length) == second.charAt(length))
+		{
+			++length;
+		}
+		return length;
+	}
+	
+	// Levenshtein distance between two texts.
+	static int distance(String first, String second)
+	{
+		int[] previous = new int[second.length() + 1];
+		int[] current = new int[second.length() + 1];
+		for(int column = 0; column <= second.length(); ++column)
+		{
+			previous[column] = column;
+		}
+		
+		for(int row = 0; row < first.length(); ++row)
+		{
+			RomajiFuzzyIndex.computeRow(second, first.charAt(row), previous, current);
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[second.length()];
+	}
+}
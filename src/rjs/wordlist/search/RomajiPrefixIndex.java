@@ -0,0 +1,84 @@
+package rjs.wordlist.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListItem;
+
+// Finds words by the start of their romaji text.
+// The lower case romaji of all words are kept in one sorted array, which is a trie flattened into its leaves:
+// all words below a trie node, i.e. sharing a prefix, form one contiguous range found by two binary searches.
+class RomajiPrefixIndex
+{
+	// Lower case romaji of all words having one, sorted.
+	private String[] mKeys = null;
+	
+	// Index of the word of every key.
+	private int[] mWords = null;
+	
+	// Build the index for the given word list.
+	RomajiPrefixIndex(WordList wordList)
+	{
+		int wordCount = wordList.getWordCount();
+		final String[] romaji = new String[wordCount];
+		Integer[] order = new Integer[wordCount];
+		int count = 0;
+		for(int index = 0; index < wordCount; ++index)
+		{
+			String text = wordList.getWordAt(index).getRomajiText();
+			if(!text.equals(WordListItem.emptySign))
+			{
+				romaji[index] = text.toLowerCase(Locale.ROOT);
+				order[count++] = index;
+			}
+		}
+		
+		// Stable sort, so equal keys keep the order of the word list.
+		Arrays.sort(order, 0, count, new Comparator<Integer>() {
+			public int compare(Integer first, Integer second)
+			{
+				return romaji[first].compareTo(romaji[second]);
+			}
+		});
+		
+		this.mKeys = new String[count];
+		this.mWords = new int[count];
+		for(int index = 0; index < count; ++index)
+		{
+			this.mWords[index] = order[index];
+			this.mKeys[index] = romaji[order[index]];
+		}
+	}
+	
+	// Getter sorted indices of all words whose romaji starts with the given (lower case) prefix.
+	int[] find(String prefix)
+	{
+		int from = this.lowerBound(prefix);
+		int to = this.lowerBound(prefix + Character.MAX_VALUE);
+		int[] words = Arrays.copyOfRange(this.mWords, from, to);
+		Arrays.sort(words);
+		return words;
+	}
+	
+	// Index of the first key not smaller than the given one.
+	private int lowerBound(String key)
+	{
+		int low = 0;
+		int high = this.mKeys.length;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(this.mKeys[middle].compareTo(key) < 0)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
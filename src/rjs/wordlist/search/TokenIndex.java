@@ -0,0 +1,152 @@
+package rjs.wordlist.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+import rjs.wordlist.WordList;
+import rjs.wordlist.WordListItem;
+
+// Finds words by the tokens of their translation.
+// A token is a run of letters or digits, compared in lower case.
+// The distinct tokens are numbered in alphabetical order, so all tokens starting with a prefix have consecutive numbers.
+class TokenIndex
+{
+	// Distinct tokens of all translations, sorted.
+	private String[] mTokens = null;
+	
+	// Words per token number.
+	private PostingIndex mPostings = null;
+	
+	// Build the index for the given word list.
+	TokenIndex(WordList wordList)
+	{
+		// First pass: collect the tokens, numbered in order of appearance.
+		HashMap<String, Integer> tokenIds = new HashMap<String, Integer>();
+		ArrayList<String> tokens = new ArrayList<String>();
+		int[] wordTokens = new int[1024];
+		int[] wordTokenStarts = new int[wordList.getWordCount() + 1];
+		int wordTokenCount = 0;
+		
+		for(int index = 0; index < wordList.getWordCount(); ++index)
+		{
+			wordTokenStarts[index] = wordTokenCount;
+			String translation = wordList.getWordAt(index).getTranslation();
+			if(translation.equals(WordListItem.emptySign))
+			{
+				continue;
+			}
+			
+			for(String token : TokenIndex.tokenize(translation))
+			{
+				Integer id = tokenIds.get(token);
+				if(id == null)
+				{
+					id = tokens.size();
+					tokenIds.put(token, id);
+					tokens.add(token);
+				}
+				
+				if(wordTokenCount == wordTokens.length)
+				{
+					wordTokens = Arrays.copyOf(wordTokens, wordTokens.length * 2);
+				}
+				wordTokens[wordTokenCount++] = id;
+			}
+		}
+		wordTokenStarts[wordList.getWordCount()] = wordTokenCount;
+		
+		// Renumber the tokens alphabetically.
+		this.mTokens = tokens.toArray(new String[tokens.size()]);
+		Arrays.sort(this.mTokens);
+		int[] sortedIds = new int[this.mTokens.length];
+		for(int sortedId = 0; sortedId < this.mTokens.length; ++sortedId)
+		{
+			sortedIds[tokenIds.get(this.mTokens[sortedId])] = sortedId;
+		}
+		
+		// Second pass: post the words under their renumbered tokens.
+		this.mPostings = new PostingIndex();
+		for(int index = 0; index < wordList.getWordCount(); ++index)
+		{
+			for(int tokenIndex = wordTokenStarts[index]; tokenIndex < wordTokenStarts[index + 1]; ++tokenIndex)
+			{
+				this.mPostings.add(sortedIds[wordTokens[tokenIndex]], index);
+			}
+		}
+		this.mPostings.build();
+	}
+	
+	// Getter sorted indices of all words whose translation contains all tokens of the query.
+	// The last token of the query may be incomplete, it matches all tokens starting with it.
+	int[] find(String query)
+	{
+		ArrayList<String> queryTokens = TokenIndex.tokenize(query);
+		if(queryTokens.isEmpty())
+		{
+			return new int[0];
+		}
+		
+		int[] words = null;
+		for(int index = 0; index < queryTokens.size() && (words == null || words.length > 0); ++index)
+		{
+			String token = queryTokens.get(index);
+			int[] tokenWords = null;
+			if(index + 1 < queryTokens.size())
+			{
+				int id = Arrays.binarySearch(this.mTokens, token);
+				tokenWords = id < 0 ? new int[0] : this.mPostings.get(id);
+			}
+			else
+			{
+				int from = this.lowerBound(token);
+				int to = this.lowerBound(token + Character.MAX_VALUE);
+				tokenWords = this.mPostings.getRange(from, to);
+			}
+			words = words == null ? tokenWords : PostingIndex.intersect(words, tokenWords);
+		}
+		return words;
+	}
+	
+	// Split a text into lower case tokens of letters and digits.
+	static ArrayList<String> tokenize(String text)
+	{
+		ArrayList<String> tokens = new ArrayList<String>();
+		int start = -1;
+		for(int index = 0; index <= text.length(); ++index)
+		{
+			boolean tokenChar = index < text.length() && Character.isLetterOrDigit(text.charAt(index));
+			if(tokenChar && start < 0)
+			{
+				start = index;
+			}
+			else if(!tokenChar && start >= 0)
+			{
+				tokens.add(text.substring(start, index).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+	
+	// Index of the first token not smaller than the given one.
+	private int lowerBound(String token)
+	{
+		int low = 0;
+		int high = this.mTokens.length;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(this.mTokens[middle].compareTo(token) < 0)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
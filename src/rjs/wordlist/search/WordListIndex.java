@@ -0,0 +1,108 @@
+package rjs.wordlist.search;
+
+import java.util.Locale;
+
+import rjs.wordlist.WordList;
+
+// Search index over all fields of a word list.
+// Combines a prefix index on romaji, a character n-gram index on hiragana, katakana and kanji
+// and an inverted token index on translations. A query is matched against all of them.
+// A folded index maps hiragana, katakana and romaji to one form, so a reading is found in any script.
+// Romaji with typos are found by a separate similarity search.
+// The index is immutable once built. It refers to word indices, so it has to be rebuilt whenever the word list changes.
+public class WordListIndex
+{
+	// The indexed word list.
+	private WordList mWordList = null;
+	
+	// Index on the start of the romaji texts.
+	private RomajiPrefixIndex mRomajiIndex = null;
+	
+	// Index on the characters of the japanese texts.
+	private NgramIndex mNgramIndex = null;
+	
+	// Index on the tokens of the translations.
+	private TokenIndex mTokenIndex = null;
+	
+	// Index on the similarity of the romaji texts.
+	private RomajiFuzzyIndex mFuzzyIndex = null;
+	
+	// Index on the readings folded into hiragana.
+	private FoldedIndex mFoldedIndex = null;
+	
+	// Private constructor, use build.
+	private WordListIndex()
+	{
+	}
+	
+	// Build the index for a word list. Takes a while for large word lists, so better call it on a background thread.
+	// The word list must not be changed while the index is built.
+	public static WordListIndex build(WordList wordList)
+	{
+		WordListIndex index = new WordListIndex();
+		index.mWordList = wordList;
+		index.mRomajiIndex = new RomajiPrefixIndex(wordList);
+		index.mNgramIndex = new NgramIndex(wordList);
+		index.mTokenIndex = new TokenIndex(wordList);
+		index.mFuzzyIndex = new RomajiFuzzyIndex(wordList);
+		index.mFoldedIndex = new FoldedIndex(wordList);
+		return index;
+	}
+	
+	// Getter the indexed word list.
+	public WordList getWordList()
+	{
+		return this.mWordList;
+	}
+	
+	// Find all words matching the query, as ascending word indices.
+	// A word matches if its romaji starts with the query, its hiragana, katakana or kanji contain the query,
+	// its reading equals the query in any script or its translation contains all words of the query.
+	// Empty queries match nothing.
+	public int[] search(String query)
+	{
+		String text = query.trim();
+		if(text.isEmpty())
+		{
+			return new int[0];
+		}
+		
+		int[] words = this.mRomajiIndex.find(text.toLowerCase(Locale.ROOT));
+		words = PostingIndex.union(words, this.mNgramIndex.find(text));
+		words = PostingIndex.union(words, this.mTokenIndex.find(text));
+		words = PostingIndex.union(words, this.mFoldedIndex.find(text));
+		return words;
+	}
+	
+	// Find all words whose reading equals the query, written in hiragana, katakana or romaji.
+	// Tokyo written in katakana, in hiragana, as "toukyou" or with macrons all find the same words.
+	public int[] searchFolded(String query)
+	{
+		String text = query.trim();
+		if(text.isEmpty())
+		{
+			return new int[0];
+		}
+		
+		return this.mFoldedIndex.find(text);
+	}
+	
+	// Find all words whose romaji is at most maxDistance edits (inserted, removed or replaced letters) away from the query.
+	// Closer words come first, words of equal distance are in word list order.
+	public int[] searchSimilar(String query, int maxDistance)
+	{
+		String text = query.trim();
+		if(text.isEmpty())
+		{
+			return new int[0];
+		}
+		
+		return this.mFuzzyIndex.find(text.toLowerCase(Locale.ROOT), maxDistance);
+	}
+	
+	// Find words whose romaji is similar to the query. Longer queries may contain more typos.
+	public int[] searchSimilar(String query)
+	{
+		return this.searchSimilar(query, query.trim().length() <= 4 ? 1 : 2);
+	}
+}
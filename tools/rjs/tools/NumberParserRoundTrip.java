@@ -0,0 +1,110 @@
+package rjs.tools;
+
+import java.math.BigDecimal;
+
+import rjs.numbers.KanaToNumberParser;
+import rjs.numbers.NumberToKanaConverter;
+import rjs.random.SplittableRandomSource;
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Command line tool to check the number parser against the converter.
+ * Converts random numbers with random readings into hiragana and kanji numerals, parses both back
+ * and compares the results with the original number. Also checks that some invalid texts are rejected.
+ * Usage: NumberParserRoundTrip [numberCount] [seed]
+ * @author Schlewinow
+ */
+public class NumberParserRoundTrip
+{
+	/**
+	 * Maximum number of digits before and after the comma of the random numbers.
+	 */
+	private static final int MAXIMUM_DIGITS_BEFORE_COMMA = 18;
+	private static final int MAXIMUM_DIGITS_AFTER_COMMA = 10;
+	
+	/**
+	 * Number of failures printed in detail.
+	 */
+	private static final int PRINTED_FAILURES = 10;
+	
+	/**
+	 * Texts which are no valid numbers: digits in a row, powers in the wrong order, zero in a number,
+	 * a unit without number, a sound change at the end, a comma without digits and a minus in the middle.
+	 */
+	private static final String[] INVALID_TEXTS = { "\u306B\u3055\u3093", "\u3072\u3083\u304F\u305B\u3093", "\u3058\u3085\u3046\u308C\u3044",
+			"\u307E\u3093", "\u3044\u3063", "\u3054\u3066\u3093", "\u3054\u30DE\u30A4\u30CA\u30B9", "\u4E8C\u4E09", "\u5343\u4E07\u5104", "", "abc" };
+	
+	public static void main(String[] args)
+	{
+		int numberCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 5;
+		
+		IRandomSource random = new SplittableRandomSource(seed);
+		NumberToKanaConverter converter = new NumberToKanaConverter(random);
+		KanaToNumberParser parser = new KanaToNumberParser();
+		StringBuilder hiragana = new StringBuilder();
+		StringBuilder kanji = new StringBuilder();
+		
+		long failed = 0;
+		long parseTime = 0;
+		for(int index = 0; index < numberCount; ++index)
+		{
+			// Random length first, so short and long numbers are checked equally often.
+			int digitsBeforeComma = random.nextInt(MAXIMUM_DIGITS_BEFORE_COMMA + 1);
+			long beforeComma = digitsBeforeComma == 0 ? 0 : random.nextLong(digitsBeforeComma < 18 ? NumberParserRoundTrip.powerOfTen(digitsBeforeComma) : Long.MAX_VALUE);
+			int digitsAfterComma = random.nextInt(4) == 0 ? random.nextInt(MAXIMUM_DIGITS_AFTER_COMMA + 1) : 0;
+			long afterComma = digitsAfterComma == 0 ? 0 : random.nextLong(NumberParserRoundTrip.powerOfTen(digitsAfterComma));
+			boolean negative = random.nextBoolean();
+			
+			BigDecimal expected = BigDecimal.valueOf(beforeComma).add(BigDecimal.valueOf(afterComma, digitsAfterComma));
+			expected = negative ? expected.negate() : expected;
+			
+			hiragana.setLength(0);
+			kanji.setLength(0);
+			converter.appendNumber(negative, beforeComma, afterComma, digitsAfterComma, hiragana, kanji);
+			
+			long start = System.nanoTime();
+			BigDecimal fromHiragana = parser.parse(hiragana);
+			BigDecimal fromKanji = parser.parse(kanji);
+			parseTime += System.nanoTime() - start;
+			
+			if(!expected.equals(fromHiragana) || !expected.equals(fromKanji))
+			{
+				if(failed < PRINTED_FAILURES)
+				{
+					System.out.println("Mismatch: " + expected + " " + hiragana + " -> " + fromHiragana + ", " + kanji + " -> " + fromKanji);
+				}
+				++failed;
+			}
+		}
+		System.out.println(String.format("Round trips: %d numbers, %d failed, %.2f M texts parsed/s", numberCount, failed, numberCount * 2e3 / Math.max(parseTime, 1)));
+		
+		for(String text : INVALID_TEXTS)
+		{
+			BigDecimal value = parser.parse(text);
+			if(value != null)
+			{
+				System.out.println("Accepted invalid text: " + text + " -> " + value);
+				++failed;
+			}
+		}
+		
+		System.out.println(failed == 0 ? "All checks passed." : failed + " checks failed.");
+		System.exit(failed == 0 ? 0 : 1);
+	}
+	
+	/**
+	 * Calculate a power of ten without floating point rounding.
+	 * @param exponent The exponent, between 0 and 18.
+	 * @return Ten to the power of the exponent.
+	 */
+	private static long powerOfTen(int exponent)
+	{
+		long power = 1;
+		for(int counter = 0; counter < exponent; ++counter)
+		{
+			power *= 10;
+		}
+		return power;
+	}
+}
@@ -0,0 +1,153 @@
+package rjs.tools;
+
+import rjs.container.NumberContainer;
+import rjs.numbers.NumberToKanaConverter;
+import rjs.random.SplittableRandomSource;
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Command line tool to compare the throughput of the number to hiragana converter
+ * with the former string based conversion of the number session.
+ * Both convert the same random numbers of up to nine digits, the most the former conversion supported.
+ * Usage: NumberToKanaBenchmark [numberCount] [rounds]
+ * @author Schlewinow
+ */
+public class NumberToKanaBenchmark
+{
+	/**
+	 * Highest number the former conversion handled.
+	 */
+	private static final long LEGACY_LIMIT = 1000000000L;
+	
+	public static void main(String[] args)
+	{
+		int numberCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		
+		IRandomSource random = new SplittableRandomSource(11);
+		long[] numbers = new long[numberCount];
+		String[] numberStrings = new String[numberCount];
+		for(int index = 0; index < numberCount; ++index)
+		{
+			numbers[index] = random.nextLong(LEGACY_LIMIT);
+			numberStrings[index] = "" + numbers[index];
+		}
+		
+		NumberToKanaConverter converter = new NumberToKanaConverter(random);
+		StringBuilder output = new StringBuilder();
+		for(int round = 0; round < rounds; ++round)
+		{
+			// The former conversion gets the number as string, like it did in the session.
+			long start = System.nanoTime();
+			long length = 0;
+			for(int index = 0; index < numberCount; ++index)
+			{
+				length += NumberToKanaBenchmark.legacyConversion(numberStrings[index], random).length();
+			}
+			long legacyTime = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			for(int index = 0; index < numberCount; ++index)
+			{
+				output.setLength(0);
+				converter.appendInteger(numbers[index], output);
+				length += output.length();
+			}
+			long converterTime = System.nanoTime() - start;
+			
+			System.out.println(String.format("Round %d: former %.2f M numbers/s, converter %.2f M numbers/s, speedup %.1fx (%d chars)",
+					round + 1, numberCount * 1e3 / legacyTime, numberCount * 1e3 / converterTime, (double)legacyTime / converterTime, length));
+		}
+	}
+	
+	/**
+	 * The former conversion, kept to compare against. Reads the digits by cutting the string apart.
+	 * @param numberString The number of up to nine digits as string.
+	 * @param random Source to pick one of several readings of a digit.
+	 * @return The given number as string in Hiragana.
+	 */
+	private static String legacyConversion(String numberString, IRandomSource random)
+	{
+		String hiraganaString = "";
+		String beforeComma = numberString;
+		
+		if(beforeComma.equals("0"))
+		{
+			return NumberContainer.Zero[random.nextInt(NumberContainer.Zero.length)];
+		}
+		
+		if(beforeComma.length () == 9)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.HundredMilllions, beforeComma, NumberContainer.HundredMilllions[9]);
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length () == 8)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Thousands, beforeComma, "");
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length () == 7)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Hundreds, beforeComma, "");
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length () == 6)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Tens, beforeComma, "", random);
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length () == 5)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.TenThousands, beforeComma, NumberContainer.TenThousands[9]);
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length () == 4)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Thousands, beforeComma, "");
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length () == 3)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Hundreds, beforeComma, "");
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length() == 2)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Tens, beforeComma, "", random);
+			beforeComma = beforeComma.substring(1, beforeComma.length());
+		}
+		if(beforeComma.length() == 1)
+		{
+			hiraganaString += NumberToKanaBenchmark.getNumberAsString(NumberContainer.Ones, beforeComma, "", random);
+		}
+		
+		return hiraganaString;
+	}
+	
+	/**
+	 * Part of the former conversion. Transform the leading digit of a string to hiragana.
+	 */
+	private static String getNumberAsString(String[] numberStrings, String digitString, String zeroString)
+	{
+		if(!digitString.startsWith("0"))
+		{
+			int number = Integer.parseInt(digitString.substring(0, 1));
+			return numberStrings[number-1];
+		}
+		return zeroString;
+	}
+	
+	/**
+	 * Part of the former conversion. Transform the leading digit of a string to hiragana, picking one of several readings.
+	 */
+	private static String getNumberAsString(String[][] numberStrings, String digitString, String zeroString, IRandomSource random)
+	{
+		if(!digitString.startsWith("0"))
+		{
+			int number = Integer.parseInt(digitString.substring(0, 1));
+			String[] hiraganaNumbers = numberStrings[number-1];
+			return hiraganaNumbers[random.nextInt(hiraganaNumbers.length)];
+		}
+		return zeroString;
+	}
+}
@@ -0,0 +1,109 @@
+package rjs.tools;
+
+import rjs.random.SplittableRandomSource;
+import rjs.random.ThreadLocalRandomSource;
+import rjs.random.interfaces.IRandomSource;
+
+/**
+ * Command line tool to check the random sources statistically.
+ * Draws many bounded values, counts them per bucket and runs a chi-square test against the uniform distribution.
+ * Also checks that seeded sources repeat their sequence.
+ * Usage: RandomSourceCheck [samplesPerBucket]
+ * @author Schlewinow
+ */
+public class RandomSourceCheck
+{
+	/**
+	 * Quantile of the standard normal distribution for a significance level of 0.1%.
+	 */
+	private static final double NORMAL_QUANTILE = 3.09;
+	
+	/**
+	 * Bounds of the checked ints. Large bounds are counted in ten buckets of equal size.
+	 */
+	private static final int[] INT_BOUNDS = { 2, 3, 6, 7, 10, 12, 24, 60, 100, 1000, 1500000000 };
+	
+	/**
+	 * Bounds of the checked longs, counted in ten buckets of equal size.
+	 */
+	private static final long[] LONG_BOUNDS = { 10000000000L, 1000000000000000L, 6000000000000000000L };
+	
+	/**
+	 * Maximum number of buckets per test.
+	 */
+	private static final int MAX_BUCKETS = 1000;
+	
+	public static void main(String[] args)
+	{
+		int samplesPerBucket = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		
+		IRandomSource[] sources = { new SplittableRandomSource(42), new ThreadLocalRandomSource() };
+		String[] names = { "SplittableRandomSource", "ThreadLocalRandomSource" };
+		
+		int failed = 0;
+		for(int source = 0; source < sources.length; ++source)
+		{
+			for(int bound : INT_BOUNDS)
+			{
+				int buckets = bound <= MAX_BUCKETS ? bound : 10;
+				long[] counts = new long[buckets];
+				long samples = (long)samplesPerBucket * buckets;
+				for(long sample = 0; sample < samples; ++sample)
+				{
+					++counts[(int)((long)sources[source].nextInt(bound) * buckets / bound)];
+				}
+				failed += RandomSourceCheck.report(names[source] + ".nextInt(" + bound + ")", counts, samples) ? 0 : 1;
+			}
+			
+			for(long bound : LONG_BOUNDS)
+			{
+				long[] counts = new long[10];
+				long samples = samplesPerBucket * 10L;
+				for(long sample = 0; sample < samples; ++sample)
+				{
+					++counts[(int)(sources[source].nextLong(bound) / (bound / 10))];
+				}
+				failed += RandomSourceCheck.report(names[source] + ".nextLong(" + bound + ")", counts, samples) ? 0 : 1;
+			}
+		}
+		
+		// The same seed has to give the same sequence.
+		SplittableRandomSource first = new SplittableRandomSource(1234);
+		SplittableRandomSource second = new SplittableRandomSource(1234);
+		boolean repeated = true;
+		for(int sample = 0; sample < 100000; ++sample)
+		{
+			repeated &= first.nextInt(1, 6) == second.nextInt(1, 6);
+		}
+		System.out.println("Seeded sequence repeated: " + repeated);
+		failed += repeated ? 0 : 1;
+		
+		System.out.println(failed == 0 ? "All checks passed." : failed + " checks failed.");
+	}
+	
+	/**
+	 * Print the chi-square statistic of the counts of a test.
+	 * @param name Name of the test.
+	 * @param counts Number of samples per bucket.
+	 * @param samples Total number of samples.
+	 * @return True if the counts fit the uniform distribution at a significance level of 0.1%.
+	 */
+	private static boolean report(String name, long[] counts, long samples)
+	{
+		double expected = (double)samples / counts.length;
+		double chiSquare = 0;
+		for(long count : counts)
+		{
+			chiSquare += (count - expected) * (count - expected) / expected;
+		}
+		
+		// Wilson-Hilferty approximation of the critical value of the chi-square distribution.
+		int degrees = counts.length - 1;
+		double term = 2.0 / (9.0 * degrees);
+		double critical = degrees * Math.pow(1 - term + NORMAL_QUANTILE * Math.sqrt(term), 3);
+		
+		boolean passed = chiSquare <= critical;
+		System.out.println(String.format("%-60s chi^2 = %10.2f, critical = %10.2f  %s", name, chiSquare, critical, passed ? "ok" : "FAILED"));
+		return passed;
+	}
+}
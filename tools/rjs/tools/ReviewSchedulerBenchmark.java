@@ -0,0 +1,92 @@
+package rjs.tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import rjs.random.SplittableRandomSource;
+import rjs.wordlist.SimpleWordListItem;
+import rjs.wordlist.WordList;
+import rjs.wordlist.review.ReviewScheduler;
+
+/**
+ * Command line tool to measure the spaced repetition scheduler on a large generated word list.
+ * Simulates a long learning session, reports the time needed to pick the next word and to grade it,
+ * then restores the schedule from its side file and checks that all reviewed words kept their state.
+ * Usage: ReviewSchedulerBenchmark [wordCount] [reviewCount]
+ * @author Schlewinow
+ */
+public class ReviewSchedulerBenchmark
+{
+	/**
+	 * Time passing between two reviews of the simulated session, in ms.
+	 */
+	private static final long REVIEW_PAUSE = 20000L;
+	
+	public static void main(String[] args) throws IOException
+	{
+		int wordCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int reviewCount = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+		
+		WordList wordList = new WordList();
+		for(int index = 0; index < wordCount; ++index)
+		{
+			SimpleWordListItem item = new SimpleWordListItem();
+			item.setRomajiText("word" + index);
+			item.setTranslationText("translation " + index);
+			wordList.addWord(item);
+		}
+		
+		// The side file is written beside a word list path in the temporary directory.
+		File wordListFile = File.createTempFile("review_benchmark", ".xml");
+		String path = wordListFile.getPath();
+		
+		long start = System.nanoTime();
+		ReviewScheduler scheduler = new ReviewScheduler(wordList, path);
+		System.out.println(String.format("Schedule of %d words created in %.1f ms", wordCount, (System.nanoTime() - start) / 1e6));
+		
+		SplittableRandomSource random = new SplittableRandomSource(7);
+		long now = System.currentTimeMillis();
+		long nextCardTime = 0;
+		long nextCardMax = 0;
+		long reviewTime = 0;
+		long reviewMax = 0;
+		for(int review = 0; review < reviewCount; ++review)
+		{
+			long before = System.nanoTime();
+			int card = scheduler.nextCard(now);
+			long picked = System.nanoTime();
+			
+			// Most words are known, some are forgotten.
+			int grade = random.nextInt(10) < 2 ? ReviewScheduler.GRADE_AGAIN : random.nextInt(ReviewScheduler.GRADE_HARD, ReviewScheduler.GRADE_EASY);
+			scheduler.review(card, grade, now);
+			long graded = System.nanoTime();
+			
+			nextCardTime += picked - before;
+			nextCardMax = Math.max(nextCardMax, picked - before);
+			reviewTime += graded - picked;
+			reviewMax = Math.max(reviewMax, graded - picked);
+			now += REVIEW_PAUSE;
+		}
+		System.out.println(String.format("Next word: %.2f us average, %.2f us maximum", nextCardTime / 1e3 / reviewCount, nextCardMax / 1e3));
+		System.out.println(String.format("Grade incl. side file: %.2f us average, %.2f us maximum", reviewTime / 1e3 / reviewCount, reviewMax / 1e3));
+		
+		start = System.nanoTime();
+		ReviewScheduler restored = new ReviewScheduler(wordList, path);
+		System.out.println(String.format("Schedule of %d reviewed words restored in %.1f ms", restored.getReviewedCount(), (System.nanoTime() - start) / 1e6));
+		
+		int mismatches = 0;
+		for(int card = 0; card < wordCount; ++card)
+		{
+			if(restored.getDueTime(card) != scheduler.getDueTime(card)
+					|| restored.getInterval(card) != scheduler.getInterval(card)
+					|| restored.getEase(card) != scheduler.getEase(card))
+			{
+				++mismatches;
+			}
+		}
+		System.out.println(mismatches == 0 ? "Restored state matches." : mismatches + " words restored wrongly.");
+		
+		new File(path + ".review").delete();
+		wordListFile.delete();
+	}
+}
@@ -0,0 +1,189 @@
+package rjs.tools;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import rjs.container.dateandtime.DateAndTimeContainer;
+import rjs.container.dateandtime.TimeUnit;
+import rjs.numbers.KanaToNumberParser;
+
+/**
+ * Command line tool to check the readings of all clock times of the DateAndTimeContainer once.
+ * Every time has to be unique in digits, kana and kanji. The hour and minute of the kanji reading
+ * are parsed back and compared with the time, the minute of the kana reading is compared with
+ * a table of the expected readings.
+ * Run it from the application directory, the container loads its data from the contents folder.
+ * Usage: TimeReadingCheck
+ * @author Schlewinow
+ */
+public class TimeReadingCheck
+{
+	/**
+	 * Number of minutes per hour.
+	 */
+	private static final int MINUTES_PER_HOUR = 60;
+	
+	/**
+	 * Number of hours per half of a day.
+	 */
+	private static final int HOURS_PER_HALF_DAY = 12;
+	
+	/**
+	 * Number of failures printed in detail.
+	 */
+	private static final int PRINTED_FAILURES = 10;
+	
+	/**
+	 * Expected kana reading of the tens digit of a minute, index digit.
+	 */
+	private static final String[] EXPECTED_TENS = {"",
+													"",
+													"\u306B",			// ni
+													"\u3055\u3093",		// san
+													"\u3088\u3093",		// yon
+													"\u3054"};			// go
+	
+	/**
+	 * Expected kana reading of a minute ending with the digit of the index, including the "hun" or "pun".
+	 * The reading for the digit 0 is the one of the ten.
+	 */
+	private static final String[] EXPECTED_ONES = {"\u3058\u3085\u3063\u3077\u3093",	// juppun
+													"\u3044\u3063\u3077\u3093",		// ippun
+													"\u306B\u3075\u3093",				// nihun
+													"\u3055\u3093\u3077\u3093",		// sanpun
+													"\u3088\u3093\u3077\u3093",		// yonpun
+													"\u3054\u3075\u3093",				// gohun
+													"\u308D\u3063\u3077\u3093",		// roppun
+													"\u306A\u306A\u3075\u3093",		// nanahun
+													"\u306F\u3063\u3077\u3093",		// happun
+													"\u304D\u3085\u3046\u3075\u3093"};	// kyuuhun
+	
+	/**
+	 * Expected kana reading of the ten between the tens and the ones digit of a minute.
+	 */
+	private static final String EXPECTED_TEN = "\u3058\u3085\u3046";		// juu
+	
+	public static void main(String[] args) throws Exception
+	{
+		DateAndTimeContainer container = new DateAndTimeContainer();
+		container.readFromXml(DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument());
+		KanaToNumberParser parser = new KanaToNumberParser();
+		
+		int failed = 0;
+		for(int clock = 0; clock < 2; ++clock)
+		{
+			boolean twelveHour = clock == 1;
+			int count = container.getTimeCount(twelveHour);
+			if(count != 24 * MINUTES_PER_HOUR)
+			{
+				System.out.println("Wrong number of times: " + count);
+				++failed;
+			}
+			
+			HashSet<String> texts = new HashSet<String>();
+			HashSet<String> kanaReadings = new HashSet<String>();
+			HashSet<String> kanjiReadings = new HashSet<String>();
+			for(int index = 0; index < count; ++index)
+			{
+				int hour = twelveHour ? index / MINUTES_PER_HOUR % HOURS_PER_HALF_DAY + 1 : index / MINUTES_PER_HOUR + 1;
+				int minute = index % MINUTES_PER_HOUR;
+				boolean evening = twelveHour && index >= HOURS_PER_HALF_DAY * MINUTES_PER_HOUR;
+				
+				String text = container.getTimeText(twelveHour, index);
+				TimeUnit time = container.getTime(twelveHour, index);
+				String problem = null;
+				if(!texts.add(text) || !kanaReadings.add(time.getKana()) || !kanjiReadings.add(time.getKanji()))
+				{
+					problem = "duplicate";
+				}
+				else if(!text.equals(String.format("%02d:%02d%s", hour, minute, twelveHour ? (evening ? " PM" : " AM") : "")))
+				{
+					problem = "wrong digits";
+				}
+				else if(!TimeReadingCheck.checkKanji(parser, time.getKanji(), twelveHour, evening, hour, minute))
+				{
+					problem = "wrong kanji";
+				}
+				else if(!TimeReadingCheck.checkKana(container, time.getKana(), twelveHour, evening, hour, minute))
+				{
+					problem = "wrong kana";
+				}
+				
+				if(problem != null)
+				{
+					if(failed < PRINTED_FAILURES)
+					{
+						System.out.println(problem + ": " + text + " " + time.getKana() + " " + time.getKanji());
+					}
+					++failed;
+				}
+			}
+			System.out.println((twelveHour ? "12" : "24") + " hour clock: " + count + " times checked.");
+		}
+		
+		System.out.println(failed == 0 ? "All checks passed." : failed + " checks failed.");
+		System.exit(failed == 0 ? 0 : 1);
+	}
+	
+	/**
+	 * Check a kanji reading by parsing its hour and minute.
+	 */
+	private static boolean checkKanji(KanaToNumberParser parser, String kanji, boolean twelveHour, boolean evening, int hour, int minute)
+	{
+		String half = twelveHour ? (evening ? DateAndTimeContainer.eveningKanji : DateAndTimeContainer.morningKanji) : "";
+		if(!kanji.startsWith(half))
+		{
+			return false;
+		}
+		kanji = kanji.substring(half.length());
+		
+		int hourEnd = kanji.indexOf(DateAndTimeContainer.hourKanji);
+		if(hourEnd < 0 || !BigDecimal.valueOf(hour).equals(parser.parse(kanji.substring(0, hourEnd))))
+		{
+			return false;
+		}
+		
+		String minutePart = kanji.substring(hourEnd + DateAndTimeContainer.hourKanji.length());
+		if(minute == 0)
+		{
+			return minutePart.isEmpty();
+		}
+		String alternative = " / " + DateAndTimeContainer.halfKanji;
+		if(minute == MINUTES_PER_HOUR / 2 && minutePart.endsWith(alternative))
+		{
+			minutePart = minutePart.substring(0, minutePart.length() - alternative.length());
+		}
+		return minutePart.endsWith(DateAndTimeContainer.minuteKanji)
+				&& BigDecimal.valueOf(minute).equals(parser.parse(minutePart.substring(0, minutePart.length() - DateAndTimeContainer.minuteKanji.length())));
+	}
+	
+	/**
+	 * Check a kana reading by its hour and the expected reading of its minute.
+	 */
+	private static boolean checkKana(DateAndTimeContainer container, String kana, boolean twelveHour, boolean evening, int hour, int minute)
+	{
+		String start = (twelveHour ? (evening ? DateAndTimeContainer.eveningHiragana : DateAndTimeContainer.morningHiragana) + " " : "") + container.getHour(hour).getKana();
+		if(!kana.startsWith(start))
+		{
+			return false;
+		}
+		
+		String minutePart = kana.substring(start.length());
+		if(minute == 0)
+		{
+			return minutePart.isEmpty();
+		}
+		String alternative = " / " + DateAndTimeContainer.minutes[10];
+		if(minute == MINUTES_PER_HOUR / 2 && minutePart.endsWith(alternative))
+		{
+			minutePart = minutePart.substring(0, minutePart.length() - alternative.length());
+		}
+		
+		int tens = minute / 10;
+		int ones = minute % 10;
+		String expected = EXPECTED_TENS[tens] + (tens > 0 && ones > 0 ? EXPECTED_TEN : "") + EXPECTED_ONES[ones];
+		return minutePart.equals(" " + expected);
+	}
+}